@@ -0,0 +1,73 @@
+package com.iv1201.gateway.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Verification keys for JWTs issued by the auth service.
+ * Mirrors the auth-service keyring: the active key ({@code jwt.kid} /
+ * {@code jwt.secret}) plus retiring keys ({@code jwt.retiring-keys}, comma
+ * separated {@code kid:base64-secret}). Keys are decoded once at startup and
+ * selected by the token's {@code kid} header; tokens without one (issued
+ * before key ids were introduced) are verified with the active key.
+ */
+@Component
+public class JwtKeyRing extends SigningKeyResolverAdapter {
+
+    private final SecretKey activeKey;
+    private final Map<String, SecretKey> keys;
+
+    /**
+     * @param activeKid    the id of the current signing key.
+     * @param activeSecret the base64 encoded current signing secret.
+     * @param retiringKeys comma separated {@code kid:base64-secret} pairs of
+     *                     keys that are being rotated out, may be empty.
+     */
+    public JwtKeyRing(@Value("${jwt.kid:primary}") String activeKid,
+                      @Value("${jwt.secret:defaultSecretKey12345678901234567890}") String activeSecret,
+                      @Value("${jwt.retiring-keys:}") String retiringKeys) {
+        Map<String, SecretKey> ring = new LinkedHashMap<>();
+        for (String entry : retiringKeys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid jwt.retiring-keys entry, expected kid:secret");
+            }
+            ring.put(entry.substring(0, separator).trim(), decode(entry.substring(separator + 1).trim()));
+        }
+        this.activeKey = decode(activeSecret);
+        ring.put(activeKid, activeKey);
+        this.keys = Collections.unmodifiableMap(ring);
+    }
+
+    private static SecretKey decode(String secret) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+
+    /**
+     * Selects the verification key for a token by its {@code kid} header.
+     *
+     * @param header the token header.
+     * @param claims the token claims.
+     * @return the key for the token's key id, or null if the id is unknown,
+     *         which makes the parser reject the token.
+     */
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String kid = header.getKeyId();
+        return kid == null ? activeKey : keys.get(kid);
+    }
+}
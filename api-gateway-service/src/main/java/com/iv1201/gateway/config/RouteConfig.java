@@ -1,10 +1,16 @@
 package com.iv1201.gateway.config;
 
 import com.iv1201.gateway.filter.JwtAuthenticationFilter;
+import com.iv1201.gateway.filter.RateLimitFilter;
+import com.iv1201.gateway.filter.RequestCoalescingFilter;
+import com.iv1201.gateway.filter.ResponseCacheFilter;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
 
 /**
  * Route configuration for the API gateway.
@@ -18,42 +24,76 @@ public class RouteConfig {
      *
      * @param builder the route locator builder.
      * @param authFilter the JWT authentication filter.
+     * @param cacheFilter the response cache for public reference data.
+     * @param coalescingFilter collapses identical concurrent GETs into one upstream call.
+     * @param rateLimitFilter limits requests per user, or per address on public routes.
      * @return the configured route locator.
      */
     @Bean
-    public RouteLocator customRouteLocator(RouteLocatorBuilder builder, JwtAuthenticationFilter authFilter) {
+    public RouteLocator customRouteLocator(RouteLocatorBuilder builder, JwtAuthenticationFilter authFilter,
+                                           ResponseCacheFilter cacheFilter,
+                                           RequestCoalescingFilter coalescingFilter,
+                                           RateLimitFilter rateLimitFilter) {
         return builder.routes()
+            // Revocation list pulled by the gateway itself, not served to clients
+            .route("auth-revocations-internal", r -> r
+                .path("/auth/revocations")
+                .filters(f -> f.setStatus(HttpStatus.NOT_FOUND))
+                .uri("no://op"))
+
             // Auth Service Routes (Public - No Auth Filter)
             .route("auth-service", r -> r
                 .path("/auth/**")
+                .filters(f -> f.filter(rateLimitFilter.apply(limit(30, Duration.ofMinutes(1)))))
                 .uri("http://auth-service:8080"))
 
             // Recruitment Service - Public Routes (No Auth Filter)
+            // Competences are the same for everyone and served from the gateway's cache;
+            // the limit runs ahead of the cache so cache hits count too
             .route("recruitment-competences", r -> r
                 .path("/api/recruitment/competences/**")
+                .filters(f -> f
+                    .filter(rateLimitFilter.apply(limit(60, Duration.ofMinutes(1))
+                        .setOrder(ResponseCacheFilter.ORDER - 1)))
+                    .filter(cacheFilter.apply(new ResponseCacheFilter.Config())))
                 .uri(System.getenv("RECRUITMENT_SERVICE_URL") != null ?
                     System.getenv("RECRUITMENT_SERVICE_URL") : "http://recruitment-service:8080"))
 
             .route("recruitment-migrated-user", r -> r
                 .path("/api/recruitment/migrated-user")
+                .filters(f -> f.filter(rateLimitFilter.apply(limit(10, Duration.ofMinutes(1)))))
                 .uri(System.getenv("RECRUITMENT_SERVICE_URL") != null ?
                     System.getenv("RECRUITMENT_SERVICE_URL") : "http://recruitment-service:8080")
             )
 
             // Recruitment Service - Protected Routes (Uses Auth Filter)
+            // Dashboards load the same lists at once; identical concurrent GETs share one upstream call
             .route("recruitment-applications", r -> r
                 .path("/api/recruitment/applications/**")
-                .filters(f -> f.filter(authFilter.apply(new JwtAuthenticationFilter.Config())))
+                .filters(f -> f
+                    .filter(coalescingFilter.apply(new RequestCoalescingFilter.Config()))
+                    .filter(authFilter.apply(new JwtAuthenticationFilter.Config()))
+                    .filter(rateLimitFilter.apply(limit(120, Duration.ofMinutes(1)))))
                 .uri(System.getenv("RECRUITMENT_SERVICE_URL") != null ?
                     System.getenv("RECRUITMENT_SERVICE_URL") : "http://recruitment-service:8080"))
 
             // Recruitment Service - Other Protected Routes (Uses Auth Filter)
             .route("recruitment-service", r -> r
                 .path("/api/recruitment/**")
-                .filters(f -> f.filter(authFilter.apply(new JwtAuthenticationFilter.Config())))
+                .filters(f -> f
+                    .filter(authFilter.apply(new JwtAuthenticationFilter.Config()))
+                    .filter(rateLimitFilter.apply(limit(120, Duration.ofMinutes(1)))))
                 .uri(System.getenv("RECRUITMENT_SERVICE_URL") != null ?
                     System.getenv("RECRUITMENT_SERVICE_URL") : "http://recruitment-service:8080"))
 
             .build();
     }
+
+    /**
+     * A rate limit: requests allowed in a burst, refilled over a period.
+     * Applied after the auth filter it counts per user, otherwise per address.
+     */
+    private static RateLimitFilter.Config limit(int capacity, Duration refillPeriod) {
+        return new RateLimitFilter.Config().setCapacity(capacity).setRefillPeriod(refillPeriod);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.iv1201.gateway.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled tasks such as the poll of the
+ * {@link com.iv1201.gateway.service.TokenRevocationList}.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,35 +1,48 @@
 package com.iv1201.gateway.filter;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value;
+import com.iv1201.gateway.service.TokenRevocationList;
+import com.iv1201.gateway.service.TokenVerifier;
+import com.iv1201.gateway.service.TokenVerifier.VerifiedToken;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
-import org.springframework.web.server.ResponseStatusException;
-
-import javax.crypto.SecretKey;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
 
 /**
  * Filter that validates JWT tokens and forwards User ID/Role as headers.
+ * Verification results are cached by {@link TokenVerifier} until the token
+ * expires, so a repeated token is not parsed and HMAC-verified again.
+ * Tokens revoked at logout are rejected by a lookup in the in-memory
+ * {@link TokenRevocationList} on every request; no remote call is made.
  */
 @Component
 public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAuthenticationFilter.Config> {
 
-    @Value("${jwt.secret:defaultSecretKey12345678901234567890}") 
-    private String secretKey;
+    /**
+     * Exchange attribute holding the id of the authenticated user. Unlike the
+     * {@code X-User-ID} header it can not be supplied by the client.
+     */
+    public static final String USER_ID_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".userId";
+
+    private final TokenVerifier tokenVerifier;
+    private final TokenRevocationList revocationList;
 
     /**
      * Creates a new JWT authentication filter with default configuration.
+     *
+     * @param tokenVerifier  verifies tokens and caches the results.
+     * @param revocationList the tokens revoked before their expiry.
      */
-    public JwtAuthenticationFilter() {
+    public JwtAuthenticationFilter(TokenVerifier tokenVerifier, TokenRevocationList revocationList) {
         super(Config.class);
+        this.tokenVerifier = tokenVerifier;
+        this.revocationList = revocationList;
     }
 
     /**
@@ -49,42 +62,51 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
                 return chain.filter(exchange);
             }
 
-            if (!request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
-                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing Authorization Header");
-            }
-
             String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid Authorization Header");
+                return unauthorized(exchange);
             }
 
             String token = authHeader.substring(7);
 
-            try {
-                // Decode the BASE64 secret key to match how auth-service generates tokens
-                byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-                SecretKey key = Keys.hmacShaKeyFor(keyBytes);
+            // Reject garbage before it reaches the parser, which signals errors by throwing
+            if (!TokenVerifier.isWellFormed(token)) {
+                return unauthorized(exchange);
+            }
 
-                Claims claims = Jwts.parserBuilder()
-                        .setSigningKey(key)
-                        .build()
-                        .parseClaimsJws(token)
-                        .getBody();
+            VerifiedToken verified;
+            try {
+                verified = tokenVerifier.verify(token);
+            } catch (Exception e) {
+                return unauthorized(exchange);
+            }
 
-                String userId = String.valueOf(claims.get("id"));
+            if (revocationList.isRevoked(verified.jti())) {
+                return unauthorized(exchange);
+            }
 
-                ServerHttpRequest modifiedRequest = request.mutate()
-                        .header("X-User-ID", userId)
-                        .build();
+            String userId = verified.userId();
+            exchange.getAttributes().put(USER_ID_ATTRIBUTE, userId);
 
-                return chain.filter(exchange.mutate().request(modifiedRequest).build());
+            ServerHttpRequest modifiedRequest = request.mutate()
+                    .header("X-User-ID", userId)
+                    .build();
 
-            } catch (Exception e) {
-                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid Token");
-            }
+            return chain.filter(exchange.mutate().request(modifiedRequest).build());
         };
     }
 
+    /**
+     * Ends the exchange with {@code 401 Unauthorized} and an empty body.
+     * Completing the response directly avoids building and unwinding an
+     * exception per rejected request.
+     */
+    private static Mono<Void> unauthorized(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        return response.setComplete();
+    }
+
     /** Configuration class for the JWT authentication filter. */
     public static class Config {
         // Configuration properties if needed
@@ -0,0 +1,188 @@
+package com.iv1201.gateway.filter;
+
+import com.iv1201.gateway.service.RateLimitStore;
+import com.iv1201.gateway.service.RateLimitStore.Decision;
+import com.iv1201.gateway.service.RateLimitStore.Limit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits the request rate per user, or per client address on public routes.
+ * <p>
+ * Each request takes a token from a bucket of its route: the bucket of the
+ * user id set by the {@link JwtAuthenticationFilter}, or of the remote
+ * address when the request is not authenticated. The {@code X-User-ID}
+ * request header is never trusted for this, since clients can send it on
+ * public routes. On protected routes, apply this filter after the
+ * authentication filter. An empty bucket answers {@code 429 Too Many
+ * Requests} with {@code Retry-After}. Limits are set per route in
+ * {@code RouteConfig}.
+ * </p>
+ * <p>
+ * Buckets are kept by the {@link RateLimitStore}. If the store fails the
+ * request is let through, so an outage of a shared store does not take the
+ * gateway down with it.
+ * </p>
+ * <p>
+ * Metrics: {@code gateway.requests.rate-limited}, tagged by {@code route},
+ * counts the rejected requests.
+ * </p>
+ */
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimitStore store;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> rejected = new ConcurrentHashMap<>();
+
+    /**
+     * @param store         the token buckets.
+     * @param meterRegistry the registry for the rate limit metrics.
+     */
+    public RateLimitFilter(RateLimitStore store, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.store = store;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Applies a rate limit to a route, in its place among the route's
+     * filters unless the limit has an explicit order.
+     *
+     * @param config the limit of the route.
+     * @return the configured gateway filter.
+     */
+    @Override
+    public GatewayFilter apply(Config config) {
+        Limit limit = new Limit(config.getCapacity(), config.getRefillPeriod());
+        GatewayFilter filter = (exchange, chain) -> {
+            // Preflight requests are answered by the CORS filter and carry no credentials
+            if (exchange.getRequest().getMethod() == HttpMethod.OPTIONS) {
+                return chain.filter(exchange);
+            }
+
+            String routeId = routeId(exchange);
+            return store.consume(routeId + ":" + key(exchange), limit)
+                    .onErrorResume(e -> {
+                        log.warn("Rate limit store failed, allowing request: {}", e.getMessage());
+                        return Mono.just(Decision.ALLOWED);
+                    })
+                    .flatMap(decision -> decision.allowed()
+                            ? chain.filter(exchange)
+                            : tooManyRequests(exchange, routeId, decision.retryAfter()));
+        };
+        return config.getOrder() != null ? new OrderedGatewayFilter(filter, config.getOrder()) : filter;
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+
+    private static String key(ServerWebExchange exchange) {
+        String userId = exchange.getAttribute(JwtAuthenticationFilter.USER_ID_ATTRIBUTE);
+        if (userId != null) {
+            return "user:" + userId;
+        }
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        if (remote == null) {
+            return "ip:unknown";
+        }
+        return "ip:" + (remote.getAddress() != null ? remote.getAddress().getHostAddress() : remote.getHostString());
+    }
+
+    private Mono<Void> tooManyRequests(ServerWebExchange exchange, String routeId, Duration retryAfter) {
+        rejected.computeIfAbsent(routeId, id -> Counter.builder("gateway.requests.rate-limited")
+                .description("Requests rejected by the rate limit of their route")
+                .tag("route", id)
+                .register(meterRegistry)).increment();
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        return response.setComplete();
+    }
+
+    /** The limit of a route. */
+    public static class Config {
+
+        private int capacity = 60;
+        private Duration refillPeriod = Duration.ofMinutes(1);
+        private Integer order;
+
+        /**
+         * @return the number of requests allowed in a burst.
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * @param capacity the number of requests allowed in a burst.
+         * @return this configuration.
+         */
+        public Config setCapacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * @return the time in which an empty bucket refills completely.
+         */
+        public Duration getRefillPeriod() {
+            return refillPeriod;
+        }
+
+        /**
+         * @param refillPeriod the time in which an empty bucket refills completely.
+         * @return this configuration.
+         */
+        public Config setRefillPeriod(Duration refillPeriod) {
+            this.refillPeriod = refillPeriod;
+            return this;
+        }
+
+        /**
+         * @return the explicit order of the filter, or {@code null} to run in its place among the route's filters.
+         */
+        public Integer getOrder() {
+            return order;
+        }
+
+        /**
+         * Runs the limit at a fixed order, e.g. ahead of the
+         * {@link ResponseCacheFilter} so cache hits are counted too. A limit
+         * ordered this way runs before the route's other filters, so on
+         * protected routes it would count per address, not per user.
+         *
+         * @param order the order of the filter.
+         * @return this configuration.
+         */
+        public Config setOrder(Integer order) {
+            this.order = order;
+            return this;
+        }
+    }
+}
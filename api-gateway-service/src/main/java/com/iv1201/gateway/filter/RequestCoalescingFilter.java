@@ -0,0 +1,293 @@
+package com.iv1201.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collapses identical concurrent GET requests into one upstream call.
+ * <p>
+ * The first GET for a key (route, path, query, {@code Accept} and the
+ * caller's {@code Authorization} header) is forwarded as usual and its
+ * response is captured while it is written. GETs with the same key that
+ * arrive while it is in flight are not forwarded; they wait for that
+ * response and get a copy of its status, headers and body. Keying on the
+ * {@code Authorization} header means only requests made with the same
+ * token share a response, so a response is never handed to another user.
+ * A rejection by the {@link JwtAuthenticationFilter} is shared the same way.
+ * </p>
+ * <p>
+ * Nothing is kept after the first response completes; this is not a cache.
+ * The body is only copied when a request is waiting, and at most
+ * {@code gateway.coalescing.maximum-body-size} of it. A waiting request goes
+ * upstream itself when the body is larger, or when no response arrived
+ * within {@code gateway.coalescing.wait-timeout}. If the forwarded request
+ * fails or is cancelled, the waiting requests fail with it. Opt in per
+ * route in {@code RouteConfig}.
+ * </p>
+ * <p>
+ * Metrics: {@code gateway.requests.coalesced}, tagged by {@code route}, counts
+ * the requests answered from another request's upstream call.
+ * </p>
+ */
+@Component
+public class RequestCoalescingFilter extends AbstractGatewayFilterFactory<RequestCoalescingFilter.Config> {
+
+    /**
+     * Response headers a waiting request does not take over from the forwarded
+     * one. CORS headers are also skipped; they belong to the caller's origin.
+     */
+    private static final List<String> SKIPPED_HEADERS = List.of(
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION);
+
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> coalesced = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final long maximumBodySize;
+    private final Duration waitTimeout;
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+
+        static SharedResponse of(HttpStatusCode status, HttpHeaders responseHeaders, byte[] body) {
+            HttpHeaders headers = new HttpHeaders();
+            responseHeaders.forEach((name, values) -> {
+                if (SKIPPED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)
+                        && !name.regionMatches(true, 0, "Access-Control-", 0, 15)) {
+                    headers.put(name, List.copyOf(values));
+                }
+            });
+            return new SharedResponse(status, headers, body);
+        }
+    }
+
+    /**
+     * A forwarded request and the requests waiting for its response. Once
+     * the forwarded request starts its response alone, the flight is closed
+     * and nobody can join it any more.
+     */
+    private static final class Flight {
+
+        private static final int CLOSED = -1;
+
+        private final Sinks.One<SharedResponse> response = Sinks.one();
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        /**
+         * @return {@code false} if the flight is closed and the caller must go upstream itself.
+         */
+        boolean join() {
+            return waiting.getAndUpdate(n -> n == CLOSED ? CLOSED : n + 1) != CLOSED;
+        }
+
+        /**
+         * @return {@code true} if nobody joined, in which case nobody can join any more.
+         */
+        boolean closeIfAlone() {
+            return waiting.compareAndSet(0, CLOSED);
+        }
+    }
+
+    /**
+     * @param meterRegistry   the registry for the coalescing metrics.
+     * @param maximumBodySize the largest response body copied for waiting requests.
+     * @param waitTimeout     how long a waiting request waits before it goes upstream itself.
+     */
+    public RequestCoalescingFilter(MeterRegistry meterRegistry,
+                                   @Value("${gateway.coalescing.maximum-body-size:1MB}") DataSize maximumBodySize,
+                                   @Value("${gateway.coalescing.wait-timeout:PT5S}") Duration waitTimeout) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.maximumBodySize = maximumBodySize.toBytes();
+        this.waitTimeout = waitTimeout;
+    }
+
+    /**
+     * Applies request coalescing to a route. The filter is ordered before
+     * the gateway writes the upstream response, so it can capture the body.
+     *
+     * @param config the filter configuration.
+     * @return the configured gateway filter.
+     */
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String key = key(exchange);
+            Flight flight = new Flight();
+            Flight leader = inFlight.putIfAbsent(key, flight);
+            if (leader != null) {
+                if (!leader.join()) {
+                    return chain.filter(exchange);
+                }
+                // An empty result means the response was not shared (too large, or too slow)
+                return leader.response.asMono()
+                        .timeout(waitTimeout, Mono.empty())
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(response -> {
+                            if (response.isEmpty()) {
+                                return chain.filter(exchange);
+                            }
+                            counter(exchange).increment();
+                            return write(exchange.getResponse(), response.get());
+                        });
+            }
+
+            return chain.filter(exchange.mutate().response(sharing(exchange.getResponse(), key, flight)).build())
+                    .doFinally(signal -> {
+                        inFlight.remove(key, flight);
+                        flight.response.tryEmitError(
+                                new IllegalStateException("Coalesced request ended without a response"));
+                    });
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Counter counter(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "unknown";
+        return coalesced.computeIfAbsent(routeId, id -> Counter.builder("gateway.requests.coalesced")
+                .description("Requests answered from a concurrent identical request's upstream call")
+                .tag("route", id)
+                .register(meterRegistry));
+    }
+
+    private static String key(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        URI uri = request.getURI();
+        HttpHeaders headers = request.getHeaders();
+        return (route != null ? route.getId() : "") + " " + uri.getRawPath()
+                + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "")
+                + " " + headers.getFirst(HttpHeaders.ACCEPT)
+                + " " + digest(headers.getFirst(HttpHeaders.AUTHORIZATION));
+    }
+
+    /** The credential is part of the key, but is not kept in the map itself. */
+    private static String digest(String authorization) {
+        if (authorization == null) {
+            return "";
+        }
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(authorization.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Wraps the forwarded request's response so its status, headers and body
+     * are handed to the waiting requests while it is written. The body is
+     * streamed to the client either way; it is only copied if a request is
+     * waiting, and only up to the maximum body size. A larger body is not
+     * shared and the waiting requests go upstream themselves.
+     */
+    private ServerHttpResponse sharing(ServerHttpResponse original, String key, Flight flight) {
+        return new ServerHttpResponseDecorator(original) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (flight.closeIfAlone()) {
+                    inFlight.remove(key, flight);
+                    return super.writeWith(body);
+                }
+                HttpStatusCode status = getStatusCode();
+                HttpHeaders headers = getHeaders();
+                ByteArrayOutputStream copy = new ByteArrayOutputStream();
+                AtomicBoolean tooLarge = new AtomicBoolean();
+                Flux<DataBuffer> teed = Flux.<DataBuffer>from(body)
+                        .doOnNext(buffer -> {
+                            if (tooLarge.get()) {
+                                return;
+                            }
+                            if ((long) copy.size() + buffer.readableByteCount() > maximumBodySize) {
+                                tooLarge.set(true);
+                                copy.reset();
+                                flight.response.tryEmitEmpty();
+                                return;
+                            }
+                            try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+                                chunks.forEachRemaining(chunk -> {
+                                    byte[] bytes = new byte[chunk.remaining()];
+                                    chunk.get(bytes);
+                                    copy.write(bytes, 0, bytes.length);
+                                });
+                            }
+                        })
+                        .doOnComplete(() -> {
+                            if (!tooLarge.get()) {
+                                flight.response.tryEmitValue(SharedResponse.of(status, headers, copy.toByteArray()));
+                            }
+                        });
+                return super.writeWith(teed);
+            }
+
+            @Override
+            public Mono<Void> setComplete() {
+                if (flight.closeIfAlone()) {
+                    inFlight.remove(key, flight);
+                } else {
+                    flight.response.tryEmitValue(SharedResponse.of(getStatusCode(), getHeaders(), new byte[0]));
+                }
+                return super.setComplete();
+            }
+        };
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status());
+        HttpHeaders headers = response.getHeaders();
+        // Headers the gateway already set for this request (e.g. CORS) are kept
+        shared.headers().forEach((name, values) -> {
+            if (!headers.containsKey(name)) {
+                headers.put(name, values);
+            }
+        });
+        if (shared.body().length == 0) {
+            return response.setComplete();
+        }
+        headers.setContentLength(shared.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    /** Configuration class for the request coalescing filter. */
+    public static class Config {
+        // Configuration properties if needed
+    }
+}
@@ -0,0 +1,158 @@
+package com.iv1201.gateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of every request and writes a sampled access log.
+ * <p>
+ * Three timers are recorded per route and status: {@code gateway.requests}
+ * (from the first filter until the response is written),
+ * {@code gateway.requests.upstream} (waiting for the upstream service, see
+ * {@link UpstreamTimingFilter}) and {@code gateway.requests.overhead} (the
+ * rest, i.e. the time spent in the gateway). Percentiles and histogram
+ * buckets are configured with the {@code management.metrics.distribution.*}
+ * properties and published at {@code /actuator/prometheus}.
+ * </p>
+ * <p>
+ * Requests that match no route never reach the gateway's filters; the
+ * framework answers them with {@code 404}. This class is also a
+ * {@link WebFilter} so they are recorded too, with route {@code none}. It
+ * only records requests that went through the gateway's route lookup without
+ * a match, so requests to other handlers, such as the management port, are
+ * left out.
+ * </p>
+ * <p>
+ * One access log line is written per sampled request on the
+ * {@code gateway.access} logger, which logs asynchronously (see
+ * {@code logback-spring.xml}). Server errors are always logged; other
+ * requests with probability {@code gateway.access-log.sample-rate}.
+ * </p>
+ */
+@Component
+public class RequestMetricsFilter implements GlobalFilter, WebFilter, Ordered {
+
+    private static final Logger accessLog = LoggerFactory.getLogger("gateway.access");
+
+    private static final String ERROR_ATTRIBUTE = RequestMetricsFilter.class.getName() + ".error";
+
+    private final MeterRegistry meterRegistry;
+    private final double sampleRate;
+    private final Map<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    /**
+     * @param meterRegistry the registry the timers are published to.
+     * @param sampleRate    the share of successful requests written to the access log, 0 to 1.
+     */
+    public RequestMetricsFilter(MeterRegistry meterRegistry,
+                                @Value("${gateway.access-log.sample-rate:0.01}") double sampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnError(error -> exchange.getAttributes().put(ERROR_ATTRIBUTE, error))
+                .doFinally(signal -> record(exchange, signal, System.nanoTime() - start));
+    }
+
+    /**
+     * Records requests for which the gateway found no route; requests with a
+     * route are recorded by {@link #filter(ServerWebExchange, GatewayFilterChain)}.
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnError(error -> exchange.getAttributes().put(ERROR_ATTRIBUTE, error))
+                .doFinally(signal -> {
+                    if (exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_HANDLER_MAPPER_ATTR) != null
+                            && exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR) == null) {
+                        record(exchange, signal, System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private void record(ServerWebExchange exchange, SignalType signal, long totalNanos) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "none";
+        String status = status(exchange, signal);
+        long upstreamNanos = exchange.getAttributeOrDefault(UpstreamTimingFilter.UPSTREAM_NANOS_ATTRIBUTE, 0L);
+
+        Timer[] routeTimers = timers.computeIfAbsent(routeId + " " + status, key -> new Timer[] {
+            timer("gateway.requests", "Time until the response is written", routeId, status),
+            timer("gateway.requests.upstream", "Time waiting for the upstream response headers", routeId, status),
+            timer("gateway.requests.overhead", "Time spent in the gateway", routeId, status)
+        });
+        routeTimers[0].record(totalNanos, TimeUnit.NANOSECONDS);
+        if (upstreamNanos > 0) {
+            routeTimers[1].record(upstreamNanos, TimeUnit.NANOSECONDS);
+        }
+        routeTimers[2].record(Math.max(0, totalNanos - upstreamNanos), TimeUnit.NANOSECONDS);
+
+        if (status.startsWith("5") || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            ServerHttpRequest request = exchange.getRequest();
+            accessLog.info("{} {} route={} status={} total={}ms upstream={}ms source={}",
+                    request.getMethod(), request.getPath(), routeId, status,
+                    TimeUnit.NANOSECONDS.toMillis(totalNanos), TimeUnit.NANOSECONDS.toMillis(upstreamNanos),
+                    request.getRemoteAddress() != null ? request.getRemoteAddress().getHostString() : "unknown");
+        }
+    }
+
+    private Timer timer(String name, String description, String routeId, String status) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("route", routeId)
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The status of the response. An error not yet turned into a response is
+     * reported with the status the error handler will send.
+     */
+    private static String status(ServerWebExchange exchange, SignalType signal) {
+        if (signal == SignalType.CANCEL) {
+            return "cancelled";
+        }
+        Throwable error = exchange.getAttribute(ERROR_ATTRIBUTE);
+        if (error instanceof ResponseStatusException statusException) {
+            return String.valueOf(statusException.getStatusCode().value());
+        }
+        if (error != null) {
+            return "500";
+        }
+        HttpStatusCode code = exchange.getResponse().getStatusCode();
+        return code != null ? String.valueOf(code.value()) : "200";
+    }
+
+    /** Runs first, so the timers include the time spent in every other filter. */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,242 @@
+package com.iv1201.gateway.filter;
+
+import com.iv1201.gateway.service.ResponseCache;
+import com.iv1201.gateway.service.ResponseCache.CachedResponse;
+import com.iv1201.gateway.service.ResponseCache.Freshness;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves public GET routes from the gateway's {@link ResponseCache}.
+ * <p>
+ * A fresh cached response is written without a backend hop; a request whose
+ * {@code If-None-Match} matches its ETag gets {@code 304 Not Modified}. Once
+ * stale, the response is still served for the upstream's
+ * {@code stale-while-revalidate} period while one background request
+ * revalidates it with {@code If-None-Match}. Otherwise the request goes
+ * upstream and a cacheable {@code 200} is stored on the way back. Requests
+ * carrying an {@code Authorization} header always go upstream.
+ * </p>
+ * <p>
+ * Responses carry {@code X-Cache: HIT}, {@code STALE} or {@code MISS}. Only
+ * apply this filter to routes whose responses are the same for every caller.
+ * </p>
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    /**
+     * The order of the filter: before the gateway writes the upstream
+     * response, so the filter can capture the body. Filters that must run
+     * before a cache hit is served, such as a rate limit, need a lower order.
+     */
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private final ResponseCache cache;
+    private final WebClient webClient;
+    private final Duration revalidationTimeout;
+
+    /**
+     * @param cache               the cached responses.
+     * @param webClientBuilder    the builder for the revalidation client.
+     * @param revalidationTimeout the timeout of a background revalidation.
+     */
+    public ResponseCacheFilter(ResponseCache cache, WebClient.Builder webClientBuilder,
+                               @Value("${gateway.response-cache.revalidation-timeout:PT5S}") Duration revalidationTimeout) {
+        super(Config.class);
+        this.cache = cache;
+        this.webClient = webClientBuilder.build();
+        this.revalidationTimeout = revalidationTimeout;
+    }
+
+    /**
+     * Applies the response cache to a route, at {@link #ORDER}.
+     *
+     * @param config the filter configuration.
+     * @return the configured gateway filter.
+     */
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+                return chain.filter(exchange);
+            }
+
+            String key = key(exchange);
+            Instant now = Instant.now();
+            CachedResponse cached = cache.get(key);
+            if (cached != null && cached.isFresh(now)) {
+                return write(exchange, cached, now, "HIT");
+            }
+            if (cached != null && cached.isUsableWhileRevalidating(now)) {
+                revalidate(exchange, key, cached);
+                return write(exchange, cached, now, "STALE");
+            }
+
+            return chain.filter(exchange.mutate().response(capturing(exchange.getResponse(), key)).build());
+        }, ORDER);
+    }
+
+    private static String key(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        URI uri = exchange.getRequest().getURI();
+        return (route != null ? route.getId() : "") + " " + uri.getRawPath()
+                + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, Instant now, String status) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.addAll(cached.headers());
+        headers.set(HttpHeaders.AGE, String.valueOf(cached.age(now)));
+        headers.set(CACHE_STATUS_HEADER, status);
+
+        String etag = cached.headers().getETag();
+        if (etag != null && exchange.getRequest().getHeaders().getIfNoneMatch().contains(etag)) {
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    /**
+     * Wraps the response so a cacheable {@code 200} body is stored while it
+     * is written to the client. The body is never held back from the
+     * client, and at most one maximum entry size of it is copied.
+     */
+    private ServerHttpResponse capturing(ServerHttpResponse original, String key) {
+        return new ServerHttpResponseDecorator(original) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpHeaders headers = getHeaders();
+                Freshness freshness = ResponseCache.freshness(headers);
+                if (getStatusCode() != HttpStatus.OK || freshness == null
+                        || headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+                        || headers.containsKey(HttpHeaders.SET_COOKIE)
+                        || !cache.fits(headers.getContentLength())) {
+                    return super.writeWith(body);
+                }
+                headers.set(CACHE_STATUS_HEADER, "MISS");
+                // The body is copied while it streams through; without a Content-Length
+                // the copy is dropped once it outgrows the largest storable entry
+                ByteArrayOutputStream copy = new ByteArrayOutputStream();
+                AtomicBoolean tooLarge = new AtomicBoolean();
+                Flux<DataBuffer> teed = Flux.<DataBuffer>from(body)
+                        .doOnNext(buffer -> {
+                            if (tooLarge.get()) {
+                                return;
+                            }
+                            if (!cache.fits((long) copy.size() + buffer.readableByteCount())) {
+                                tooLarge.set(true);
+                                copy.reset();
+                                return;
+                            }
+                            try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+                                chunks.forEachRemaining(chunk -> {
+                                    byte[] bytes = new byte[chunk.remaining()];
+                                    chunk.get(bytes);
+                                    copy.write(bytes, 0, bytes.length);
+                                });
+                            }
+                        })
+                        .doOnComplete(() -> {
+                            if (!tooLarge.get()) {
+                                cache.put(key, new CachedResponse(ResponseCache.storedHeaders(headers),
+                                        copy.toByteArray(), Instant.now(), freshness));
+                            }
+                        });
+                return super.writeWith(teed);
+            }
+        };
+    }
+
+    /**
+     * Revalidates a stale response in the background with a conditional
+     * request to the route's upstream. At most one revalidation per key runs
+     * at a time; on failure the stale response stays until it expires.
+     */
+    private void revalidate(ServerWebExchange exchange, String key, CachedResponse cached) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || !cache.startRevalidation(key)) {
+            return;
+        }
+        URI requestUri = exchange.getRequest().getURI();
+        URI upstream = UriComponentsBuilder.fromUri(route.getUri())
+                .replacePath(requestUri.getRawPath())
+                .replaceQuery(requestUri.getRawQuery())
+                .build(true)
+                .toUri();
+        String etag = cached.headers().getETag();
+
+        webClient.get()
+                .uri(upstream)
+                .headers(headers -> {
+                    if (etag != null) {
+                        headers.setIfNoneMatch(etag);
+                    }
+                })
+                .exchangeToMono(response -> {
+                    HttpHeaders headers = response.headers().asHttpHeaders();
+                    if (response.statusCode() == HttpStatus.NOT_MODIFIED) {
+                        cache.put(key, cached.revalidated(Instant.now(), ResponseCache.freshness(headers)));
+                        return Mono.empty();
+                    }
+                    if (response.statusCode() != HttpStatus.OK) {
+                        return response.releaseBody();
+                    }
+                    return response.bodyToMono(byte[].class).doOnNext(body -> {
+                        Freshness freshness = ResponseCache.freshness(headers);
+                        if (freshness == null) {
+                            cache.remove(key);
+                        } else {
+                            cache.put(key, new CachedResponse(ResponseCache.storedHeaders(headers), body,
+                                    Instant.now(), freshness));
+                        }
+                    }).then();
+                })
+                .timeout(revalidationTimeout)
+                .doFinally(signal -> cache.endRevalidation(key))
+                .subscribe(null, e -> log.warn("Could not revalidate {}: {}", key, e.getMessage()));
+    }
+
+    /** Configuration class for the response cache filter. */
+    public static class Config {
+        // Configuration properties if needed
+    }
+}
@@ -0,0 +1,41 @@
+package com.iv1201.gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures the time spent waiting for the upstream service.
+ * <p>
+ * Runs immediately before the {@link NettyRoutingFilter}, whose chain
+ * completes once the upstream response headers have arrived, and stores
+ * the elapsed nanoseconds in the {@link #UPSTREAM_NANOS_ATTRIBUTE} exchange
+ * attribute for the {@link RequestMetricsFilter}. Requests answered by the
+ * gateway itself (cache hits, rejections) never reach this filter.
+ * </p>
+ */
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+    /** Exchange attribute holding the upstream time in nanoseconds. */
+    public static final String UPSTREAM_NANOS_ATTRIBUTE = UpstreamTimingFilter.class.getName() + ".nanos";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        // Stored before the completion or error travels on, since the RequestMetricsFilter records on it
+        Runnable store = () -> exchange.getAttributes().put(UPSTREAM_NANOS_ATTRIBUTE, System.nanoTime() - start);
+        return chain.filter(exchange)
+                .doOnTerminate(store)
+                .doOnCancel(store);
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+}
@@ -0,0 +1,104 @@
+package com.iv1201.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory {@link RateLimitStore}, the default
+ * ({@code gateway.rate-limit.store=local}). Every gateway instance keeps its
+ * own buckets, so with several instances a caller gets each route's limit
+ * once per instance.
+ * <p>
+ * One store serves all routes: the {@link com.iv1201.gateway.filter.RateLimitFilter}
+ * prefixes each key with its route id and passes the route's {@link Limit}
+ * with every call. Per key the store keeps only the instant, on the
+ * {@link Ticker}, at which the caller's bucket will be full again. A request
+ * moves that instant one refill interval ({@code refillPeriod / capacity})
+ * later and is allowed as long as it stays within one refill period of now;
+ * otherwise the overshoot is returned as the {@code Retry-After}. A new key
+ * starts full. Because the interval is taken from the limit on each call, a
+ * changed limit applies to existing buckets at once.
+ * </p>
+ * <p>
+ * The instant is an {@link AtomicLong} updated with compare-and-set, so
+ * concurrent requests of one caller never block each other. The map is a
+ * Caffeine cache of at most {@code gateway.rate-limit.maximum-keys} keys that
+ * forgets a key after {@code gateway.rate-limit.idle-timeout} without
+ * requests; keep that at least as long as the longest refill period of a
+ * route, or a forgotten bucket comes back full too early.
+ * </p>
+ * <p>
+ * Publishes {@code gateway.rate-limit.keys} (tracked buckets).
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.rate-limit.store", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimitStore implements RateLimitStore {
+
+    private final Cache<String, AtomicLong> buckets;
+    private final Ticker ticker;
+
+    /**
+     * @param maximumKeys   the maximum number of tracked buckets.
+     * @param idleTimeout   how long an unused bucket is kept.
+     * @param meterRegistry the registry the store metrics are published to.
+     */
+    @Autowired
+    public LocalRateLimitStore(@Value("${gateway.rate-limit.maximum-keys:100000}") long maximumKeys,
+                               @Value("${gateway.rate-limit.idle-timeout:PT5M}") Duration idleTimeout,
+                               MeterRegistry meterRegistry) {
+        this(maximumKeys, idleTimeout, meterRegistry, Ticker.systemTicker());
+    }
+
+    /**
+     * @param maximumKeys   the maximum number of tracked buckets.
+     * @param idleTimeout   how long an unused bucket is kept.
+     * @param meterRegistry the registry the store metrics are published to.
+     * @param ticker        the time source, {@link Ticker#systemTicker()} outside tests.
+     */
+    public LocalRateLimitStore(long maximumKeys, Duration idleTimeout, MeterRegistry meterRegistry, Ticker ticker) {
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .maximumSize(maximumKeys)
+                .ticker(ticker)
+                .build();
+        Gauge.builder("gateway.rate-limit.keys", buckets, Cache::estimatedSize)
+                .description("Users and addresses currently tracked by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Decision> consume(String key, Limit limit) {
+        return Mono.just(tryConsume(key, limit));
+    }
+
+    private Decision tryConsume(String key, Limit limit) {
+        AtomicLong arrival = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long interval = limit.refillPeriod().toNanos() / limit.capacity();
+        long tolerance = interval * limit.capacity();
+        while (true) {
+            long now = ticker.read();
+            long current = arrival.get();
+            long next = Math.max(current, now) + interval;
+            long excess = next - now - tolerance;
+            if (excess > 0) {
+                return new Decision(false, Duration.ofNanos(excess));
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return Decision.ALLOWED;
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.iv1201.gateway.service;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Token buckets used by the {@link com.iv1201.gateway.filter.RateLimitFilter}.
+ * <p>
+ * {@link LocalRateLimitStore} keeps the buckets in the gateway's memory, so
+ * every gateway instance enforces the limits on its own. A store shared by
+ * all instances (e.g. backed by Redis) can replace it by implementing this
+ * interface and setting {@code gateway.rate-limit.store} to another value
+ * than {@code local}.
+ * </p>
+ */
+public interface RateLimitStore {
+
+    /**
+     * Capacity and refill rate of a bucket.
+     *
+     * @param capacity     requests allowed in a burst.
+     * @param refillPeriod time in which an empty bucket refills completely.
+     */
+    record Limit(int capacity, Duration refillPeriod) {
+
+        public Limit {
+            if (capacity < 1 || refillPeriod.isNegative() || refillPeriod.isZero()) {
+                throw new IllegalArgumentException("Invalid rate limit");
+            }
+        }
+    }
+
+    /**
+     * The outcome of taking a token.
+     *
+     * @param allowed    whether the request may proceed.
+     * @param retryAfter when the next token is available, zero if allowed.
+     */
+    record Decision(boolean allowed, Duration retryAfter) {
+
+        /** A request that may proceed. */
+        public static final Decision ALLOWED = new Decision(true, Duration.ZERO);
+    }
+
+    /**
+     * Takes one token from a bucket.
+     *
+     * @param key   the bucket, e.g. {@code user:42} or {@code ip:10.0.0.1} per route.
+     * @param limit the limit of the bucket.
+     * @return the decision.
+     */
+    Mono<Decision> consume(String key, Limit limit);
+}
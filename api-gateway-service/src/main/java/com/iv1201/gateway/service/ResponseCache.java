@@ -0,0 +1,249 @@
+package com.iv1201.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory store of upstream GET responses for the
+ * {@link com.iv1201.gateway.filter.ResponseCacheFilter}.
+ * <p>
+ * Responses are kept as long as their {@code Cache-Control} allows:
+ * fresh for {@code s-maxage} (or {@code max-age}), then usable for
+ * {@code stale-while-revalidate} more while one background request
+ * revalidates them. Responses marked {@code no-store}, {@code no-cache} or
+ * {@code private}, or without a max age, are not stored.
+ * </p>
+ * <p>
+ * The store is a Caffeine cache bounded by the total size of the cached
+ * bodies ({@code gateway.response-cache.maximum-size}), so lookups do not
+ * contend on a lock and rarely used responses are evicted first. Bodies
+ * larger than {@code gateway.response-cache.maximum-entry-size} are not
+ * stored.
+ * </p>
+ */
+@Component
+public class ResponseCache {
+
+    /** The upstream headers replayed with a cached response. */
+    private static final List<String> STORED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LANGUAGE, HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED);
+
+    /**
+     * How long a response may be used, from its {@code Cache-Control}.
+     *
+     * @param maxAge               how long the response is fresh.
+     * @param staleWhileRevalidate how long it may be served stale while it is revalidated.
+     */
+    public record Freshness(Duration maxAge, Duration staleWhileRevalidate) {
+    }
+
+    /**
+     * A cached {@code 200 OK} response.
+     *
+     * @param headers   the stored upstream headers.
+     * @param body      the response body.
+     * @param storedAt  when the response was received or last revalidated.
+     * @param freshness how long the response may be used.
+     */
+    public record CachedResponse(HttpHeaders headers, byte[] body, Instant storedAt, Freshness freshness) {
+
+        /**
+         * @param now the current time.
+         * @return {@code true} while the response may be served without asking upstream.
+         */
+        public boolean isFresh(Instant now) {
+            return now.isBefore(storedAt.plus(freshness.maxAge()));
+        }
+
+        /**
+         * @param now the current time.
+         * @return {@code true} while the stale response may be served during a revalidation.
+         */
+        public boolean isUsableWhileRevalidating(Instant now) {
+            return now.isBefore(storedAt.plus(freshness.maxAge()).plus(freshness.staleWhileRevalidate()));
+        }
+
+        /**
+         * @param now the current time.
+         * @return the value of the {@code Age} header, in seconds.
+         */
+        public long age(Instant now) {
+            return Math.max(0, Duration.between(storedAt, now).toSeconds());
+        }
+
+        /**
+         * @param now       the time of the revalidation.
+         * @param freshness the freshness sent with the {@code 304}, or {@code null} to keep the current one.
+         * @return this response, fresh again from {@code now}.
+         */
+        public CachedResponse revalidated(Instant now, Freshness freshness) {
+            return new CachedResponse(headers, body, now, freshness != null ? freshness : this.freshness);
+        }
+    }
+
+    private final Cache<String, CachedResponse> entries;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    private final long maximumEntrySize;
+
+    /**
+     * @param maximumSize      the maximum total size of the cached bodies.
+     * @param maximumEntrySize the maximum size of a single cached body.
+     */
+    public ResponseCache(@Value("${gateway.response-cache.maximum-size:10MB}") DataSize maximumSize,
+                         @Value("${gateway.response-cache.maximum-entry-size:1MB}") DataSize maximumEntrySize) {
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((String key, CachedResponse response) -> response.body().length)
+                .build();
+        this.maximumEntrySize = maximumEntrySize.toBytes();
+    }
+
+    /**
+     * Reads the freshness of a response from its {@code Cache-Control} header.
+     *
+     * @param headers the response headers.
+     * @return the freshness, or {@code null} if the response must not be stored.
+     */
+    public static Freshness freshness(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return null;
+        }
+        Duration maxAge = null;
+        Duration sharedMaxAge = null;
+        Duration staleWhileRevalidate = Duration.ZERO;
+        for (String directive : cacheControl.split(",")) {
+            String[] parts = directive.trim().split("=", 2);
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (name.equals("no-store") || name.equals("no-cache") || name.equals("private")) {
+                return null;
+            }
+            if (parts.length < 2) {
+                continue;
+            }
+            Duration value = seconds(parts[1]);
+            switch (name) {
+                case "max-age" -> maxAge = value;
+                case "s-maxage" -> sharedMaxAge = value;
+                case "stale-while-revalidate" -> staleWhileRevalidate = value != null ? value : Duration.ZERO;
+                default -> { }
+            }
+        }
+        Duration effective = sharedMaxAge != null ? sharedMaxAge : maxAge;
+        if (effective == null || effective.isZero()) {
+            return null;
+        }
+        return new Freshness(effective, staleWhileRevalidate);
+    }
+
+    private static Duration seconds(String value) {
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim().replace("\"", "")));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Copies the headers of an upstream response that are replayed from the cache.
+     *
+     * @param upstream the upstream response headers.
+     * @return the headers to store.
+     */
+    public static HttpHeaders storedHeaders(HttpHeaders upstream) {
+        HttpHeaders stored = new HttpHeaders();
+        for (String name : STORED_HEADERS) {
+            List<String> values = upstream.get(name);
+            if (values != null) {
+                stored.put(name, new ArrayList<>(values));
+            }
+        }
+        return HttpHeaders.readOnlyHttpHeaders(stored);
+    }
+
+    /**
+     * @param contentLength the {@code Content-Length} of a response, or -1 if unknown.
+     * @return {@code false} if a body of that length is never stored.
+     */
+    public boolean fits(long contentLength) {
+        return contentLength <= maximumEntrySize;
+    }
+
+    /**
+     * Looks up a response.
+     *
+     * @param key the cache key.
+     * @return the cached response, or {@code null}.
+     */
+    public CachedResponse get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    /**
+     * Stores a response, replacing any response under the same key. Bodies
+     * above the entry size are not stored.
+     *
+     * @param key      the cache key.
+     * @param response the response.
+     */
+    public void put(String key, CachedResponse response) {
+        if (response.body().length > maximumEntrySize) {
+            return;
+        }
+        entries.put(key, response);
+    }
+
+    /**
+     * @param key the cache key.
+     */
+    public void remove(String key) {
+        entries.invalidate(key);
+    }
+
+    /**
+     * Claims the revalidation of a response, so only one request at a time
+     * revalidates it. Released by {@link #endRevalidation(String)}.
+     *
+     * @param key the cache key.
+     * @return {@code true} if the caller should revalidate.
+     */
+    public boolean startRevalidation(String key) {
+        return revalidating.add(key);
+    }
+
+    /**
+     * @param key the cache key.
+     */
+    public void endRevalidation(String key) {
+        revalidating.remove(key);
+    }
+
+    /**
+     * @return the number of cached responses, after pending evictions.
+     */
+    public long count() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+
+    /**
+     * @return the total size of the cached bodies in bytes, after pending evictions.
+     */
+    public long size() {
+        entries.cleanUp();
+        return entries.policy().eviction().orElseThrow().weightedSize().orElse(0);
+    }
+}
@@ -0,0 +1,110 @@
+package com.iv1201.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the access tokens revoked at the auth service.
+ * <p>
+ * {@link #isRevoked(String)} is a single hash lookup by the token's
+ * {@code jti}, so the {@link com.iv1201.gateway.filter.JwtAuthenticationFilter}
+ * makes no remote call per request. The list is kept in sync by pulling
+ * {@code GET /auth/revocations?since=...} every
+ * {@code gateway.revocation.poll-interval}. Each poll asks for the
+ * revocations since the previous answer's {@code asOf} minus
+ * {@code gateway.revocation.overlap}, so a revocation committed while the
+ * previous poll was read is not missed. Entries are dropped once the token
+ * has expired, which bounds the list to the tokens revoked within one token
+ * lifetime.
+ * </p>
+ * <p>
+ * If the auth service cannot be reached the last known list stays in use
+ * and the next poll catches up.
+ * </p>
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private final WebClient webClient;
+    private final Duration overlap;
+    private final Duration timeout;
+
+    private volatile Instant syncedUntil = Instant.EPOCH;
+
+    /**
+     * @param webClientBuilder the builder for the auth service client.
+     * @param authServiceUrl   the base URL of the auth service.
+     * @param overlap          how far each poll reaches back before the previous one.
+     * @param timeout          the timeout of a poll.
+     */
+    public TokenRevocationList(WebClient.Builder webClientBuilder,
+                               @Value("${gateway.revocation.auth-service-url:http://auth-service:8080}") String authServiceUrl,
+                               @Value("${gateway.revocation.overlap:PT10S}") Duration overlap,
+                               @Value("${gateway.revocation.timeout:PT2S}") Duration timeout) {
+        this.webClient = webClientBuilder.baseUrl(authServiceUrl).build();
+        this.overlap = overlap;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Tests whether a token has been revoked.
+     *
+     * @param jti the {@code jti} claim of the token, may be {@code null} for
+     *            tokens issued before tokens carried one.
+     * @return {@code true} if the token was revoked.
+     */
+    public boolean isRevoked(String jti) {
+        return jti != null && revoked.containsKey(jti);
+    }
+
+    /**
+     * @return the number of revoked tokens held.
+     */
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Pulls the revocations added since the last poll and drops expired
+     * entries. Scheduled every {@code gateway.revocation.poll-interval}.
+     */
+    @Scheduled(fixedDelayString = "${gateway.revocation.poll-interval:PT5S}")
+    public void poll() {
+        Instant since = syncedUntil.equals(Instant.EPOCH) ? Instant.EPOCH : syncedUntil.minus(overlap);
+        try {
+            JsonNode body = webClient.get()
+                    .uri(uri -> uri.path("/auth/revocations").queryParam("since", since.toString()).build())
+                    .retrieve()
+                    .bodyToMono(JsonNode.class)
+                    .block(timeout);
+            if (body != null) {
+                apply(body);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not pull token revocations, keeping {} known: {}", revoked.size(), e.getMessage());
+        }
+
+        Instant now = Instant.now();
+        revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+    }
+
+    private void apply(JsonNode body) {
+        for (JsonNode revocation : body.path("revocations")) {
+            revoked.put(revocation.path("jti").asText(), Instant.parse(revocation.path("expiresAt").asText()));
+        }
+        syncedUntil = Instant.parse(body.path("asOf").asText());
+    }
+}
@@ -0,0 +1,230 @@
+package com.iv1201.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.iv1201.gateway.config.JwtKeyRing;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+
+/**
+ * Verifies access tokens and remembers the result until the token expires.
+ * <p>
+ * A token is fully parsed and HMAC-verified the first time it is seen. The
+ * claims the gateway needs are then cached under the SHA-256 digest of the
+ * token, so later requests with the same token cost a digest and a hash
+ * lookup; the token itself is not kept. Each entry expires with its token,
+ * and a cache hit is checked against {@code exp} again, so an expired token
+ * is rejected exactly on time even before the entry is evicted. Tokens
+ * without {@code exp} are verified on every request and never cached.
+ * </p>
+ * <p>
+ * Only successfully verified tokens are cached. Revocation is not part of
+ * the cached result; callers check {@link TokenRevocationList} on every
+ * request.
+ * </p>
+ * <p>
+ * {@link #isWellFormed(String)} is a structural check callers run first, so
+ * garbage tokens are rejected without a digest, a parse or an exception.
+ * </p>
+ */
+@Component
+public class TokenVerifier {
+
+    /** Longest token accepted; issued tokens are a few hundred characters. */
+    public static final int MAX_TOKEN_LENGTH = 4096;
+
+    /** Longest header segment accepted, so decoding it stays cheap. */
+    private static final int MAX_HEADER_LENGTH = 256;
+
+    private static final byte[] ALG = "\"alg\"".getBytes(StandardCharsets.US_ASCII);
+
+    private final JwtParser jwtParser;
+    private final Cache<String, VerifiedToken> cache;
+    private final Clock clock;
+
+    /**
+     * The claims of a verified token used by the gateway.
+     *
+     * @param userId    the {@code id} claim.
+     * @param jti       the {@code jti} claim, may be {@code null}.
+     * @param expiresAt the {@code exp} claim.
+     */
+    public record VerifiedToken(String userId, String jti, Instant expiresAt) {
+    }
+
+    /**
+     * @param keyRing     the verification keys, including retiring ones.
+     * @param maximumSize the maximum number of cached tokens.
+     */
+    @Autowired
+    public TokenVerifier(JwtKeyRing keyRing,
+                         @Value("${gateway.token-cache.maximum-size:10000}") long maximumSize) {
+        this(keyRing, maximumSize, Clock.systemUTC());
+    }
+
+    /**
+     * @param keyRing     the verification keys, including retiring ones.
+     * @param maximumSize the maximum number of cached tokens.
+     * @param clock       the time source for expiry checks, {@link Clock#systemUTC()} outside tests.
+     */
+    public TokenVerifier(JwtKeyRing keyRing, long maximumSize, Clock clock) {
+        this.clock = clock;
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(keyRing)
+                .setClock(() -> Date.from(clock.instant()))
+                .build();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        return Math.max(0, Duration.between(clock.instant(), token.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Verifies a compact JWS.
+     *
+     * @param token the token from the {@code Authorization} header.
+     * @return the claims of the token.
+     * @throws JwtException if the token is malformed, wrongly signed or expired.
+     */
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = cache.getIfPresent(digest);
+        if (cached != null) {
+            if (!clock.instant().isBefore(cached.expiresAt())) {
+                cache.invalidate(digest);
+                throw new ExpiredJwtException(null, null, "Token expired");
+            }
+            return cached;
+        }
+
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(String.valueOf(claims.get("id")), claims.getId(),
+                expiration == null ? null : expiration.toInstant());
+        if (expiration != null) {
+            cache.put(digest, verified);
+        }
+        return verified;
+    }
+
+    /**
+     * Checks that a token has the shape of a JWS the auth service issues,
+     * without parsing it: a length within bounds, three base64url segments
+     * without padding, a signature segment as long as an HS256, HS384 or
+     * HS512 signature, and an HMAC {@code alg} in the header. Only the
+     * header segment is decoded. A token that passes can still carry a bad
+     * signature or be expired; {@link #verify(String)} decides that.
+     *
+     * @param token the token from the {@code Authorization} header.
+     * @return {@code false} if the token can not be a valid token.
+     */
+    public static boolean isWellFormed(String token) {
+        int length = token.length();
+        if (length > MAX_TOKEN_LENGTH) {
+            return false;
+        }
+        int firstDot = token.indexOf('.');
+        if (firstDot <= 0 || firstDot > MAX_HEADER_LENGTH || firstDot % 4 == 1) {
+            return false;
+        }
+        int secondDot = token.indexOf('.', firstDot + 1);
+        if (secondDot <= firstDot + 1) {
+            return false;
+        }
+        int signatureLength = length - secondDot - 1;
+        if (signatureLength != 43 && signatureLength != 64 && signatureLength != 86) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (i != firstDot && i != secondDot && !isBase64Url(token.charAt(i))) {
+                return false;
+            }
+        }
+        return hasHmacAlg(Base64.getUrlDecoder().decode(token.substring(0, firstDot)));
+    }
+
+    private static boolean isBase64Url(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+    }
+
+    private static boolean hasHmacAlg(byte[] header) {
+        int i = indexOf(header, ALG);
+        if (i < 0) {
+            return false;
+        }
+        i += ALG.length;
+        while (i < header.length && (header[i] == ' ' || header[i] == ':')) {
+            i++;
+        }
+        // "HS256", "HS384" or "HS512" including the quotes
+        return i + 7 <= header.length
+                && header[i] == '"' && header[i + 1] == 'H' && header[i + 2] == 'S'
+                && ((header[i + 3] == '2' && header[i + 4] == '5' && header[i + 5] == '6')
+                    || (header[i + 3] == '3' && header[i + 4] == '8' && header[i + 5] == '4')
+                    || (header[i + 3] == '5' && header[i + 4] == '1' && header[i + 5] == '2'))
+                && header[i + 6] == '"';
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= bytes.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (bytes[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of cached tokens (an estimate).
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.iv1201.gateway.benchmark;
+
+import com.iv1201.gateway.config.JwtKeyRing;
+import com.iv1201.gateway.service.TokenVerifier;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejecting invalid tokens in the {@code JwtAuthenticationFilter}: the
+ * previous path, where the parser throws and the filter throws a
+ * {@link ResponseStatusException}, against the structural
+ * {@link TokenVerifier#isWellFormed(String)} check followed by
+ * {@link TokenVerifier#verify(String)} for tokens that pass it.
+ * <p>
+ * {@code garbage}, {@code segments} and {@code algNone} are rejected by the
+ * structural check; {@code forged} (a well-formed token with a wrong
+ * signature) still goes to the parser and shows the check adds little.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenValidationBenchmark {
+
+    private static final String SECRET = "VGhpc0lzQVNlY3JldEtleUZvckJlbmNobWFya2luZ1B1cnBvc2VzMTIzNDU2Nzg5MA==";
+
+    @Param({"garbage", "segments", "algNone", "forged"})
+    private String kind;
+
+    private JwtParser parser;
+    private TokenVerifier tokenVerifier;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing("primary", SECRET, "");
+        parser = Jwts.parserBuilder().setSigningKeyResolver(keyRing).build();
+        tokenVerifier = new TokenVerifier(keyRing, 10_000);
+
+        String forged = Jwts.builder()
+                .setHeaderParam("kid", "primary")
+                .claim("id", 42L)
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000L))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET.replace('V', 'W'))),
+                        SignatureAlgorithm.HS256)
+                .compact();
+        token = switch (kind) {
+            case "garbage" -> "ZGVhZGJlZWZkZWFkYmVlZmRlYWRiZWVmZGVhZGJlZWY=";
+            case "segments" -> "eyJhbGciOiJIUzI1NiJ9.bm90IGpzb24.c2lnbmF0dXJl";
+            case "algNone" -> "eyJhbGciOiJub25lIn0.eyJpZCI6NDJ9.AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA";
+            default -> forged;
+        };
+    }
+
+    private Object throwingPath() {
+        try {
+            return parser.parseClaimsJws(token).getBody().get("id");
+        } catch (Exception e) {
+            return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid Token");
+        }
+    }
+
+    private Object preCheckedPath() {
+        if (!TokenVerifier.isWellFormed(token)) {
+            return HttpStatus.UNAUTHORIZED;
+        }
+        try {
+            return tokenVerifier.verify(token);
+        } catch (Exception e) {
+            return HttpStatus.UNAUTHORIZED;
+        }
+    }
+
+    @Benchmark
+    public Object throwing() {
+        return throwingPath();
+    }
+
+    @Benchmark
+    public Object preChecked() {
+        return preCheckedPath();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object throwingAllCores() {
+        return throwingPath();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object preCheckedAllCores() {
+        return preCheckedPath();
+    }
+}
@@ -0,0 +1,111 @@
+package com.iv1201.gateway.filter;
+
+import com.iv1201.gateway.config.JwtKeyRing;
+import com.iv1201.gateway.service.TokenRevocationList;
+import com.iv1201.gateway.service.TokenVerifier;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the {@link JwtAuthenticationFilter} with real tokens and a mocked
+ * revocation list.
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "VGhpc0lzQVNlY3JldEtleUZvclRlc3RpbmdQdXJwb3Nlc09ubHkxMjM0NTY3ODkw";
+
+    private final TokenRevocationList revocationList = mock(TokenRevocationList.class);
+    private final AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+    private final GatewayFilterChain chain = exchange -> {
+        forwarded.set(exchange);
+        return Mono.empty();
+    };
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing("primary", SECRET, "");
+        filter = new JwtAuthenticationFilter(new TokenVerifier(keyRing, 100), revocationList)
+                .apply(new JwtAuthenticationFilter.Config());
+    }
+
+    private static String token(String jti) {
+        return Jwts.builder()
+                .setHeaderParam("kid", "primary")
+                .claim("id", 42L)
+                .setId(jti)
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000L))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private static MockServerWebExchange exchange(String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/recruitment/applications");
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    @Test
+    void validToken_isForwardedWithUserId() {
+        MockServerWebExchange exchange = exchange("Bearer " + token("jti-1"));
+
+        filter.filter(exchange, chain).block();
+
+        assertNotNull(forwarded.get());
+        assertEquals("42", forwarded.get().getRequest().getHeaders().getFirst("X-User-ID"));
+        assertEquals("42", forwarded.get().getAttribute(JwtAuthenticationFilter.USER_ID_ATTRIBUTE));
+    }
+
+    private void assertUnauthorized(MockServerWebExchange exchange) {
+        filter.filter(exchange, chain).block();
+
+        assertNull(forwarded.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void revokedToken_isRejected() {
+        when(revocationList.isRevoked("jti-revoked")).thenReturn(true);
+
+        assertUnauthorized(exchange("Bearer " + token("jti-revoked")));
+    }
+
+    @Test
+    void revokedToken_isRejectedAfterBeingCached() {
+        String token = token("jti-later");
+        filter.filter(exchange("Bearer " + token), chain).block();
+        forwarded.set(null);
+
+        when(revocationList.isRevoked("jti-later")).thenReturn(true);
+
+        assertUnauthorized(exchange("Bearer " + token));
+    }
+
+    @Test
+    void malformedOrMissingToken_isRejected() {
+        for (String authorization : new String[] {null, "Basic abc", "Bearer not-a-token"}) {
+            assertUnauthorized(exchange(authorization));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.iv1201.gateway.filter;
+
+import com.iv1201.gateway.service.RateLimitStore;
+import com.iv1201.gateway.service.RateLimitStore.Decision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the keying, the {@code 429} response and the fail-open behaviour of
+ * the {@link RateLimitFilter} against a stubbed {@link RateLimitStore}.
+ */
+class RateLimitFilterTest {
+
+    private static final String PATH = "/api/recruitment/applications";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> keys = new ArrayList<>();
+    private final AtomicInteger forwarded = new AtomicInteger();
+    private final GatewayFilterChain chain = exchange -> {
+        forwarded.incrementAndGet();
+        return Mono.empty();
+    };
+    private final Route route = Route.async().id("applications").uri(URI.create("http://recruitment"))
+            .predicate(exchange -> true).build();
+
+    private Mono<Decision> decision = Mono.just(Decision.ALLOWED);
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitStore store = (key, limit) -> {
+            keys.add(key);
+            return decision;
+        };
+        filter = new RateLimitFilter(store, meterRegistry).apply(new RateLimitFilter.Config());
+    }
+
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                request.remoteAddress(new InetSocketAddress("10.0.0.1", 1234)));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+
+    private void rejectFor(Duration retryAfter) {
+        decision = Mono.just(new Decision(false, retryAfter));
+    }
+
+    private double rateLimited() {
+        return meterRegistry.counter("gateway.requests.rate-limited", "route", "applications").count();
+    }
+
+    @Test
+    void authenticatedRequest_isKeyedByUserIdAttribute() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get(PATH).header("X-User-ID", "7"));
+        exchange.getAttributes().put(JwtAuthenticationFilter.USER_ID_ATTRIBUTE, "42");
+
+        filter.filter(exchange, chain).block();
+
+        assertEquals(List.of("applications:user:42"), keys);
+        assertEquals(1, forwarded.get());
+    }
+
+    @Test
+    void clientSentUserIdHeader_isIgnored() {
+        filter.filter(exchange(MockServerHttpRequest.get(PATH).header("X-User-ID", "42")), chain).block();
+
+        assertEquals(List.of("applications:ip:10.0.0.1"), keys);
+    }
+
+    @Test
+    void emptyBucket_isAnsweredWithTooManyRequests() {
+        rejectFor(Duration.ofMillis(1500));
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get(PATH));
+
+        filter.filter(exchange, chain).block();
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exchange.getResponse().getStatusCode());
+        assertEquals("2", exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(0, forwarded.get());
+        assertEquals(1.0, rateLimited());
+    }
+
+    @Test
+    void retryAfter_isRoundedUpToWholeSeconds() {
+        for (long[] millisAndSeconds : new long[][] {{10, 1}, {1000, 1}, {1001, 2}, {59_999, 60}}) {
+            rejectFor(Duration.ofMillis(millisAndSeconds[0]));
+            MockServerWebExchange exchange = exchange(MockServerHttpRequest.get(PATH));
+
+            filter.filter(exchange, chain).block();
+
+            assertEquals(String.valueOf(millisAndSeconds[1]),
+                    exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER),
+                    millisAndSeconds[0] + " ms");
+        }
+    }
+
+    @Test
+    void failingStore_letsRequestThrough() {
+        decision = Mono.error(new IllegalStateException("store down"));
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get(PATH));
+
+        filter.filter(exchange, chain).block();
+
+        assertEquals(1, forwarded.get());
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void preflightRequest_isNotLimited() {
+        rejectFor(Duration.ofSeconds(1));
+
+        filter.filter(exchange(MockServerHttpRequest.options(PATH)), chain).block();
+
+        assertTrue(keys.isEmpty());
+        assertEquals(1, forwarded.get());
+    }
+
+    @Test
+    void orderedLimit_runsAheadOfResponseCache() {
+        GatewayFilter ordered = new RateLimitFilter((key, limit) -> decision, meterRegistry)
+                .apply(new RateLimitFilter.Config().setOrder(ResponseCacheFilter.ORDER - 1));
+
+        assertInstanceOf(Ordered.class, ordered);
+        assertTrue(((Ordered) ordered).getOrder() < ResponseCacheFilter.ORDER);
+        assertFalse(filter instanceof Ordered);
+    }
+}
@@ -0,0 +1,274 @@
+package com.iv1201.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@link RequestCoalescingFilter}. The rest of the filter chain
+ * stands in for the upstream call and only answers once the test releases
+ * it, so the requests made before that overlap with it.
+ */
+class RequestCoalescingFilterTest {
+
+    private static final String PATH = "/api/recruitment/applications";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final Sinks.Empty<Void> release = Sinks.empty();
+    private final Route route = Route.async().id("applications").uri(URI.create("http://recruitment"))
+            .predicate(exchange -> true).build();
+
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = filter(DataSize.ofKilobytes(64), Duration.ofSeconds(5));
+    }
+
+    private GatewayFilter filter(DataSize maximumBodySize, Duration waitTimeout) {
+        return new RequestCoalescingFilter(meterRegistry, maximumBodySize, waitTimeout)
+                .apply(new RequestCoalescingFilter.Config());
+    }
+
+    /** An upstream answering at once with the given body. */
+    private GatewayFilterChain immediate(String body) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+        };
+    }
+
+    /** The upstream, answering once released. */
+    private final GatewayFilterChain upstream = exchange -> {
+        upstreamCalls.incrementAndGet();
+        return release.asMono().then(Mono.defer(() -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.PARTIAL_CONTENT);
+            response.getHeaders().add("X-Upstream", "recruitment");
+            response.getHeaders().add(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "http://leader.example");
+            byte[] body = "[1,2]".getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }));
+    };
+
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+
+    private MockServerWebExchange get(String authorization) {
+        return exchange(MockServerHttpRequest.get(PATH).header(HttpHeaders.AUTHORIZATION, authorization));
+    }
+
+    private CompletableFuture<Void> start(MockServerWebExchange exchange, GatewayFilterChain chain) {
+        return filter.filter(exchange, chain).toFuture();
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block();
+    }
+
+    private double coalesced() {
+        return meterRegistry.counter("gateway.requests.coalesced", "route", "applications").count();
+    }
+
+    @Test
+    void waiters_getLeadersStatusHeadersAndBody() throws Exception {
+        MockServerWebExchange leader = get("Bearer a");
+        MockServerWebExchange waiter = get("Bearer a");
+        CompletableFuture<Void> leaderDone = start(leader, upstream);
+        CompletableFuture<Void> waiterDone = start(waiter, upstream);
+
+        release.tryEmitEmpty();
+        leaderDone.get();
+        waiterDone.get();
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(HttpStatus.PARTIAL_CONTENT, waiter.getResponse().getStatusCode());
+        assertEquals("recruitment", waiter.getResponse().getHeaders().getFirst("X-Upstream"));
+        assertEquals(5, waiter.getResponse().getHeaders().getContentLength());
+        assertEquals("[1,2]", body(waiter));
+        assertEquals("[1,2]", body(leader));
+        assertEquals(1.0, coalesced());
+    }
+
+    @Test
+    void waiters_doNotTakeOverCorsHeaders() throws Exception {
+        CompletableFuture<Void> leaderDone = start(get("Bearer a"), upstream);
+        MockServerWebExchange waiter = get("Bearer a");
+        CompletableFuture<Void> waiterDone = start(waiter, upstream);
+
+        release.tryEmitEmpty();
+        leaderDone.get();
+        waiterDone.get();
+
+        assertNull(waiter.getResponse().getHeaders().getAccessControlAllowOrigin());
+    }
+
+    @Test
+    void differentAuthorization_isNeverShared() throws Exception {
+        CompletableFuture<Void> first = start(get("Bearer a"), upstream);
+        CompletableFuture<Void> second = start(get("Bearer b"), upstream);
+        CompletableFuture<Void> anonymous = start(exchange(MockServerHttpRequest.get(PATH)), upstream);
+
+        release.tryEmitEmpty();
+        first.get();
+        second.get();
+        anonymous.get();
+
+        assertEquals(3, upstreamCalls.get());
+        assertEquals(0.0, coalesced());
+    }
+
+    @Test
+    void differentQuery_isNotShared() throws Exception {
+        CompletableFuture<Void> first = start(exchange(MockServerHttpRequest.get(PATH + "?status=UNHANDLED")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer a")), upstream);
+        CompletableFuture<Void> second = start(get("Bearer a"), upstream);
+
+        release.tryEmitEmpty();
+        first.get();
+        second.get();
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void failedLeader_failsWaiters() {
+        GatewayFilterChain failing = exchange -> {
+            upstreamCalls.incrementAndGet();
+            return release.asMono().then(Mono.error(new IllegalStateException("upstream down")));
+        };
+        CompletableFuture<Void> leaderDone = start(get("Bearer a"), failing);
+        CompletableFuture<Void> waiterDone = start(get("Bearer a"), failing);
+
+        release.tryEmitEmpty();
+
+        assertThrows(ExecutionException.class, leaderDone::get);
+        assertThrows(ExecutionException.class, waiterDone::get);
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void cancelledLeader_failsWaiters() {
+        Disposable leader = filter.filter(get("Bearer a"), upstream).subscribe();
+        CompletableFuture<Void> waiterDone = start(get("Bearer a"), upstream);
+
+        leader.dispose();
+
+        ExecutionException e = assertThrows(ExecutionException.class, waiterDone::get);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void completedRequest_isNotReused() throws Exception {
+        release.tryEmitEmpty();
+
+        start(get("Bearer a"), upstream).get();
+        start(get("Bearer a"), upstream).get();
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void nonGetRequests_areNeverCoalesced() throws Exception {
+        CompletableFuture<Void> first = start(exchange(MockServerHttpRequest.post(PATH)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer a")), upstream);
+        CompletableFuture<Void> second = start(exchange(MockServerHttpRequest.post(PATH)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer a")), upstream);
+
+        release.tryEmitEmpty();
+        first.get();
+        second.get();
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void requestArrivingWhileLoneLeaderStreams_goesUpstreamItself() throws Exception {
+        Sinks.Empty<Void> rest = Sinks.empty();
+        GatewayFilterChain streaming = exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            return response.writeWith(Flux.concat(
+                    Mono.fromSupplier(() -> response.bufferFactory().wrap("[1,".getBytes(StandardCharsets.UTF_8))),
+                    rest.asMono().then(Mono.fromSupplier(
+                            () -> response.bufferFactory().wrap("2]".getBytes(StandardCharsets.UTF_8))))));
+        };
+        MockServerWebExchange leader = get("Bearer a");
+        CompletableFuture<Void> leaderDone = start(leader, streaming);
+
+        // The leader started its response alone, so its body is not copied and not shared
+        MockServerWebExchange late = get("Bearer a");
+        start(late, immediate("[3]")).get(1, TimeUnit.SECONDS);
+        rest.tryEmitEmpty();
+        leaderDone.get();
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals("[1,2]", body(leader));
+        assertEquals("[3]", body(late));
+        assertEquals(0.0, coalesced());
+    }
+
+    @Test
+    void bodyOverMaximumSize_isNotShared() throws Exception {
+        filter = filter(DataSize.ofBytes(4), Duration.ofSeconds(5));
+        MockServerWebExchange leader = get("Bearer a");
+        MockServerWebExchange waiter = get("Bearer a");
+        CompletableFuture<Void> leaderDone = start(leader, upstream);
+        CompletableFuture<Void> waiterDone = start(waiter, upstream);
+
+        release.tryEmitEmpty();
+        leaderDone.get();
+        waiterDone.get();
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals("[1,2]", body(leader));
+        assertEquals("[1,2]", body(waiter));
+        assertEquals(0.0, coalesced());
+    }
+
+    @Test
+    void slowLeader_waitersGoUpstreamAfterTimeout() throws Exception {
+        filter = filter(DataSize.ofKilobytes(64), Duration.ofMillis(50));
+        CompletableFuture<Void> leaderDone = start(get("Bearer a"), upstream);
+        MockServerWebExchange waiter = get("Bearer a");
+
+        start(waiter, immediate("[3]")).get(1, TimeUnit.SECONDS);
+
+        assertEquals("[3]", body(waiter));
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(0.0, coalesced());
+        release.tryEmitEmpty();
+        leaderDone.get();
+    }
+}
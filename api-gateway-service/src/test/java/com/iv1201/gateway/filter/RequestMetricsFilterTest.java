@@ -0,0 +1,151 @@
+package com.iv1201.gateway.filter;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the timers of the {@link RequestMetricsFilter} together with the
+ * {@link UpstreamTimingFilter}. The rest of the chain stands in for the
+ * upstream call.
+ */
+class RequestMetricsFilterTest {
+
+    private static final String PATH = "/api/recruitment/applications";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestMetricsFilter metricsFilter = new RequestMetricsFilter(meterRegistry, 0.0);
+    private final UpstreamTimingFilter upstreamTimingFilter = new UpstreamTimingFilter();
+    private final Route route = Route.async().id("applications").uri(URI.create("http://recruitment"))
+            .predicate(exchange -> true).build();
+
+    private MockServerWebExchange routed() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(PATH));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+
+    /** Runs the exchange through both filters to the given upstream. */
+    private Mono<Void> filter(MockServerWebExchange exchange, GatewayFilterChain upstream) {
+        GatewayFilterChain chain = routedExchange -> upstreamTimingFilter.filter(routedExchange, upstream);
+        return metricsFilter.filter(exchange, chain);
+    }
+
+    /** Runs the exchange through the filter as a web filter, as for every request. */
+    private Mono<Void> webFilter(MockServerWebExchange exchange, WebFilterChain chain) {
+        return metricsFilter.filter(exchange, chain);
+    }
+
+    private Timer timer(String name, String routeId, String status) {
+        return meterRegistry.find(name).tag("route", routeId).tag("status", status).timer();
+    }
+
+    @Test
+    void success_recordsAllTimersWithRouteAndStatus() {
+        MockServerWebExchange exchange = routed();
+
+        filter(exchange, routedExchange -> Mono.delay(Duration.ofMillis(20)).then(Mono.fromRunnable(
+                () -> routedExchange.getResponse().setStatusCode(HttpStatus.OK)))).block();
+
+        Timer total = timer("gateway.requests", "applications", "200");
+        Timer upstream = timer("gateway.requests.upstream", "applications", "200");
+        Timer overhead = timer("gateway.requests.overhead", "applications", "200");
+        assertEquals(1, total.count());
+        assertEquals(1, upstream.count());
+        assertEquals(1, overhead.count());
+        assertTrue(upstream.totalTime(TimeUnit.MILLISECONDS) >= 20);
+        assertTrue(total.totalTime(TimeUnit.NANOSECONDS) >= upstream.totalTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void upstreamError_isRecordedAsServerError() {
+        MockServerWebExchange exchange = routed();
+
+        assertThrows(IllegalStateException.class, () -> filter(exchange,
+                routedExchange -> Mono.error(new IllegalStateException("connection reset"))).block());
+
+        assertEquals(1, timer("gateway.requests", "applications", "500").count());
+        assertEquals(1, timer("gateway.requests.upstream", "applications", "500").count());
+        assertNull(meterRegistry.find("gateway.requests").tag("status", "200").timer());
+    }
+
+    @Test
+    void upstreamTimeout_isRecordedAsGatewayTimeout() {
+        MockServerWebExchange exchange = routed();
+
+        // The routing filter reports a response timeout as 504
+        assertThrows(ResponseStatusException.class, () -> filter(exchange, routedExchange ->
+                Mono.delay(Duration.ofMillis(20)).then(Mono.error(
+                        new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Response took longer than timeout"))))
+                .block());
+
+        Timer upstream = timer("gateway.requests.upstream", "applications", "504");
+        assertEquals(1, timer("gateway.requests", "applications", "504").count());
+        assertEquals(1, upstream.count());
+        assertTrue(upstream.totalTime(TimeUnit.MILLISECONDS) >= 20);
+    }
+
+    @Test
+    void answeredByGateway_recordsNoUpstreamTime() {
+        MockServerWebExchange exchange = routed();
+
+        GatewayFilterChain rejecting = routedExchange -> {
+            routedExchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            return routedExchange.getResponse().setComplete();
+        };
+        metricsFilter.filter(exchange, rejecting).block();
+
+        assertEquals(1, timer("gateway.requests", "applications", "429").count());
+        assertEquals(1, timer("gateway.requests.overhead", "applications", "429").count());
+        assertEquals(0, timer("gateway.requests.upstream", "applications", "429").count());
+    }
+
+    @Test
+    void unmatchedRoute_isRecordedAsNotFound() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/nowhere"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_HANDLER_MAPPER_ATTR, "RoutePredicateHandlerMapping");
+
+        assertThrows(ResponseStatusException.class, () -> webFilter(exchange,
+                unmatched -> Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND))).block());
+
+        assertEquals(1, timer("gateway.requests", "none", "404").count());
+    }
+
+    @Test
+    void routedRequest_isNotRecordedTwice() {
+        MockServerWebExchange exchange = routed();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_HANDLER_MAPPER_ATTR, "RoutePredicateHandlerMapping");
+
+        webFilter(exchange, webExchange -> filter(exchange, routedExchange -> {
+            routedExchange.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        })).block();
+
+        assertEquals(1, timer("gateway.requests", "applications", "200").count());
+    }
+
+    @Test
+    void otherHandlers_areNotRecorded() {
+        // e.g. the actuator on the management port, which never reaches the gateway's route lookup
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/actuator/health"));
+
+        webFilter(exchange, other -> Mono.empty()).block();
+
+        assertTrue(meterRegistry.find("gateway.requests").timers().isEmpty());
+    }
+}
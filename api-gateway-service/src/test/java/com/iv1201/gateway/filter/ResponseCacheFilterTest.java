@@ -0,0 +1,299 @@
+package com.iv1201.gateway.filter;
+
+import com.iv1201.gateway.service.ResponseCache;
+import com.iv1201.gateway.service.ResponseCache.CachedResponse;
+import com.iv1201.gateway.service.ResponseCache.Freshness;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@link ResponseCacheFilter} against a stubbed upstream: the
+ * rest of the filter chain stands in for the forwarded request, and a
+ * stubbed {@link WebClient} answers background revalidations.
+ */
+class ResponseCacheFilterTest {
+
+    private static final String PATH = "/api/recruitment/competences";
+    private static final String KEY = "competences " + PATH;
+    private static final String CACHE_CONTROL = "max-age=300, public, stale-while-revalidate=60";
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final List<ClientResponse> revalidationResponses = new ArrayList<>();
+    private final List<HttpHeaders> revalidationRequests = new ArrayList<>();
+    private final Route route = Route.async().id("competences").uri(URI.create("http://recruitment"))
+            .predicate(exchange -> true).build();
+
+    private ResponseCache cache;
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ResponseCache(DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+        WebClient.Builder webClient = WebClient.builder().exchangeFunction(request -> {
+            revalidationRequests.add(request.headers());
+            return Mono.just(revalidationResponses.remove(0));
+        });
+        filter = new ResponseCacheFilter(cache, webClient, Duration.ofSeconds(1))
+                .apply(new ResponseCacheFilter.Config());
+    }
+
+    /** The rest of the chain, answering like the recruitment service. */
+    private GatewayFilterChain upstream(String cacheControl, String body) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().setCacheControl(cacheControl);
+            response.getHeaders().setETag("\"v1\"");
+            response.getHeaders().add("X-Upstream", "recruitment");
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+        };
+    }
+
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+
+    private MockServerWebExchange get() {
+        return exchange(MockServerHttpRequest.get(PATH));
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block();
+    }
+
+    private static String cacheStatus(MockServerWebExchange exchange) {
+        return exchange.getResponse().getHeaders().getFirst("X-Cache");
+    }
+
+    private void storeStale(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setETag(etag);
+        cache.put(KEY, new CachedResponse(headers, "stale".getBytes(StandardCharsets.UTF_8),
+                Instant.now().minusSeconds(330), new Freshness(Duration.ofSeconds(300), Duration.ofSeconds(60))));
+    }
+
+    private void awaitRevalidation() throws InterruptedException {
+        for (int i = 0; i < 100 && !cache.startRevalidation(KEY); i++) {
+            Thread.sleep(10);
+        }
+        cache.endRevalidation(KEY);
+    }
+
+    @Test
+    void missThenHit_servesSecondRequestFromCache() {
+        MockServerWebExchange first = get();
+        filter.filter(first, upstream(CACHE_CONTROL, "[1,2]")).block();
+
+        MockServerWebExchange second = get();
+        filter.filter(second, upstream(CACHE_CONTROL, "[changed]")).block();
+
+        assertEquals("MISS", cacheStatus(first));
+        assertEquals("[1,2]", body(first));
+        assertEquals("HIT", cacheStatus(second));
+        assertEquals("[1,2]", body(second));
+        assertEquals(HttpStatus.OK, second.getResponse().getStatusCode());
+        assertEquals("\"v1\"", second.getResponse().getHeaders().getETag());
+        assertEquals("0", second.getResponse().getHeaders().getFirst(HttpHeaders.AGE));
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void hit_onlyReplaysStoredHeaders() {
+        filter.filter(get(), upstream(CACHE_CONTROL, "[1,2]")).block();
+
+        MockServerWebExchange hit = get();
+        filter.filter(hit, upstream(CACHE_CONTROL, "[1,2]")).block();
+
+        assertNull(hit.getResponse().getHeaders().getFirst("X-Upstream"));
+        assertEquals(MediaType.APPLICATION_JSON, hit.getResponse().getHeaders().getContentType());
+    }
+
+    @Test
+    void matchingIfNoneMatch_isAnsweredWithNotModified() {
+        filter.filter(get(), upstream(CACHE_CONTROL, "[1,2]")).block();
+
+        MockServerWebExchange conditional = exchange(MockServerHttpRequest.get(PATH).ifNoneMatch("\"v1\""));
+        filter.filter(conditional, upstream(CACHE_CONTROL, "[1,2]")).block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, conditional.getResponse().getStatusCode());
+        assertEquals("", body(conditional));
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void otherIfNoneMatch_getsFullResponse() {
+        filter.filter(get(), upstream(CACHE_CONTROL, "[1,2]")).block();
+
+        MockServerWebExchange conditional = exchange(MockServerHttpRequest.get(PATH).ifNoneMatch("\"v0\""));
+        filter.filter(conditional, upstream(CACHE_CONTROL, "[1,2]")).block();
+
+        assertEquals(HttpStatus.OK, conditional.getResponse().getStatusCode());
+        assertEquals("[1,2]", body(conditional));
+    }
+
+    @Test
+    void stale_isServedAndRevalidatedWithNotModified() throws InterruptedException {
+        storeStale("\"v1\"");
+        revalidationResponses.add(ClientResponse.create(HttpStatus.NOT_MODIFIED)
+                .header(HttpHeaders.CACHE_CONTROL, "max-age=120")
+                .build());
+
+        MockServerWebExchange stale = get();
+        filter.filter(stale, upstream(CACHE_CONTROL, "[fresh]")).block();
+        awaitRevalidation();
+
+        assertEquals("STALE", cacheStatus(stale));
+        assertEquals("stale", body(stale));
+        assertEquals(0, upstreamCalls.get());
+        assertEquals(List.of("\"v1\""), revalidationRequests.get(0).getIfNoneMatch());
+        CachedResponse revalidated = cache.get(KEY);
+        assertTrue(revalidated.isFresh(Instant.now()));
+        assertEquals(Duration.ofSeconds(120), revalidated.freshness().maxAge());
+        assertEquals("stale", new String(revalidated.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void stale_isReplacedByChangedResponse() throws InterruptedException {
+        storeStale("\"v1\"");
+        revalidationResponses.add(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL)
+                .header(HttpHeaders.ETAG, "\"v2\"")
+                .body("[new]")
+                .build());
+
+        filter.filter(get(), upstream(CACHE_CONTROL, "[fresh]")).block();
+        awaitRevalidation();
+
+        MockServerWebExchange hit = get();
+        filter.filter(hit, upstream(CACHE_CONTROL, "[fresh]")).block();
+
+        assertEquals("HIT", cacheStatus(hit));
+        assertEquals("[new]", body(hit));
+        assertEquals("\"v2\"", hit.getResponse().getHeaders().getETag());
+    }
+
+    @Test
+    void stale_isDroppedWhenUpstreamStopsCaching() throws InterruptedException {
+        storeStale("\"v1\"");
+        revalidationResponses.add(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .body("[new]")
+                .build());
+
+        filter.filter(get(), upstream(CACHE_CONTROL, "[fresh]")).block();
+        awaitRevalidation();
+
+        assertNull(cache.get(KEY));
+    }
+
+    @Test
+    void expiredBeyondStaleWhileRevalidate_goesUpstream() {
+        cache.put(KEY, new CachedResponse(new HttpHeaders(), "old".getBytes(StandardCharsets.UTF_8),
+                Instant.now().minusSeconds(400), new Freshness(Duration.ofSeconds(300), Duration.ofSeconds(60))));
+
+        MockServerWebExchange miss = get();
+        filter.filter(miss, upstream(CACHE_CONTROL, "[1,2]")).block();
+
+        assertEquals("MISS", cacheStatus(miss));
+        assertEquals("[1,2]", body(miss));
+        assertEquals(1, upstreamCalls.get());
+        assertTrue(revalidationRequests.isEmpty());
+    }
+
+    @Test
+    void uncacheableResponse_isNotStored() {
+        MockServerWebExchange first = get();
+        filter.filter(first, upstream("no-store", "[1,2]")).block();
+        filter.filter(get(), upstream("no-store", "[1,2]")).block();
+
+        assertNull(cacheStatus(first));
+        assertNull(cache.get(KEY));
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    /** The rest of the chain, streaming a body of the given size in chunks without a Content-Length. */
+    private GatewayFilterChain chunkedUpstream(int chunks, int chunkSize) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setCacheControl(CACHE_CONTROL);
+            return response.writeWith(Flux.range(0, chunks)
+                    .map(i -> response.bufferFactory().wrap("x".repeat(chunkSize).getBytes(StandardCharsets.UTF_8))));
+        };
+    }
+
+    @Test
+    void chunkedResponse_isStoredWhenSmallEnough() {
+        MockServerWebExchange first = get();
+        filter.filter(first, chunkedUpstream(4, 1024)).block();
+
+        assertEquals(4 * 1024, body(first).length());
+        assertEquals(4 * 1024, cache.get(KEY).body().length);
+    }
+
+    @Test
+    void chunkedResponse_overEntrySize_isStreamedButNotStored() {
+        MockServerWebExchange first = get();
+        filter.filter(first, chunkedUpstream(3, 30 * 1024)).block();
+
+        assertEquals(3 * 30 * 1024, body(first).length());
+        assertNull(cache.get(KEY));
+    }
+
+    @Test
+    void responseOverEntrySize_isNotStored() {
+        GatewayFilterChain large = exchange -> {
+            exchange.getResponse().getHeaders().setContentLength(65 * 1024);
+            return upstream(CACHE_CONTROL, "[1,2]").filter(exchange);
+        };
+        MockServerWebExchange first = get();
+        filter.filter(first, large).block();
+
+        assertNull(cacheStatus(first));
+        assertNull(cache.get(KEY));
+    }
+
+    @Test
+    void requestWithAuthorization_bypassesCache() {
+        filter.filter(get(), upstream(CACHE_CONTROL, "[1,2]")).block();
+
+        MockServerWebExchange authorized = exchange(MockServerHttpRequest.get(PATH)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token"));
+        filter.filter(authorized, upstream(CACHE_CONTROL, "[mine]")).block();
+
+        assertEquals("[mine]", body(authorized));
+        assertEquals(2, upstreamCalls.get());
+    }
+}
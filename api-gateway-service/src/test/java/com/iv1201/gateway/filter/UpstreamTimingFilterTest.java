@@ -0,0 +1,60 @@
+package com.iv1201.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link UpstreamTimingFilter} stores the upstream time for
+ * successful, failed and timed out upstream calls.
+ */
+class UpstreamTimingFilterTest {
+
+    private final UpstreamTimingFilter filter = new UpstreamTimingFilter();
+    private final MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/api/recruitment/applications"));
+
+    private long upstreamMillis() {
+        Long nanos = exchange.getAttribute(UpstreamTimingFilter.UPSTREAM_NANOS_ATTRIBUTE);
+        assertNotNull(nanos);
+        return Duration.ofNanos(nanos).toMillis();
+    }
+
+    @Test
+    void runsRightBeforeTheRoutingFilter() {
+        assertEquals(NettyRoutingFilter.ORDER - 1, filter.getOrder());
+    }
+
+    @Test
+    void success_storesUpstreamTime() {
+        filter.filter(exchange, routed -> Mono.delay(Duration.ofMillis(20)).then()).block();
+
+        assertTrue(upstreamMillis() >= 20);
+    }
+
+    @Test
+    void error_storesUpstreamTime() {
+        assertThrows(IllegalStateException.class, () -> filter.filter(exchange,
+                routed -> Mono.delay(Duration.ofMillis(20)).then(Mono.error(new IllegalStateException("reset"))))
+                .block());
+
+        assertTrue(upstreamMillis() >= 20);
+    }
+
+    @Test
+    void timeout_storesUpstreamTime() {
+        assertThrows(ResponseStatusException.class, () -> filter.filter(exchange,
+                routed -> Mono.delay(Duration.ofMillis(20)).then(Mono.error(
+                        new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT)))).block());
+
+        assertTrue(upstreamMillis() >= 20);
+    }
+}
@@ -0,0 +1,107 @@
+package com.iv1201.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.iv1201.gateway.service.RateLimitStore.Decision;
+import com.iv1201.gateway.service.RateLimitStore.Limit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the token buckets of {@link LocalRateLimitStore} against a manual
+ * ticker. A limit of 3 requests per 3 minutes adds one token a minute.
+ */
+class LocalRateLimitStoreTest {
+
+    private static final Limit LIMIT = new Limit(3, Duration.ofMinutes(3));
+
+    private final AtomicLong nanos = new AtomicLong();
+    private LocalRateLimitStore store;
+
+    @BeforeEach
+    void setUp() {
+        Ticker ticker = nanos::get;
+        store = new LocalRateLimitStore(100, Duration.ofMinutes(5), new SimpleMeterRegistry(), ticker);
+    }
+
+    private Decision consume(String key) {
+        return store.consume(key, LIMIT).block();
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    void fullBucket_allowsBurstOfCapacity() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(consume("ip:10.0.0.1").allowed(), "request " + i);
+        }
+
+        Decision rejected = consume("ip:10.0.0.1");
+
+        assertFalse(rejected.allowed());
+        assertEquals(Duration.ofMinutes(1), rejected.retryAfter());
+    }
+
+    @Test
+    void emptyBucket_refillsOneTokenPerInterval() {
+        for (int i = 0; i < 3; i++) {
+            consume("ip:10.0.0.1");
+        }
+
+        advance(Duration.ofMinutes(1));
+
+        assertTrue(consume("ip:10.0.0.1").allowed());
+        assertFalse(consume("ip:10.0.0.1").allowed());
+    }
+
+    @Test
+    void retryAfter_isTimeUntilNextToken() {
+        for (int i = 0; i < 3; i++) {
+            consume("ip:10.0.0.1");
+        }
+
+        advance(Duration.ofSeconds(10));
+
+        assertEquals(Duration.ofSeconds(50), consume("ip:10.0.0.1").retryAfter());
+    }
+
+    @Test
+    void rejectedRequest_doesNotTakeToken() {
+        for (int i = 0; i < 5; i++) {
+            consume("ip:10.0.0.1");
+        }
+
+        advance(Duration.ofMinutes(1));
+
+        assertTrue(consume("ip:10.0.0.1").allowed());
+    }
+
+    @Test
+    void idleBucket_refillsOnlyUpToCapacity() {
+        consume("ip:10.0.0.1");
+
+        advance(Duration.ofHours(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(consume("ip:10.0.0.1").allowed(), "request " + i);
+        }
+        assertFalse(consume("ip:10.0.0.1").allowed());
+    }
+
+    @Test
+    void buckets_areIndependentPerKey() {
+        for (int i = 0; i < 3; i++) {
+            consume("user:1");
+        }
+
+        assertFalse(consume("user:1").allowed());
+        assertTrue(consume("user:2").allowed());
+    }
+}
@@ -0,0 +1,145 @@
+package com.iv1201.gateway.service;
+
+import com.iv1201.gateway.service.ResponseCache.CachedResponse;
+import com.iv1201.gateway.service.ResponseCache.Freshness;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@code Cache-Control} parsing and the size bound of
+ * {@link ResponseCache}.
+ */
+class ResponseCacheTest {
+
+    private static final Freshness FIVE_MINUTES = new Freshness(Duration.ofMinutes(5), Duration.ZERO);
+
+    private static Freshness freshness(String cacheControl) {
+        HttpHeaders headers = new HttpHeaders();
+        if (cacheControl != null) {
+            headers.setCacheControl(cacheControl);
+        }
+        return ResponseCache.freshness(headers);
+    }
+
+    private static CachedResponse response(int bodySize) {
+        return new CachedResponse(new HttpHeaders(), new byte[bodySize], Instant.now(), FIVE_MINUTES);
+    }
+
+    @Test
+    void freshness_readsMaxAgeAndStaleWhileRevalidate() {
+        assertEquals(new Freshness(Duration.ofSeconds(300), Duration.ofSeconds(60)),
+                freshness("max-age=300, public, stale-while-revalidate=60"));
+        assertEquals(new Freshness(Duration.ofSeconds(300), Duration.ZERO), freshness("public, MAX-AGE=300"));
+    }
+
+    @Test
+    void freshness_prefersSharedMaxAge() {
+        assertEquals(Duration.ofSeconds(30), freshness("max-age=300, s-maxage=30").maxAge());
+        assertEquals(Duration.ofSeconds(30), freshness("s-maxage=\"30\", max-age=300").maxAge());
+    }
+
+    @Test
+    void freshness_isNullForResponsesThatMustNotBeStored() {
+        assertNull(freshness(null));
+        assertNull(freshness("public"));
+        assertNull(freshness("max-age=0"));
+        assertNull(freshness("max-age=abc"));
+        assertNull(freshness("max-age=300, no-store"));
+        assertNull(freshness("no-cache, max-age=300"));
+        assertNull(freshness("private, max-age=300"));
+    }
+
+    @Test
+    void freshness_ignoresInvalidStaleWhileRevalidate() {
+        assertEquals(Duration.ZERO, freshness("max-age=300, stale-while-revalidate=soon").staleWhileRevalidate());
+    }
+
+    @Test
+    void cachedResponse_isFreshThenUsableWhileRevalidatingThenExpired() {
+        Instant storedAt = Instant.parse("2026-01-01T12:00:00Z");
+        CachedResponse cached = new CachedResponse(new HttpHeaders(), new byte[0], storedAt,
+                new Freshness(Duration.ofSeconds(300), Duration.ofSeconds(60)));
+
+        assertTrue(cached.isFresh(storedAt.plusSeconds(299)));
+        assertFalse(cached.isFresh(storedAt.plusSeconds(300)));
+        assertTrue(cached.isUsableWhileRevalidating(storedAt.plusSeconds(359)));
+        assertFalse(cached.isUsableWhileRevalidating(storedAt.plusSeconds(360)));
+        assertEquals(359, cached.age(storedAt.plusSeconds(359)));
+    }
+
+    @Test
+    void revalidated_restartsFreshnessAndKeepsBody() {
+        Instant storedAt = Instant.parse("2026-01-01T12:00:00Z");
+        CachedResponse cached = new CachedResponse(new HttpHeaders(), new byte[] {1, 2}, storedAt, FIVE_MINUTES);
+        Instant now = storedAt.plusSeconds(400);
+
+        CachedResponse kept = cached.revalidated(now, null);
+        CachedResponse updated = cached.revalidated(now, new Freshness(Duration.ofSeconds(10), Duration.ZERO));
+
+        assertTrue(kept.isFresh(now));
+        assertEquals(FIVE_MINUTES, kept.freshness());
+        assertArrayEquals(new byte[] {1, 2}, kept.body());
+        assertEquals(Duration.ofSeconds(10), updated.freshness().maxAge());
+    }
+
+    @Test
+    void put_replacesEntryAndAccountsItsSize() {
+        ResponseCache cache = new ResponseCache(DataSize.ofKilobytes(10), DataSize.ofKilobytes(1));
+
+        cache.put("a", response(100));
+        cache.put("b", response(200));
+        cache.put("a", response(300));
+
+        assertEquals(2, cache.count());
+        assertEquals(500, cache.size());
+        assertEquals(300, cache.get("a").body().length);
+
+        cache.remove("a");
+
+        assertNull(cache.get("a"));
+        assertEquals(200, cache.size());
+    }
+
+    @Test
+    void put_skipsBodiesAboveEntrySize() {
+        ResponseCache cache = new ResponseCache(DataSize.ofKilobytes(10), DataSize.ofBytes(100));
+
+        cache.put("large", response(101));
+
+        assertNull(cache.get("large"));
+        assertEquals(0, cache.size());
+        assertTrue(cache.fits(100));
+        assertFalse(cache.fits(101));
+    }
+
+    @Test
+    void put_evictsToStayWithinMaximumSize() {
+        ResponseCache cache = new ResponseCache(DataSize.ofBytes(1000), DataSize.ofBytes(400));
+
+        for (int i = 0; i < 20; i++) {
+            cache.put("key" + i, response(300));
+        }
+
+        assertTrue(cache.size() <= 1000, "size " + cache.size());
+        assertTrue(cache.count() <= 3, "count " + cache.count());
+    }
+
+    @Test
+    void startRevalidation_isClaimedOncePerKey() {
+        ResponseCache cache = new ResponseCache(DataSize.ofKilobytes(10), DataSize.ofKilobytes(1));
+
+        assertTrue(cache.startRevalidation("a"));
+        assertFalse(cache.startRevalidation("a"));
+        assertTrue(cache.startRevalidation("b"));
+
+        cache.endRevalidation("a");
+
+        assertTrue(cache.startRevalidation("a"));
+    }
+}
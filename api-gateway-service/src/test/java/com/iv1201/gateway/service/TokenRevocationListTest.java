@@ -0,0 +1,109 @@
+package com.iv1201.gateway.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the polling of {@link TokenRevocationList} against a stubbed auth
+ * service.
+ */
+class TokenRevocationListTest {
+
+    private static final Duration OVERLAP = Duration.ofSeconds(10);
+
+    private final List<URI> requests = new ArrayList<>();
+    private final Deque<Mono<ClientResponse>> responses = new ArrayDeque<>();
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        WebClient.Builder webClient = WebClient.builder().exchangeFunction(request -> {
+            requests.add(request.url());
+            return responses.removeFirst();
+        });
+        revocationList = new TokenRevocationList(webClient, "http://auth", OVERLAP, Duration.ofSeconds(1));
+    }
+
+    private void respond(Instant asOf, String revocations) {
+        responses.add(Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body("{\"asOf\":\"" + asOf + "\",\"revocations\":[" + revocations + "]}")
+                .build()));
+    }
+
+    private static String revocation(String jti, Instant expiresAt) {
+        return "{\"jti\":\"" + jti + "\",\"expiresAt\":\"" + expiresAt + "\"}";
+    }
+
+    private String since(int request) {
+        return requests.get(request).getQuery().replace("since=", "");
+    }
+
+    @Test
+    void poll_addsRevocations() {
+        respond(Instant.now(), revocation("a", Instant.now().plusSeconds(3600)));
+
+        revocationList.poll();
+
+        assertTrue(revocationList.isRevoked("a"));
+        assertFalse(revocationList.isRevoked("b"));
+        assertFalse(revocationList.isRevoked(null));
+    }
+
+    @Test
+    void poll_reachesBackByOverlapFromPreviousAsOf() {
+        Instant asOf = Instant.parse("2026-01-01T12:00:00Z");
+        respond(asOf, "");
+        respond(asOf.plusSeconds(5), "");
+
+        revocationList.poll();
+        revocationList.poll();
+
+        assertEquals(Instant.EPOCH.toString(), since(0));
+        assertEquals(asOf.minus(OVERLAP).toString(), since(1));
+    }
+
+    @Test
+    void poll_dropsExpiredRevocations() {
+        respond(Instant.now(), revocation("expired", Instant.now().minusSeconds(1)) + ","
+                + revocation("live", Instant.now().plusSeconds(3600)));
+
+        revocationList.poll();
+
+        assertFalse(revocationList.isRevoked("expired"));
+        assertTrue(revocationList.isRevoked("live"));
+        assertEquals(1, revocationList.size());
+    }
+
+    @Test
+    void poll_keepsListWhenAuthServiceFails() {
+        Instant asOf = Instant.parse("2026-01-01T12:00:00Z");
+        respond(asOf, revocation("a", Instant.now().plusSeconds(3600)));
+        responses.add(Mono.error(new IllegalStateException("connection refused")));
+        respond(asOf.plusSeconds(10), "");
+
+        revocationList.poll();
+        revocationList.poll();
+        revocationList.poll();
+
+        assertTrue(revocationList.isRevoked("a"));
+        // The failed poll did not advance the window
+        assertEquals(asOf.minus(OVERLAP).toString(), since(2));
+    }
+}
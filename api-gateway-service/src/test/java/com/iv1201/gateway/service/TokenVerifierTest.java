@@ -0,0 +1,247 @@
+package com.iv1201.gateway.service;
+
+import com.iv1201.gateway.config.JwtKeyRing;
+import com.iv1201.gateway.filter.JwtAuthenticationFilter;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the {@link TokenVerifier} cache with real tokens and a settable
+ * clock, and the boundaries of {@link TokenVerifier#isWellFormed(String)}.
+ */
+class TokenVerifierTest {
+
+    private static final String SECRET = "VGhpc0lzQVNlY3JldEtleUZvclRlc3RpbmdQdXJwb3Nlc09ubHkxMjM0NTY3ODkw";
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+    private final MutableClock clock = new MutableClock(NOW);
+    private JwtKeyRing keyRing;
+    private TokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        keyRing = new JwtKeyRing("primary", SECRET, "");
+        verifier = new TokenVerifier(keyRing, 100, clock);
+    }
+
+    private static JwtBuilder tokenBuilder(String jti) {
+        return Jwts.builder()
+                .setHeaderParam("kid", "primary")
+                .claim("id", 42L)
+                .setId(jti)
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256);
+    }
+
+    private static String token(String jti, Instant expiresAt) {
+        return tokenBuilder(jti).setExpiration(Date.from(expiresAt)).compact();
+    }
+
+    @Test
+    void cachedToken_isRejectedOnceExpired() {
+        String token = token("jti-1", NOW.plusSeconds(60));
+        assertEquals("42", verifier.verify(token).userId());
+        assertEquals(1, verifier.size());
+
+        clock.advance(Duration.ofSeconds(60));
+
+        // The cache entry is still there (Caffeine runs on its own ticker), so this is a cache hit
+        ExpiredJwtException e = assertThrows(ExpiredJwtException.class, () -> verifier.verify(token));
+        assertEquals("Token expired", e.getMessage());
+    }
+
+    @Test
+    void cachedToken_isAcceptedUntilExpiry() {
+        String token = token("jti-2", NOW.plusSeconds(60));
+        verifier.verify(token);
+
+        clock.advance(Duration.ofSeconds(59));
+
+        assertEquals("jti-2", verifier.verify(token).jti());
+    }
+
+    @Test
+    void tokenWithoutExpiry_isNotCached() {
+        String token = tokenBuilder("jti-3").compact();
+
+        assertEquals("42", verifier.verify(token).userId());
+        assertEquals("42", verifier.verify(token).userId());
+        assertEquals(0, verifier.size());
+    }
+
+    @Test
+    void revokedToken_isNotServedFromCache() {
+        TokenRevocationList revocationList = mock(TokenRevocationList.class);
+        GatewayFilter filter = new JwtAuthenticationFilter(verifier, revocationList)
+                .apply(new JwtAuthenticationFilter.Config());
+        AtomicInteger forwarded = new AtomicInteger();
+        String token = token("jti-4", NOW.plusSeconds(60));
+
+        filter.filter(exchange(token), exchange -> {
+            forwarded.incrementAndGet();
+            return Mono.empty();
+        }).block();
+        assertEquals(1, verifier.size());
+
+        when(revocationList.isRevoked("jti-4")).thenReturn(true);
+        MockServerWebExchange revoked = exchange(token);
+        filter.filter(revoked, exchange -> {
+            forwarded.incrementAndGet();
+            return Mono.empty();
+        }).block();
+
+        assertEquals(1, forwarded.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, revoked.getResponse().getStatusCode());
+    }
+
+    /**
+     * Builds a token with the given header JSON, a minimal payload and a
+     * signature segment of the given length.
+     */
+    private static String shaped(String headerJson, String payload, int signatureLength) {
+        String header = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(headerJson.getBytes(StandardCharsets.UTF_8));
+        return header + "." + payload + "." + "A".repeat(signatureLength);
+    }
+
+    private static String shaped(int signatureLength) {
+        return shaped("{\"alg\":\"HS256\"}", "e30", signatureLength);
+    }
+
+    @Test
+    void isWellFormed_acceptsIssuedToken() {
+        assertTrue(TokenVerifier.isWellFormed(token("jti-5", NOW.plusSeconds(60))));
+    }
+
+    @Test
+    void isWellFormed_acceptsOnlyHmacSignatureLengths() {
+        // HS256, HS384 and HS512 signatures are 32, 48 and 64 bytes
+        for (int length : new int[] {43, 64, 86}) {
+            assertTrue(TokenVerifier.isWellFormed(shaped(length)), "length " + length);
+        }
+        for (int length : new int[] {0, 42, 44, 63, 65, 85, 87, 342}) {
+            assertFalse(TokenVerifier.isWellFormed(shaped(length)), "length " + length);
+        }
+    }
+
+    @Test
+    void isWellFormed_parsesAlg() {
+        for (String header : new String[] {
+                "{\"alg\":\"HS256\"}", "{\"alg\":\"HS384\"}", "{\"alg\":\"HS512\"}",
+                "{\"alg\" : \"HS256\",\"typ\":\"JWT\"}", "{\"typ\":\"JWT\",\"alg\":\"HS256\"}"}) {
+            assertTrue(TokenVerifier.isWellFormed(shaped(header, "e30", 43)), header);
+        }
+        for (String header : new String[] {
+                "{\"alg\":\"none\"}", "{\"alg\":\"RS256\"}", "{\"alg\":\"HS257\"}", "{\"alg\":\"HS25\"}",
+                "{\"alg\":\"HS256", "{\"alg\":HS256}", "{\"typ\":\"JWT\"}", "{}"}) {
+            assertFalse(TokenVerifier.isWellFormed(shaped(header, "e30", 43)), header);
+        }
+    }
+
+    @Test
+    void isWellFormed_capsHeaderLength() {
+        // {"alg":"HS256","p":""} is 22 bytes; 192 bytes encode to 256 characters, 195 to 260
+        String atLimit = shaped("{\"alg\":\"HS256\",\"p\":\"" + "x".repeat(170) + "\"}", "e30", 43);
+        String overLimit = shaped("{\"alg\":\"HS256\",\"p\":\"" + "x".repeat(173) + "\"}", "e30", 43);
+
+        assertEquals(256, atLimit.indexOf('.'));
+        assertTrue(TokenVerifier.isWellFormed(atLimit));
+        assertEquals(260, overLimit.indexOf('.'));
+        assertFalse(TokenVerifier.isWellFormed(overLimit));
+    }
+
+    @Test
+    void isWellFormed_capsTokenLength() {
+        int payloadLength = TokenVerifier.MAX_TOKEN_LENGTH - (shaped(43).length() - "e30".length());
+        String atLimit = shaped("{\"alg\":\"HS256\"}", "A".repeat(payloadLength), 43);
+        String overLimit = shaped("{\"alg\":\"HS256\"}", "A".repeat(payloadLength + 1), 43);
+
+        assertEquals(TokenVerifier.MAX_TOKEN_LENGTH, atLimit.length());
+        assertTrue(TokenVerifier.isWellFormed(atLimit));
+        assertFalse(TokenVerifier.isWellFormed(overLimit));
+    }
+
+    @Test
+    void isWellFormed_rejectsHeaderThatCannotBeBase64url() {
+        // A base64url segment can not be 1 more than a multiple of 4 characters long;
+        // the decoder would throw, so the length check must reject it first
+        String token = shaped(43);
+        String header = token.substring(0, token.indexOf('.'));
+        String padded = header + "A".repeat((5 - header.length() % 4) % 4);
+        assertEquals(1, padded.length() % 4);
+
+        assertFalse(TokenVerifier.isWellFormed(padded + token.substring(header.length())));
+    }
+
+    @Test
+    void isWellFormed_rejectsWrongStructure() {
+        String token = shaped(43);
+        for (String malformed : new String[] {
+                "", "abc", token.substring(token.indexOf('.')), token.replace(".e30.", ".."),
+                token.replace(".e30.", ".e30"), token.replace("e30", "e+0"), token + "=",
+                token.substring(0, token.indexOf('.')) + "." + token}) {
+            assertFalse(TokenVerifier.isWellFormed(malformed), malformed);
+        }
+    }
+
+    private static MockServerWebExchange exchange(String token) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/recruitment/applications")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+
+    /**
+     * A clock that only moves when told to.
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
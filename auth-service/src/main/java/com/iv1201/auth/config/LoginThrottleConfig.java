@@ -0,0 +1,43 @@
+package com.iv1201.auth.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.iv1201.auth.util.LoginThrottle;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configures the login throttle that limits attempts per username and per
+ * source address before any password is verified.
+ */
+@Configuration
+public class LoginThrottleConfig {
+
+    /**
+     * Creates the login throttle.
+     *
+     * @param usernameCapacity     attempts per username in a burst.
+     * @param usernameRefillPeriod time in which a username bucket refills.
+     * @param addressCapacity      attempts per source address in a burst.
+     * @param addressRefillPeriod  time in which an address bucket refills.
+     * @param maximumKeys          the maximum number of tracked buckets.
+     * @param meterRegistry        the registry the throttle metrics are published to.
+     * @return the login throttle.
+     */
+    @Bean
+    public LoginThrottle loginThrottle(
+            @Value("${auth.login-throttle.username.capacity:5}") int usernameCapacity,
+            @Value("${auth.login-throttle.username.refill-period:PT5M}") Duration usernameRefillPeriod,
+            @Value("${auth.login-throttle.ip.capacity:50}") int addressCapacity,
+            @Value("${auth.login-throttle.ip.refill-period:PT1M}") Duration addressRefillPeriod,
+            @Value("${auth.login-throttle.maximum-keys:100000}") long maximumKeys,
+            MeterRegistry meterRegistry) {
+        return new LoginThrottle(
+                new LoginThrottle.Limit(usernameCapacity, usernameRefillPeriod),
+                new LoginThrottle.Limit(addressCapacity, addressRefillPeriod),
+                maximumKeys, meterRegistry, Ticker.systemTicker());
+    }
+}
@@ -0,0 +1,56 @@
+package com.iv1201.auth.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configures the dedicated worker pool used for password hashing.
+ * <p>
+ * The pool has a fixed size (one worker per core by default, since BCrypt is
+ * CPU bound) and a bounded queue. When both are full, new tasks are rejected
+ * with the default {@link ThreadPoolExecutor.AbortPolicy}, which
+ * {@link com.iv1201.auth.util.BoundedPasswordEncoder} turns into a 503.
+ * </p>
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    /**
+     * Creates the bounded password hashing pool.
+     *
+     * @param threads       number of hashing workers, 0 for one per core.
+     * @param queueCapacity number of hash requests that may wait for a worker.
+     * @return the hashing executor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashingExecutor(
+            @Value("${auth.hashing.threads:0}") int threads,
+            @Value("${auth.hashing.queue-capacity:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Names the hashing workers so they are recognisable in thread dumps.
+     */
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,23 +1,150 @@
 package com.iv1201.auth.config;
 
+import com.iv1201.auth.util.ResilientHttpInterceptor;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 /**
  * Configuration class that provides a RestTemplate bean
  * for making HTTP calls to other microservices.
+ * <p>
+ * Calls go through a pooled Apache HttpClient with keep-alive connections and
+ * explicit connect, pool-wait and response timeouts, so a hung recruitment
+ * service cannot block a caller indefinitely. Each target host additionally
+ * gets a circuit breaker and a bulkhead ({@link ResilientHttpInterceptor}).
+ * The RestTemplate is built with Spring Boot's {@link RestTemplateBuilder},
+ * which records client latency as {@code http.client.requests}.
+ * </p>
  */
 @Configuration
 public class RestTemplateConfig {
 
+    /**
+     * Creates the pooled HTTP client used by the RestTemplate.
+     *
+     * @param maxConnections          connections kept open across all hosts.
+     * @param maxConnectionsPerRoute  connections kept open per host.
+     * @param connectTimeout          time allowed to establish a connection.
+     * @param readTimeout             time allowed between response packets.
+     * @param connectionRequestTimeout time allowed to wait for a pooled connection.
+     * @param idleTimeout             idle time after which a pooled connection is closed.
+     * @return the HTTP client.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(
+            @Value("${auth.http-client.max-connections:50}") int maxConnections,
+            @Value("${auth.http-client.max-connections-per-route:20}") int maxConnectionsPerRoute,
+            @Value("${auth.http-client.connect-timeout:PT2S}") Duration connectTimeout,
+            @Value("${auth.http-client.read-timeout:PT5S}") Duration readTimeout,
+            @Value("${auth.http-client.connection-request-timeout:PT1S}") Duration connectionRequestTimeout,
+            @Value("${auth.http-client.idle-timeout:PT30S}") Duration idleTimeout) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    /**
+     * Creates the registry of per-host circuit breakers and publishes their
+     * state as {@code resilience4j.circuitbreaker.*} metrics.
+     *
+     * @param failureRateThreshold failure percentage that opens a circuit.
+     * @param slidingWindowSize    number of recent calls the failure rate is computed over.
+     * @param waitInOpenState      how long an open circuit rejects calls before probing.
+     * @param meterRegistry        the registry the metrics are published to.
+     * @return the circuit breaker registry.
+     */
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(
+            @Value("${auth.http-client.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${auth.http-client.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${auth.http-client.circuit-breaker.wait-in-open-state:PT30S}") Duration waitInOpenState,
+            MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(Math.min(slidingWindowSize, 10))
+                .waitDurationInOpenState(waitInOpenState)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    /**
+     * Creates the registry of per-host bulkheads and publishes their usage as
+     * {@code resilience4j.bulkhead.*} metrics.
+     *
+     * @param maxConcurrentCalls concurrent calls allowed per host.
+     * @param maxWait            how long a call may wait for a free slot.
+     * @param meterRegistry      the registry the metrics are published to.
+     * @return the bulkhead registry.
+     */
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(
+            @Value("${auth.http-client.bulkhead.max-concurrent-calls:20}") int maxConcurrentCalls,
+            @Value("${auth.http-client.bulkhead.max-wait:PT0S}") Duration maxWait,
+            MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(maxWait)
+                .build());
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
     /**
      * Creates a RestTemplate bean for inter-service communication.
      *
+     * @param builder                Spring Boot's builder, adds client metrics.
+     * @param httpClient             the pooled HTTP client.
+     * @param circuitBreakerRegistry the per-host circuit breakers.
+     * @param bulkheadRegistry       the per-host bulkheads.
      * @return A configured RestTemplate instance.
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     CloseableHttpClient httpClient,
+                                     CircuitBreakerRegistry circuitBreakerRegistry,
+                                     BulkheadRegistry bulkheadRegistry) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .additionalInterceptors(new ResilientHttpInterceptor(circuitBreakerRegistry, bulkheadRegistry))
+                .build();
     }
 }
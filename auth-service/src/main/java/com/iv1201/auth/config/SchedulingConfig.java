@@ -0,0 +1,18 @@
+package com.iv1201.auth.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled tasks: the {@link com.iv1201.auth.service.OutboxRelay},
+ * the {@link com.iv1201.auth.service.UsernameFilter} rebuild and the purges of
+ * expired token revocations and refresh tokens. Disabled with
+ * {@code auth.scheduling.enabled=false}, which the tests use to drive them
+ * by hand.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "auth.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
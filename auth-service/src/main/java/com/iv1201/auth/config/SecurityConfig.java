@@ -1,18 +1,32 @@
 package com.iv1201.auth.config;
 
+import com.iv1201.auth.util.BCryptStrengthCalibrator;
+import com.iv1201.auth.service.CustomUserDetailsService;
+import com.iv1201.auth.util.BoundedPasswordEncoder;
+import com.iv1201.auth.util.CaffeineUserCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
 /**
  * Spring Security configuration for the auth service.
  * Configures HTTP security, authentication manager, and password encoding.
@@ -21,12 +35,15 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @EnableWebSecurity
 public class SecurityConfig {
 
-    private final UserDetailsService userDetailsService;
+    /** Id of the current hashing algorithm, stored as the "{bcrypt}" hash prefix */
+    private static final String ENCODING_ID = "bcrypt";
+
+    private final CustomUserDetailsService userDetailsService;
 
     /**
      * @param userDetailsService the service used to load user details for authentication.
      */
-    public SecurityConfig(UserDetailsService userDetailsService) {
+    public SecurityConfig(CustomUserDetailsService userDetailsService) {
         this.userDetailsService = userDetailsService;
     }
 
@@ -42,7 +59,9 @@ public class SecurityConfig {
         http
             .csrf(csrf -> csrf.disable()) 
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/auth/register", "/auth/register/recruiter", "/auth/login").permitAll()
+                .requestMatchers("/auth/register", "/auth/register/recruiter", "/auth/login", "/auth/refresh",
+                    "/auth/logout", "/auth/revocations").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/metrics/**").permitAll()
                 .anyRequest().authenticated()
             )
             .exceptionHandling(e -> e
@@ -54,27 +73,90 @@ public class SecurityConfig {
 
     /**
      * Creates the authentication manager with the custom user details service.
+     * <p>
+     * Loaded users are kept in a short-lived per-username cache, so a user
+     * logging in repeatedly is looked up in the database at most once per
+     * time-to-live. Rehashed passwords replace the cached entry, so the
+     * upgrade is not repeated on the next login. Both the cached entries and
+     * the rehash result are {@link com.iv1201.auth.model.AuthenticatedUser}
+     * snapshots; the rehash reloads the user before writing.
+     * </p>
      *
-     * @param http the {@link HttpSecurity} to extract the shared builder.
+     * @param passwordEncoder the encoder used to verify passwords.
+     * @param userCache the cache of loaded users.
      * @return the configured {@link AuthenticationManager}.
-     * @throws Exception if configuration fails.
      */
     @Bean
-    public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
-        return http.getSharedObject(AuthenticationManagerBuilder.class)
-                .userDetailsService(userDetailsService)
-                .passwordEncoder(passwordEncoder())
-                .and()
-                .build();
+    public AuthenticationManager authenticationManager(PasswordEncoder passwordEncoder, UserCache userCache) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(userDetailsService);
+        provider.setUserCache(userCache);
+        provider.setUserDetailsPasswordService((user, newPassword) -> {
+            UserDetails updated = userDetailsService.updatePassword(user, newPassword);
+            userCache.putUserInCache(updated);
+            return updated;
+        });
+        return new ProviderManager(provider);
     }
 
     /**
-     * Provides the BCrypt password encoder bean.
+     * Provides the per-username cache of loaded users.
      *
-     * @return a {@link BCryptPasswordEncoder} instance.
+     * @param timeToLive how long a loaded user is reused.
+     * @param maximumSize the maximum number of cached users.
+     * @return the user cache.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public UserCache userCache(@Value("${auth.user-cache.time-to-live:PT1M}") Duration timeToLive,
+                               @Value("${auth.user-cache.maximum-size:10000}") long maximumSize) {
+        return new CaffeineUserCache(timeToLive, maximumSize);
+    }
+
+    /**
+     * Provides the password encoder bean.
+     * <p>
+     * New hashes are written as {@code {bcrypt}$2a$<strength>$...}, so both
+     * the algorithm and the cost are recorded in the hash. The strength is
+     * calibrated on startup to take about {@code auth.hashing.bcrypt.target-millis}
+     * per hash unless {@code auth.hashing.bcrypt.strength} fixes it. Hashes
+     * without a prefix (stored before this scheme) are verified as BCrypt.
+     * Hashes with another algorithm or a lower cost are reported by
+     * {@link PasswordEncoder#upgradeEncoding} and rehashed on the next login
+     * (see {@link CustomUserDetailsService}).
+     * </p>
+     * <p>
+     * Hashing runs on the bounded pool from {@link PasswordHashingConfig}
+     * instead of the request thread.
+     * </p>
+     *
+     * @param passwordHashingExecutor the bounded hashing pool.
+     * @param meterRegistry the registry for the hashing metrics.
+     * @param retryAfterSeconds the Retry-After value sent when the pool is full.
+     * @param fixedStrength a fixed BCrypt strength, or 0 to calibrate.
+     * @param targetMillis the calibration target for one hash.
+     * @param minStrength the lowest strength calibration may pick.
+     * @param maxStrength the highest strength calibration may pick.
+     * @return a {@link BoundedPasswordEncoder} wrapping a {@link DelegatingPasswordEncoder}.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(ThreadPoolExecutor passwordHashingExecutor,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${auth.hashing.retry-after-seconds:1}") long retryAfterSeconds,
+                                           @Value("${auth.hashing.bcrypt.strength:0}") int fixedStrength,
+                                           @Value("${auth.hashing.bcrypt.target-millis:250}") long targetMillis,
+                                           @Value("${auth.hashing.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${auth.hashing.bcrypt.max-strength:14}") int maxStrength) {
+        int strength = fixedStrength > 0
+                ? fixedStrength
+                : BCryptStrengthCalibrator.calibrate(targetMillis, minStrength, maxStrength);
+        Gauge.builder("auth.password.hash.strength", () -> strength)
+                .description("BCrypt work factor used for new hashes")
+                .register(meterRegistry);
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(ENCODING_ID, Map.of(ENCODING_ID, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        return new BoundedPasswordEncoder(encoder, passwordHashingExecutor, meterRegistry, retryAfterSeconds);
     }
 }
\ No newline at end of file
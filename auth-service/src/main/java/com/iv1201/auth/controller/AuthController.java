@@ -3,27 +3,44 @@ package com.iv1201.auth.controller;
 import com.iv1201.auth.dto.AuthResponseDTO;
 import com.iv1201.auth.dto.LoginRequestDTO;
 import com.iv1201.auth.dto.RecruiterRegisterRequestDTO;
+import com.iv1201.auth.dto.RefreshRequestDTO;
 import com.iv1201.auth.dto.RegisterRequestDTO;
+import com.iv1201.auth.dto.RevocationListDTO;
 import com.iv1201.auth.service.AuthService;
+import com.iv1201.auth.service.TokenRevocationService;
+import com.iv1201.auth.util.LoginThrottle;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+
 /**
  * REST Controller for handling authentication-related requests.
- * Exposes endpoints for Registration and Login.
+ * Exposes endpoints for Registration, Login, token refresh, logout and the
+ * revocation list pulled by the gateway.
  */
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginThrottle loginThrottle;
+    private final TokenRevocationService tokenRevocationService;
 
     /**
-     * @param authService the service handling authentication business logic.
+     * @param authService            the service handling authentication business logic.
+     * @param loginThrottle          the limiter applied to login attempts.
+     * @param tokenRevocationService the service serving the revocation list.
      */
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, LoginThrottle loginThrottle,
+                          TokenRevocationService tokenRevocationService) {
         this.authService = authService;
+        this.loginThrottle = loginThrottle;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
@@ -61,14 +78,91 @@ public class AuthController {
      * <p>
      * URL: POST /auth/login
      * </p>
+     * <p>
+     * Attempts are throttled per username and per source address before
+     * any password is verified.
+     * </p>
      *
-     * @param request The JSON body containing username and password.
-     * @return 200 OK with JWT token.
+     * @param request     The JSON body containing username and password.
+     * @param httpRequest The servlet request, used for the source address.
+     * @return 200 OK with JWT token and refresh token, or 429 Too Many Requests.
      * @throws org.springframework.security.core.AuthenticationException If credentials are invalid.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequestDTO request) {
-        String token = authService.login(request);
-        return ResponseEntity.ok(new AuthResponseDTO(token));
+    public ResponseEntity<AuthResponseDTO> login(@RequestBody LoginRequestDTO request,
+                                                 HttpServletRequest httpRequest) {
+        loginThrottle.acquire(request.getUsername(), clientAddress(httpRequest));
+        AuthResponseDTO response = authService.login(request);
+        loginThrottle.recordSuccess(request.getUsername());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Endpoint for exchanging a refresh token for a new token pair.
+     * <p>
+     * URL: POST /auth/refresh
+     * </p>
+     *
+     * @param request The JSON body containing the refresh token.
+     * @return 200 OK with a new JWT token and refresh token, or 401 Unauthorized.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponseDTO> refresh(@Valid @RequestBody RefreshRequestDTO request) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+
+    /**
+     * Endpoint for logging out.
+     * <p>
+     * URL: POST /auth/logout
+     * </p>
+     * <p>
+     * Revokes the access token from the Authorization header, and the refresh
+     * token if one is sent in the body. The gateway rejects the access token
+     * from its next revocation poll on.
+     * </p>
+     *
+     * @param authorization The Authorization header carrying the access token.
+     * @param request       Optional JSON body containing the refresh token.
+     * @return 204 No Content, or 401 Unauthorized if the access token is invalid.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                       @RequestBody(required = false) RefreshRequestDTO request) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            throw new BadCredentialsException("Missing access token");
+        }
+        authService.logout(authorization.substring(7), request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Endpoint for the gateway's incremental pull of revoked access tokens.
+     * <p>
+     * URL: GET /auth/revocations?since=2024-01-01T00:00:00Z
+     * </p>
+     * <p>
+     * Internal: the gateway does not route this path to clients.
+     * </p>
+     *
+     * @param since Only revocations after this instant are listed; all unexpired ones if omitted.
+     * @return 200 OK with the revocations and the time they were read.
+     */
+    @GetMapping("/revocations")
+    public ResponseEntity<RevocationListDTO> revocations(@RequestParam(required = false) Instant since) {
+        return ResponseEntity.ok(tokenRevocationService.revokedSince(since != null ? since : Instant.EPOCH));
+    }
+
+    /**
+     * Returns the address the request came from. Behind the gateway this is
+     * the last X-Forwarded-For entry, the one the gateway itself appended;
+     * earlier entries are supplied by the client and not trusted.
+     */
+    private String clientAddress(HttpServletRequest request) {
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (forwarded != null && !forwarded.isBlank()) {
+            return forwarded.substring(forwarded.lastIndexOf(',') + 1).trim();
+        }
+        return request.getRemoteAddr();
     }
-}
\ No newline at end of file
+}
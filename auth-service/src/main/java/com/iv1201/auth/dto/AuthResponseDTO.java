@@ -2,7 +2,8 @@ package com.iv1201.auth.dto;
 
 /**
  * Data Transfer Object representing an authentication response.
- * This class encapsulates the security token returned upon a successful authentication attempt.
+ * This class encapsulates the security token returned upon a successful authentication attempt,
+ * together with the refresh token used to obtain new access tokens without logging in again.
  */
 public class AuthResponseDTO {
     
@@ -11,6 +12,11 @@ public class AuthResponseDTO {
      */
     private String token;
 
+    /**
+     * The refresh token, exchanged at /auth/refresh for a new token pair.
+     */
+    private String refreshToken;
+
     /**
      * Constructs a new AuthResponseDTO with the specified token.
      * * @param token the authentication token to be wrapped in this DTO
@@ -19,6 +25,16 @@ public class AuthResponseDTO {
         this.token = token;
     }
 
+    /**
+     * Constructs a new AuthResponseDTO with an access token and a refresh token.
+     * * @param token the authentication token to be wrapped in this DTO
+     * * @param refreshToken the refresh token to be wrapped in this DTO
+     */
+    public AuthResponseDTO(String token, String refreshToken) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+    }
+
     /**
      * Retrieves the authentication token.
      * * @return the current authentication token string
@@ -34,4 +50,20 @@ public class AuthResponseDTO {
     public void setToken(String token) { 
         this.token = token; 
     }
+
+    /**
+     * Retrieves the refresh token.
+     * * @return the current refresh token string
+     */
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    /**
+     * Sets the refresh token.
+     * * @param refreshToken the refresh token string to set
+     */
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.iv1201.auth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Data Transfer Object representing a refresh request.
+ * This class carries the refresh token issued at login or by a previous refresh.
+ */
+public class RefreshRequestDTO {
+
+    /**
+     * The refresh token to exchange.
+     */
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+
+    /**
+     * Retrieves the refresh token.
+     * * @return the refresh token string.
+     */
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    /**
+     * Sets the refresh token.
+     * * @param refreshToken the refresh token to set.
+     */
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -0,0 +1,53 @@
+package com.iv1201.auth.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Data Transfer Object representing the access tokens revoked since a point
+ * in time, as pulled by the gateway from /auth/revocations.
+ */
+public class RevocationListDTO {
+
+    /**
+     * The time the list was read; the next poll asks for revocations since then.
+     */
+    private final Instant asOf;
+
+    /**
+     * The revoked tokens.
+     */
+    private final List<Revocation> revocations;
+
+    /**
+     * @param asOf        the time the list was read.
+     * @param revocations the revoked tokens.
+     */
+    public RevocationListDTO(Instant asOf, List<Revocation> revocations) {
+        this.asOf = asOf;
+        this.revocations = revocations;
+    }
+
+    /**
+     * @return the time the list was read.
+     */
+    public Instant getAsOf() {
+        return asOf;
+    }
+
+    /**
+     * @return the revoked tokens.
+     */
+    public List<Revocation> getRevocations() {
+        return revocations;
+    }
+
+    /**
+     * A revoked token.
+     *
+     * @param jti       the {@code jti} claim of the token.
+     * @param expiresAt when the token expires; the gateway forgets it afterwards.
+     */
+    public record Revocation(String jti, Instant expiresAt) {
+    }
+}
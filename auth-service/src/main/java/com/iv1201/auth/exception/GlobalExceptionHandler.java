@@ -1,8 +1,10 @@
 package com.iv1201.auth.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -44,6 +46,41 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
     }
 
+    /**
+     * Handles login attempts rejected by the login throttle.
+     * Returns 429 with Retry-After; no password was verified.
+     */
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<String> handleLoginThrottled(LoginThrottledException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body("Too many login attempts, please try again later");
+    }
+
+    /**
+     * Handles a full password hashing pool (login/registration burst).
+     * Returns 503 with Retry-After so clients back off instead of piling up.
+     */
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<String> handleHashingCapacityExceeded(HashingCapacityExceededException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body("Service is busy, please try again shortly");
+    }
+
+    /**
+     * Handles unexpected failures inside the authentication manager. Spring
+     * Security wraps a rejected hash request for an unknown username in this
+     * exception, so that case is unwrapped and answered with 503.
+     */
+    @ExceptionHandler(InternalAuthenticationServiceException.class)
+    public ResponseEntity<String> handleInternalAuthentication(InternalAuthenticationServiceException e) {
+        if (e.getCause() instanceof HashingCapacityExceededException capacityExceeded) {
+            return handleHashingCapacityExceeded(capacityExceeded);
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Internal Server Error");
+    }
+
     /**
      * Handles business logic errors thrown by AuthService.
      * Maps specific message contents to correct HTTP Status codes.
@@ -0,0 +1,26 @@
+package com.iv1201.auth.exception;
+
+/**
+ * Thrown when the password hashing pool and its queue are full.
+ * Mapped to 503 Service Unavailable with a Retry-After header by
+ * {@link GlobalExceptionHandler}.
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * @param retryAfterSeconds how long clients should wait before retrying.
+     */
+    public HashingCapacityExceededException(long retryAfterSeconds) {
+        super("Password hashing capacity exceeded");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return how long clients should wait before retrying, in seconds.
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,26 @@
+package com.iv1201.auth.exception;
+
+/**
+ * Thrown when a login attempt exceeds the attempt budget of its username or
+ * source address. Mapped to 429 Too Many Requests with a Retry-After header by
+ * {@link GlobalExceptionHandler}.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * @param retryAfterSeconds how long clients should wait before retrying.
+     */
+    public LoginThrottledException(long retryAfterSeconds) {
+        super("Too many login attempts");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return how long clients should wait before retrying, in seconds.
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,51 @@
+package com.iv1201.auth.integration;
+
+import com.iv1201.auth.model.OutboxEvent;
+import com.iv1201.auth.model.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for outbox events awaiting delivery.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks a batch of events that are due for delivery, oldest first.
+     * <p>
+     * Rows locked by another relay instance are skipped
+     * ({@code FOR UPDATE SKIP LOCKED}), so several instances can relay in
+     * parallel without delivering the same event twice at the same time.
+     * </p>
+     *
+     * @param status   the status to select, normally PENDING.
+     * @param now      events due at or before this time are selected.
+     * @param pageable the batch size.
+     * @return the locked events.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt, e.id")
+    List<OutboxEvent> lockDueEvents(@Param("status") OutboxStatus status,
+                                    @Param("now") Instant now,
+                                    Pageable pageable);
+
+    /**
+     * Counts events in a status.
+     *
+     * @param status the status to count.
+     * @return the number of events.
+     */
+    long countByStatus(OutboxStatus status);
+}
@@ -0,0 +1,58 @@
+package com.iv1201.auth.integration;
+
+import com.iv1201.auth.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Repository for refresh tokens, looked up by the hash of the token.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Finds a token by its hash, served by the unique index on token_hash.
+     *
+     * @param tokenHash the hex encoded SHA-256 hash of the token.
+     * @return the token, or empty if no token has this hash.
+     */
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Revokes a single token unless it is already revoked. The condition is
+     * checked by the update itself, so of two concurrent rotations of the
+     * same token only one sees an updated row.
+     *
+     * @param id the id of the token to revoke.
+     * @return 1 if this call revoked the token, 0 if it was already revoked.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.id = :id AND t.revoked = false")
+    int claim(@Param("id") Long id);
+
+    /**
+     * Revokes every token of a rotation family.
+     *
+     * @param familyId the family to revoke.
+     * @return the number of revoked tokens.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.familyId = :familyId")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    /**
+     * Deletes the tokens that have expired, served by the index on expires_at.
+     *
+     * @param now tokens expired by this time are deleted.
+     * @return the number of deleted rows.
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,55 @@
+package com.iv1201.auth.integration;
+
+import com.iv1201.auth.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for revoked access tokens, keyed by {@code jti}.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * Stores a revocation unless the token is already revoked. The check is
+     * part of the insert, so concurrent revocations of the same token do not
+     * fail on the primary key.
+     *
+     * @param jti       the {@code jti} of the revoked token.
+     * @param expiresAt when the token expires.
+     * @param revokedAt when the token was revoked.
+     * @return 1 if the revocation was stored, 0 if the token was already revoked.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO revoked_token (jti, expires_at, revoked_at) "
+            + "VALUES (:jti, :expiresAt, :revokedAt) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("jti") String jti, @Param("expiresAt") Instant expiresAt,
+                       @Param("revokedAt") Instant revokedAt);
+
+    /**
+     * Finds the tokens revoked after a point in time that have not expired
+     * yet, served by the index on revoked_at.
+     *
+     * @param since only revocations after this time are returned.
+     * @param now   tokens expired by this time are left out.
+     * @return the revocations, oldest first.
+     */
+    @Query("SELECT t FROM RevokedToken t WHERE t.revokedAt > :since AND t.expiresAt > :now ORDER BY t.revokedAt")
+    List<RevokedToken> findRevokedSince(@Param("since") Instant since, @Param("now") Instant now);
+
+    /**
+     * Deletes the revocations of tokens that have expired.
+     *
+     * @param now tokens expired by this time are deleted.
+     * @return the number of deleted rows.
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,9 +1,13 @@
 package com.iv1201.auth.integration;
 
 import com.iv1201.auth.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -18,26 +22,79 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
 
     /**
-     * Finds a user in the database by their username.
+     * Finds a user in the database by their username, ignoring case.
      * <p>
      * This is the primary method used during the login process to retrieve
-     * the user's credentials (password hash and role).
+     * the user's credentials (password hash and role). The lookup goes
+     * through the unique index on the normalized username.
      * </p>
      *
      * @param username The username to search for.
      * @return An {@link Optional} containing the User if found, or empty if not.
      */
-    Optional<User> findByUsername(String username);
+    default Optional<User> findByUsername(String username) {
+        return findByUsernameNormalized(User.normalize(username));
+    }
 
     /**
-     * Checks if a specific username already exists in the database.
+     * Checks if a specific username already exists in the database, ignoring case.
      * <p>
      * This is used during the registration process to ensure uniqueness
-     * before attempting to create a new account.
+     * before attempting to create a new account, so usernames differing only
+     * in case are rejected.
      * </p>
      *
      * @param username The username to check.
      * @return <code>true</code> if the username is already taken; <code>false</code> otherwise.
      */
-    boolean existsByUsername(String username);
-}
\ No newline at end of file
+    default boolean existsByUsername(String username) {
+        return existsByUsernameNormalized(User.normalize(username));
+    }
+
+    /**
+     * Finds a user by the normalized username.
+     *
+     * @param usernameNormalized The username as returned by {@link User#normalize(String)}.
+     * @return The user, or empty if not found.
+     */
+    Optional<User> findByUsernameNormalized(String usernameNormalized);
+
+    /**
+     * Checks if a normalized username is taken.
+     *
+     * @param usernameNormalized The username as returned by {@link User#normalize(String)}.
+     * @return <code>true</code> if the username is taken.
+     */
+    boolean existsByUsernameNormalized(String usernameNormalized);
+
+    /**
+     * Returns the next page of usernames after a user id, ordered by id.
+     * <p>
+     * Used to load the username filter. Paging by id (keyset) keeps every
+     * page an index range scan however far into the table it is, and only
+     * the id and normalized username are read.
+     * </p>
+     *
+     * @param afterId  the last id of the previous page, 0 for the first page.
+     * @param pageable the page size.
+     * @return the next normalized usernames with their ids.
+     */
+    @Query("SELECT u.id AS id, u.usernameNormalized AS username FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UsernameView> findUsernamesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Projection of a user to its id and normalized username.
+     */
+    interface UsernameView {
+
+        /**
+         * @return the user id.
+         */
+        Long getId();
+
+        /**
+         * @return the normalized username.
+         */
+        String getUsername();
+    }
+}
@@ -0,0 +1,86 @@
+package com.iv1201.auth.model;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable copy of the {@link User} fields needed to authenticate a user
+ * and issue its tokens.
+ * <p>
+ * This is what the authentication provider loads, caches and returns as the
+ * principal, instead of the JPA entity. A cached entry can therefore not be
+ * changed by whoever else holds it, and nothing keeps a detached entity
+ * around after its transaction has ended.
+ * </p>
+ *
+ * @param id       the person id.
+ * @param username the username as registered.
+ * @param password the password hash.
+ * @param roleId   the role id.
+ */
+public record AuthenticatedUser(Long id, String username, String password, Long roleId) implements UserDetails {
+
+    /**
+     * Copies a user entity.
+     *
+     * @param user the entity.
+     * @return the snapshot of the entity.
+     */
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(), user.getRoleId());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Leaves out the password hash, so the snapshot can be logged.
+     */
+    @Override
+    public String toString() {
+        return "AuthenticatedUser[id=" + id + ", username=" + username + ", roleId=" + roleId + "]";
+    }
+}
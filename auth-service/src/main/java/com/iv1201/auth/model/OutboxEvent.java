@@ -0,0 +1,169 @@
+package com.iv1201.auth.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * An event written in the same transaction as the change it describes and
+ * delivered to another service afterwards by
+ * {@link com.iv1201.auth.service.OutboxRelay}.
+ */
+@Entity
+@Table(name = "outbox_event")
+public class OutboxEvent {
+
+    /**
+     * Event type announcing a new user whose person record must be created
+     * in the recruitment service.
+     */
+    public static final String PERSON_CREATED = "PERSON_CREATED";
+
+    /**
+     * The primary key, generated by the database.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_event_id")
+    private Long id;
+
+    /**
+     * The id of the user the event is about.
+     */
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    /**
+     * The kind of event, e.g. {@link #PERSON_CREATED}.
+     */
+    @Column(name = "event_type", nullable = false, length = 64)
+    private String eventType;
+
+    /**
+     * The JSON request body sent on delivery.
+     */
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    /**
+     * The delivery state.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private OutboxStatus status;
+
+    /**
+     * Number of failed delivery attempts so far.
+     */
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    /**
+     * Earliest time of the next delivery attempt.
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    /**
+     * When the event was written.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * The error of the most recent failed attempt.
+     */
+    @Column(name = "last_error")
+    private String lastError;
+
+    /**
+     * Creates a pending event that is due immediately.
+     *
+     * @param aggregateId the id of the user the event is about.
+     * @param eventType   the kind of event.
+     * @param payload     the JSON request body.
+     * @return the new event.
+     */
+    public static OutboxEvent pending(Long aggregateId, String eventType, String payload) {
+        Instant now = Instant.now();
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        event.setPayload(payload);
+        event.setStatus(OutboxStatus.PENDING);
+        event.setCreatedAt(now);
+        event.setNextAttemptAt(now);
+        return event;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public OutboxStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OutboxStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Instant nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,13 @@
+package com.iv1201.auth.model;
+
+/**
+ * Delivery state of an {@link OutboxEvent}.
+ */
+public enum OutboxStatus {
+    /** Waiting for (re)delivery */
+    PENDING,
+    /** Accepted by the receiving service */
+    DELIVERED,
+    /** Permanently rejected by the receiving service */
+    FAILED
+}
@@ -0,0 +1,58 @@
+package com.iv1201.auth.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * An access token revoked before its expiry, identified by its {@code jti}
+ * claim. Kept until the token would have expired anyway.
+ */
+@Entity
+@Table(name = "revoked_token")
+public class RevokedToken {
+
+    /**
+     * The {@code jti} claim of the revoked token.
+     */
+    @Id
+    @Column(name = "jti", length = 36)
+    private String jti;
+
+    /**
+     * When the token expires; the row can be purged afterwards.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * When the token was revoked; the gateway pulls revocations by this time.
+     */
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    protected RevokedToken() {
+    }
+
+    /**
+     * @param jti       the {@code jti} claim of the token.
+     * @param expiresAt when the token expires.
+     * @param revokedAt when the token was revoked.
+     */
+    public RevokedToken(String jti, Instant expiresAt, Instant revokedAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+        this.revokedAt = revokedAt;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Represents a user in the Authentication Database.
@@ -15,11 +16,19 @@ import java.util.List;
 @Table(name = "person")
 public class User implements UserDetails {
 
+    /**
+     * Ids are taken from {@code person_seq} in blocks of
+     * {@link #ID_ALLOCATION_SIZE}, so inserts can be batched (an identity
+     * column makes Hibernate insert each row on its own to read the id back).
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     /**
      * The unique identifier for the user.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_seq")
+    @SequenceGenerator(name = "person_seq", sequenceName = "person_seq", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "person_id")
     private Long id;
 
@@ -29,6 +38,14 @@ public class User implements UserDetails {
     @Column(name = "username")
     private String username;
 
+    /**
+     * The username in lower case, unique and indexed. Logins and the
+     * uniqueness check look users up by this column, so usernames are
+     * case-insensitive. Kept in sync by {@link #setUsername(String)}.
+     */
+    @Column(name = "username_normalized", unique = true)
+    private String usernameNormalized;
+
     /**
      * The encrypted password.
      */
@@ -72,6 +89,25 @@ public class User implements UserDetails {
      */
     public void setUsername(String username) {
         this.username = username;
+        this.usernameNormalized = normalize(username);
+    }
+
+    /**
+     * Gets the normalized (lower case) username.
+     * @return The normalized username.
+     */
+    public String getUsernameNormalized() {
+        return usernameNormalized;
+    }
+
+    /**
+     * Normalizes a username for lookups: usernames that differ only in case
+     * belong to the same user.
+     * @param username The username as entered.
+     * @return The lower case username, or null if username is null.
+     */
+    public static String normalize(String username) {
+        return username == null ? null : username.toLowerCase(Locale.ROOT);
     }
 
     /**
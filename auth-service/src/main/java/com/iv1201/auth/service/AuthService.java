@@ -1,21 +1,28 @@
 package com.iv1201.auth.service;
 
+import com.iv1201.auth.dto.AuthResponseDTO;
 import com.iv1201.auth.dto.LoginRequestDTO;
 import com.iv1201.auth.dto.RecruiterRegisterRequestDTO;
 import com.iv1201.auth.dto.RegisterRequestDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iv1201.auth.integration.OutboxEventRepository;
 import com.iv1201.auth.integration.UserRepository;
+import com.iv1201.auth.model.AuthenticatedUser;
+import com.iv1201.auth.model.OutboxEvent;
 import com.iv1201.auth.model.User;
 import com.iv1201.auth.util.JwtUtil;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Map;
 
@@ -23,9 +30,17 @@ import java.util.Map;
  * Service class for handling authentication business logic.
  * <p>
  * Handles both Registration (creating new users) and Login (verifying credentials).
- * Uses the saga pattern for registration: creates a user locally, then calls
- * the recruitment service to create a matching person record. If the remote call
- * fails, the local user is deleted as a compensating transaction.
+ * Uses the saga pattern for registration: creates a user locally together with
+ * an outbox event in the same transaction. {@link OutboxRelay} delivers the event
+ * to the recruitment service afterwards, which creates the matching person record,
+ * so registration does not wait for (or fail with) the recruitment service.
+ * </p>
+ * <p>
+ * Registration and login run BCrypt on the bounded hashing pool, where a
+ * request may wait for a free worker. They do so outside any transaction,
+ * so a waiting request does not hold a database connection. Otherwise the
+ * connection pool would run out before the hashing queue fills up and
+ * answers with 503.
  * </p>
  */
 @Service
@@ -36,10 +51,12 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
-    private final RestTemplate restTemplate;
-
-    @Value("${recruitment.service.url}")
-    private String recruitmentServiceUrl;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final RefreshTokenService refreshTokenService;
+    private final UsernameFilter usernameFilter;
+    private final TokenRevocationService tokenRevocationService;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Constructor injection for dependencies.
@@ -48,64 +65,55 @@ public class AuthService {
      * @param passwordEncoder The BCrypt password hasher.
      * @param jwtUtil         The utility to generate JWT tokens.
      * @param authenticationManager The Spring Security authentication manager.
-     * @param restTemplate    The HTTP client for inter-service communication.
+     * @param outboxEventRepository The outbox the person-creation events are written to.
+     * @param objectMapper    Serializes the event payloads.
+     * @param refreshTokenService The service issuing and rotating refresh tokens.
+     * @param usernameFilter  The filter of taken usernames, told about new users.
+     * @param tokenRevocationService The service revoking access tokens on logout.
+     * @param transactionManager The transaction manager for the registration writes.
      */
     public AuthService(UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
                        JwtUtil jwtUtil,
                        AuthenticationManager authenticationManager,
-                       RestTemplate restTemplate) {
+                       OutboxEventRepository outboxEventRepository,
+                       ObjectMapper objectMapper,
+                       RefreshTokenService refreshTokenService,
+                       UsernameFilter usernameFilter,
+                       TokenRevocationService tokenRevocationService,
+                       PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
         this.authenticationManager = authenticationManager;
-        this.restTemplate = restTemplate;
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.refreshTokenService = refreshTokenService;
+        this.usernameFilter = usernameFilter;
+        this.tokenRevocationService = tokenRevocationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
      * Registers a new applicant using the saga pattern.
      * <p>
      * Step 1: Saves the user to the auth database.
-     * Step 2: Calls the recruitment service to create a person record with email and pnr.
-     * If step 2 fails, the user is deleted from auth-db (compensating transaction).
+     * Step 2: Writes a person-creation event with email and pnr to the outbox in the same transaction.
+     * The method returns once both rows are committed; {@link OutboxRelay} creates the
+     * person record in the recruitment service afterwards. The password is hashed
+     * before that transaction begins.
      * </p>
      *
      * @param request The registration data (already validated by @Valid annotation).
-     * @throws RuntimeException If the recruitment service call fails after user creation.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void register(RegisterRequestDTO request) {
         User user = new User();
         user.setUsername(request.getUsername());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         user.setRoleId(2L);
 
-        userRepository.save(user);
-        userRepository.flush();
-
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            Map<String, Object> body = Map.of(
-                "personId", user.getId(),
-                "email", request.getEmail(),
-                "pnr", request.getPnr()
-            );
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-            restTemplate.postForEntity(
-                recruitmentServiceUrl + "/api/recruitment/persons",
-                entity,
-                Void.class
-            );
-        } catch (Exception e) {
-            // Compensating transaction: remove the user from auth-db
-            userRepository.delete(user);
-            userRepository.flush();
-            throw new RuntimeException(
-                "Registration failed: could not create profile in recruitment service"
-            );
-        }
+        saveNewUser(user, request.getEmail(), request.getPnr());
     }
 
     /**
@@ -113,57 +121,133 @@ public class AuthService {
      *
      * @param request The registration data including secret code (already validated by @Valid annotation).
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void registerRecruiter(RecruiterRegisterRequestDTO request) {
         User user = new User();
         user.setUsername(request.getUsername());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         user.setRoleId(1L); // Recruiter role
 
-        userRepository.save(user);
-        userRepository.flush();
+        saveNewUser(user, request.getEmail(), request.getPnr());
+    }
 
+    /**
+     * Inserts a new user together with its person-creation event in one
+     * transaction, and then adds its username to the {@link UsernameFilter}.
+     * The unique index on the normalized username has the final say: a name
+     * taken after the validation passed, or one that a stale filter reported
+     * as free, is answered like any other taken username. Whether that was
+     * the violated constraint is checked by looking the name up again after
+     * the failed transaction; any other violation is passed on.
+     *
+     * @param user  the user to insert, with its password already hashed.
+     * @param email the email for the person record.
+     * @param pnr   the personal number for the person record.
+     * @throws IllegalArgumentException if the username is already taken.
+     * @throws DataIntegrityViolationException if the insert violates another constraint.
+     */
+    private void saveNewUser(User user, String email, String pnr) {
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            Map<String, Object> body = Map.of(
-                "personId", user.getId(),
-                "email", request.getEmail(),
-                "pnr", request.getPnr()
-            );
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-            restTemplate.postForEntity(
-                recruitmentServiceUrl + "/api/recruitment/persons",
-                entity,
-                Void.class
-            );
-        } catch (Exception e) {
-            userRepository.delete(user);
-            userRepository.flush();
-            throw new RuntimeException(
-                "Registration failed: could not create profile in recruitment service"
-            );
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.save(user);
+                userRepository.flush();
+                enqueuePersonCreation(user, email, pnr);
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (userRepository.existsByUsername(user.getUsername())) {
+                throw new IllegalArgumentException("Username is already taken");
+            }
+            throw e;
         }
+        usernameFilter.add(user.getUsername());
     }
 
     /**
-     * Authenticates a user and returns a JWT token.
+     * Writes the event that makes the recruitment service create the person
+     * record of a new user. The user must already have its generated id.
+     */
+    private void enqueuePersonCreation(User user, String email, String pnr) {
+        Map<String, Object> body = Map.of(
+            "personId", user.getId(),
+            "email", email,
+            "pnr", pnr
+        );
+
+        try {
+            outboxEventRepository.save(OutboxEvent.pending(
+                user.getId(), OutboxEvent.PERSON_CREATED, objectMapper.writeValueAsString(body)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize person-creation event", e);
+        }
+    }
+
+    /**
+     * Authenticates a user and returns a JWT token and a refresh token.
+     * <p>
+     * The token is built from the {@link AuthenticatedUser} principal that
+     * the authentication manager already loaded, so a login reads the user at
+     * most once (and not at all when it is in the user cache).
+     * </p>
+     * <p>
+     * Runs without a transaction: the user lookup, a rehashed password and
+     * the refresh token are each written in their own short transaction, so
+     * no connection is held while the password is verified.
+     * </p>
      *
      * @param request The login credentials (username/password).
-     * @return A signed JWT token string.
+     * @return A signed JWT token and a new refresh token.
      * @throws org.springframework.security.core.AuthenticationException If credentials are invalid.
      */
-    public String login(LoginRequestDTO request) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AuthResponseDTO login(LoginRequestDTO request) {
         // Delegate authentication to Spring Security's AuthenticationManager
-        authenticationManager.authenticate(
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
         );
 
-        // If we get here, authentication was successful. Load user and generate token.
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        // If we get here, authentication was successful. The principal is the loaded user.
+        if (!(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            throw new IllegalArgumentException("User not found");
+        }
+
+        return new AuthResponseDTO(jwtUtil.generateToken(user), refreshTokenService.issue(user.id()));
+    }
 
-        return jwtUtil.generateToken(user);
+    /**
+     * Exchanges a refresh token for a new JWT token and refresh token.
+     * <p>
+     * No password is checked, so this avoids the BCrypt cost of a login.
+     * The presented refresh token is rotated; reusing it later revokes every
+     * token issued from the same login. The revocation is committed even
+     * though the request fails.
+     * </p>
+     *
+     * @param refreshToken The refresh token issued at login or by an earlier refresh.
+     * @return A signed JWT token and the rotated refresh token.
+     * @throws BadCredentialsException If the refresh token is invalid, expired or reused.
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public AuthResponseDTO refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+
+        User user = userRepository.findById(rotation.userId())
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+
+        return new AuthResponseDTO(jwtUtil.generateToken(AuthenticatedUser.of(user)), rotation.refreshToken());
+    }
+
+    /**
+     * Logs a user out: the access token is revoked until it expires and, if
+     * given, the refresh token is revoked together with its rotation family.
+     *
+     * @param accessToken  The access token to revoke.
+     * @param refreshToken The refresh token to revoke, or {@code null}.
+     * @throws BadCredentialsException If the access token is invalid or expired.
+     */
+    public void logout(String accessToken, String refreshToken) {
+        tokenRevocationService.revoke(accessToken);
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
     }
 }
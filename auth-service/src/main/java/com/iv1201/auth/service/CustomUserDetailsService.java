@@ -1,17 +1,31 @@
 package com.iv1201.auth.service;
 
 import com.iv1201.auth.integration.UserRepository;
+import com.iv1201.auth.model.AuthenticatedUser;
+import com.iv1201.auth.model.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Custom implementation of Spring Security's UserDetailsService.
  * Loads user details from the database for authentication.
+ * <p>
+ * Also implements {@link UserDetailsPasswordService}: after a successful login
+ * whose stored hash uses an outdated algorithm or cost, Spring Security's
+ * authentication provider rehashes the presented password with the current
+ * encoder and hands the new hash to {@link #updatePassword}.
+ * </p>
+ * <p>
+ * Users are returned as immutable {@link AuthenticatedUser} snapshots, which
+ * the authentication provider caches and uses as the principal.
+ * </p>
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -26,12 +40,32 @@ public class CustomUserDetailsService implements UserDetailsService {
      * Loads a user by username from the database.
      *
      * @param username the username to look up.
-     * @return the {@link UserDetails} for the given username.
+     * @return a snapshot of the user.
      * @throws UsernameNotFoundException if no user is found with the given username.
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return userRepository.findByUsername(username)
+                .map(AuthenticatedUser::of)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
+
+    /**
+     * Stores a rehashed password for a user that just logged in. The user
+     * is read again, so the update starts from the current row and not from
+     * the (possibly cached) snapshot the login was checked against.
+     *
+     * @param user        the authenticated user.
+     * @param newPassword the password hashed with the current encoder.
+     * @return a snapshot of the updated user.
+     * @throws UsernameNotFoundException if the user was deleted in the meantime.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User stored = userRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + user.getUsername()));
+        stored.setPassword(newPassword);
+        return AuthenticatedUser.of(userRepository.save(stored));
+    }
 }
@@ -0,0 +1,37 @@
+package com.iv1201.auth.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Runs the {@link LegacyUserImporter} on startup when
+ * {@code auth.legacy-import.file} is set, for example with
+ * {@code --auth.legacy-import.file=/data/legacy-users.csv}.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.legacy-import.file")
+public class LegacyImportRunner implements ApplicationRunner {
+
+    private final LegacyUserImporter importer;
+    private final Path file;
+
+    /**
+     * @param importer the importer.
+     * @param file     the legacy user file to import.
+     */
+    public LegacyImportRunner(LegacyUserImporter importer, @Value("${auth.legacy-import.file}") Path file) {
+        this.importer = importer;
+        this.file = file;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        importer.importFile(file);
+    }
+}
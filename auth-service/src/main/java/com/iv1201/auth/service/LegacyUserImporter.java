@@ -0,0 +1,371 @@
+package com.iv1201.auth.service;
+
+import com.iv1201.auth.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+/**
+ * Bulk import of migrated users from the legacy system.
+ * <p>
+ * The legacy file is a CSV with the columns
+ * {@code person_id,username,role_id,temporary_password} (an optional header
+ * line is skipped). Legacy person ids are kept, since the recruitment service
+ * already holds the matching person records, so no outbox events are
+ * written.
+ * </p>
+ * <p>
+ * The file is streamed in chunks of {@code auth.legacy-import.chunk-size}
+ * rows. The temporary passwords of a chunk are hashed in parallel on a
+ * dedicated {@link ForkJoinPool} while the previous chunk is being written,
+ * and every chunk is inserted with a JDBC batch in its own transaction. Rows
+ * whose id or username already exists are skipped, so an interrupted import
+ * can simply be run again. Before the first row is written the id sequence
+ * is moved above the highest id in the file, so users registering during
+ * the import get ids the import does not use. Hashing uses
+ * {@code auth.legacy-import.bcrypt-strength}, which may be lower than the
+ * login strength: the hash is upgraded on the user's first login.
+ * </p>
+ * <p>
+ * Progress and throughput are logged per chunk and counted in
+ * {@code auth.legacy-import.users} (tagged
+ * {@code outcome=imported|skipped|invalid}).
+ * </p>
+ */
+@Service
+public class LegacyUserImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyUserImporter.class);
+
+    private static final String HEADER = "person_id";
+    private static final String INSERT_SQL =
+            "INSERT INTO person (person_id, username, username_normalized, password, role_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String EXISTING_SQL =
+            "SELECT person_id, username_normalized FROM person WHERE person_id IN (:ids) OR username_normalized IN (:usernames)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Dialect dialect;
+    private final UsernameFilter usernameFilter;
+    private final PasswordEncoder passwordEncoder;
+    private final ForkJoinPool hashingPool;
+    private final int chunkSize;
+    private final int batchSize;
+    private final Counter importedCounter;
+    private final Counter skippedCounter;
+    private final Counter invalidCounter;
+
+    /**
+     * @param jdbcTemplate         writes the user rows.
+     * @param transactionManager   runs every chunk in its own transaction.
+     * @param entityManagerFactory provides the SQL dialect for the id sequence.
+     * @param usernameFilter       told about the imported usernames.
+     * @param meterRegistry        the registry the import metrics are published to.
+     * @param parallelism          hashing threads, 0 for one per core.
+     * @param bcryptStrength       BCrypt cost of the temporary password hashes.
+     * @param chunkSize            rows read, hashed and committed together.
+     * @param batchSize            rows per JDBC batch.
+     */
+    public LegacyUserImporter(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              EntityManagerFactory entityManagerFactory,
+                              UsernameFilter usernameFilter,
+                              MeterRegistry meterRegistry,
+                              @Value("${auth.legacy-import.parallelism:0}") int parallelism,
+                              @Value("${auth.legacy-import.bcrypt-strength:10}") int bcryptStrength,
+                              @Value("${auth.legacy-import.chunk-size:2000}") int chunkSize,
+                              @Value("${auth.legacy-import.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        this.usernameFilter = usernameFilter;
+        this.passwordEncoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(bcryptStrength)));
+        this.hashingPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.importedCounter = meterRegistry.counter("auth.legacy-import.users", "outcome", "imported");
+        this.skippedCounter = meterRegistry.counter("auth.legacy-import.users", "outcome", "skipped");
+        this.invalidCounter = meterRegistry.counter("auth.legacy-import.users", "outcome", "invalid");
+    }
+
+    /**
+     * A user row of the legacy file; {@code password} is the temporary
+     * password until it is replaced by its hash.
+     */
+    private record LegacyUser(long personId, String username, long roleId, String password) {
+
+        LegacyUser withPassword(String hash) {
+            return new LegacyUser(personId, username, roleId, hash);
+        }
+    }
+
+    /**
+     * Totals of an import.
+     *
+     * @param imported users written.
+     * @param skipped  users whose id or username already existed.
+     * @param invalid  malformed lines.
+     * @param elapsed  duration of the import.
+     */
+    public record ImportReport(long imported, long skipped, long invalid, Duration elapsed) {
+
+        /**
+         * @return users imported per second.
+         */
+        public double usersPerSecond() {
+            return perSecond(imported, elapsed);
+        }
+    }
+
+    private static double perSecond(long count, Duration elapsed) {
+        return elapsed.isZero() ? count : count * 1_000_000_000.0 / elapsed.toNanos();
+    }
+
+    /**
+     * Imports all users of a legacy file.
+     * <p>
+     * The file is read twice: a first pass finds the highest person id, so
+     * the id sequence can be moved above it before anything is written. The
+     * sequence is moved again when the import ends, also when it fails.
+     * </p>
+     *
+     * @param file the legacy user file.
+     * @return the import totals.
+     * @throws IOException if the file cannot be read.
+     */
+    public ImportReport importFile(Path file) throws IOException {
+        long start = System.nanoTime();
+        long[] totals = new long[3];
+
+        long maxLegacyId = maxPersonId(file);
+        restartIdSequence(maxLegacyId);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            ReadChunk chunk = readChunk(reader, 0);
+            totals[2] += chunk.invalid();
+            ForkJoinTask<List<LegacyUser>> hashing = submitHashing(chunk.users());
+
+            while (hashing != null) {
+                // Read and start hashing the next chunk before writing this one
+                ReadChunk next = readChunk(reader, chunk.lastLine());
+                totals[2] += next.invalid();
+                ForkJoinTask<List<LegacyUser>> nextHashing = submitHashing(next.users());
+
+                List<LegacyUser> hashed = await(hashing);
+                int written = write(hashed);
+                totals[0] += written;
+                totals[1] += hashed.size() - written;
+                log.info("Legacy import: {} imported, {} skipped, {} invalid ({} users/s)",
+                        totals[0], totals[1], totals[2],
+                        Math.round(perSecond(totals[0], Duration.ofNanos(System.nanoTime() - start))));
+
+                chunk = next;
+                hashing = nextHashing;
+            }
+        } finally {
+            restartIdSequence(maxLegacyId);
+        }
+
+        ImportReport report = new ImportReport(totals[0], totals[1], totals[2],
+                Duration.ofNanos(System.nanoTime() - start));
+        log.info("Legacy import of {} finished in {}: {} imported, {} skipped, {} invalid ({} users/s)",
+                file, report.elapsed(), report.imported(), report.skipped(), report.invalid(),
+                Math.round(report.usersPerSecond()));
+        return report;
+    }
+
+    /**
+     * Returns the highest person id of the valid rows of a file, 0 if there
+     * are none.
+     */
+    private static long maxPersonId(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            return lines.map(LegacyUserImporter::parse)
+                    .filter(Objects::nonNull)
+                    .mapToLong(LegacyUser::personId)
+                    .max()
+                    .orElse(0);
+        }
+    }
+
+    /**
+     * Rows read from the file; {@code lastLine} is the number of the last line read.
+     */
+    private record ReadChunk(List<LegacyUser> users, long invalid, long lastLine) {
+    }
+
+    /**
+     * Reads up to {@code chunkSize} valid rows, counting malformed lines.
+     */
+    private ReadChunk readChunk(BufferedReader reader, long lineNumber) throws IOException {
+        List<LegacyUser> users = new ArrayList<>(chunkSize);
+        long invalid = 0;
+        String line;
+        while (users.size() < chunkSize && (line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && line.startsWith(HEADER))) {
+                continue;
+            }
+            LegacyUser user = parse(line);
+            if (user == null) {
+                log.warn("Legacy import: skipping malformed line {}", lineNumber);
+                invalidCounter.increment();
+                invalid++;
+            } else {
+                users.add(user);
+            }
+        }
+        return new ReadChunk(users, invalid, lineNumber);
+    }
+
+    /**
+     * Parses {@code person_id,username,role_id,temporary_password}; the
+     * password is everything after the third comma.
+     *
+     * @return the row, or {@code null} if it is malformed.
+     */
+    private static LegacyUser parse(String line) {
+        String[] fields = line.split(",", 4);
+        if (fields.length != 4 || fields[1].isBlank() || fields[3].isEmpty()) {
+            return null;
+        }
+        try {
+            return new LegacyUser(Long.parseLong(fields[0].trim()), fields[1].trim(),
+                    Long.parseLong(fields[2].trim()), fields[3]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Starts hashing the temporary passwords of a chunk. The parallel stream
+     * runs inside the hashing pool, so it is split across the pool's workers.
+     *
+     * @return the hashing task, or {@code null} if the chunk is empty.
+     */
+    private ForkJoinTask<List<LegacyUser>> submitHashing(List<LegacyUser> users) {
+        if (users.isEmpty()) {
+            return null;
+        }
+        return hashingPool.submit(() -> users.parallelStream()
+                .map(user -> user.withPassword(passwordEncoder.encode(user.password())))
+                .toList());
+    }
+
+    private static <T> T await(ForkJoinTask<T> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing legacy passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Hashing legacy passwords failed", e.getCause());
+        }
+    }
+
+    /**
+     * Inserts the users of a chunk whose id and username are still free, in
+     * one transaction.
+     *
+     * @return the number of users written.
+     */
+    private int write(List<LegacyUser> users) {
+        Integer written = transactionTemplate.execute(status -> {
+            List<LegacyUser> fresh = withoutExisting(users);
+            jdbcTemplate.batchUpdate(INSERT_SQL, fresh, batchSize, (statement, user) -> {
+                statement.setLong(1, user.personId());
+                statement.setString(2, user.username());
+                statement.setString(3, User.normalize(user.username()));
+                statement.setString(4, user.password());
+                statement.setLong(5, user.roleId());
+            });
+            fresh.forEach(user -> usernameFilter.add(user.username()));
+            return fresh.size();
+        });
+        importedCounter.increment(written);
+        skippedCounter.increment(users.size() - written);
+        return written;
+    }
+
+    /**
+     * Drops users whose id or username (ignoring case) is already taken, in
+     * the database or earlier in the same chunk.
+     */
+    private List<LegacyUser> withoutExisting(List<LegacyUser> users) {
+        Set<Long> ids = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", users.stream().map(LegacyUser::personId).toList())
+                .addValue("usernames", users.stream().map(user -> User.normalize(user.username())).toList());
+        namedJdbcTemplate.query(EXISTING_SQL, params, row -> {
+            ids.add(row.getLong("person_id"));
+            usernames.add(row.getString("username_normalized"));
+        });
+
+        List<LegacyUser> fresh = new ArrayList<>(users.size());
+        for (LegacyUser user : users) {
+            boolean freeId = ids.add(user.personId());
+            boolean freeUsername = usernames.add(User.normalize(user.username()));
+            if (freeId && freeUsername) {
+                fresh.add(user);
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * Moves the id sequence above every stored id and above
+     * {@code minimumId}. The sequence is read once first, so the restart
+     * value is also above every block another instance may already hold.
+     */
+    private void restartIdSequence(long minimumId) {
+        Long next = jdbcTemplate.queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString("person_seq"), Long.class);
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(person_id), 0) FROM person", Long.class);
+        long restartWith = Math.max(Math.max(next, maxId), minimumId) + User.ID_ALLOCATION_SIZE;
+        jdbcTemplate.execute("ALTER SEQUENCE person_seq RESTART WITH " + restartWith);
+    }
+
+    /**
+     * Stops the hashing pool.
+     */
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+}
@@ -0,0 +1,299 @@
+package com.iv1201.auth.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.iv1201.auth.integration.OutboxEventRepository;
+import com.iv1201.auth.integration.UserRepository;
+import com.iv1201.auth.model.OutboxEvent;
+import com.iv1201.auth.model.OutboxStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delivers outbox events written by {@link AuthService} to the recruitment
+ * service.
+ * <p>
+ * Every poll locks a batch of due events with {@code SKIP LOCKED} and sends
+ * them in one request to the recruitment service's batch endpoint. The
+ * outcome of every entry, matched to its event by person id, is stored in
+ * the same transaction. A failed delivery is retried with
+ * exponential backoff ({@code base-backoff}, doubled per attempt, capped at
+ * {@code max-backoff}) until {@code max-attempts} deliveries have failed;
+ * then the event is marked FAILED. The recruitment service treats a
+ * repeated create of the same person as a success (EXISTS), so a retry
+ * after a lost response is harmless.
+ * </p>
+ * <p>
+ * An entry reported as CONFLICT (its person id or email belongs to another
+ * person) can never be created. The event is marked FAILED with the reason
+ * the recruitment service gave, and the user is deleted and evicted from
+ * the {@link UserCache} once the batch has committed, which is the
+ * compensating step of the registration saga.
+ * </p>
+ * <p>
+ * A network error or a 5xx, 408 or 429 response cannot be attributed to
+ * one event, so all events of the request are retried. Any other 4xx means
+ * the request itself is rejected and will be on every retry. A batch
+ * answered that way is sent again one event at a time, and an event
+ * rejected on its own is marked FAILED; its user is kept. An event whose
+ * payload is not valid JSON is marked FAILED before sending and does not
+ * hold up the rest of its batch.
+ * </p>
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final int maxAttempts;
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter failed;
+
+    @Value("${recruitment.service.url}")
+    private String recruitmentServiceUrl;
+
+    /**
+     * @param outboxEventRepository the outbox.
+     * @param userRepository        used to delete users whose person was rejected.
+     * @param userCache             the cache deleted users are evicted from.
+     * @param restTemplate          the HTTP client for the recruitment service.
+     * @param objectMapper          builds the batch request from the event payloads.
+     * @param transactionManager    the transaction manager a batch runs in.
+     * @param meterRegistry         the registry the relay metrics are published to.
+     * @param batchSize             events locked and delivered per transaction.
+     * @param baseBackoff           delay before the first retry.
+     * @param maxBackoff            upper bound of the retry delay.
+     * @param maxAttempts           failed deliveries after which an event is given up.
+     */
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       UserRepository userRepository,
+                       UserCache userCache,
+                       RestTemplate restTemplate,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${auth.outbox.batch-size:20}") int batchSize,
+                       @Value("${auth.outbox.base-backoff:PT2S}") Duration baseBackoff,
+                       @Value("${auth.outbox.max-backoff:PT5M}") Duration maxBackoff,
+                       @Value("${auth.outbox.max-attempts:10}") int maxAttempts) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.maxAttempts = maxAttempts;
+        this.delivered = meterRegistry.counter("auth.outbox.events", "outcome", "delivered");
+        this.retried = meterRegistry.counter("auth.outbox.events", "outcome", "retried");
+        this.failed = meterRegistry.counter("auth.outbox.events", "outcome", "failed");
+        Gauge.builder("auth.outbox.pending", outboxEventRepository, repository -> repository.countByStatus(OutboxStatus.PENDING))
+                .description("Outbox events waiting for delivery")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Delivers due events until no full batch is left. Scheduled every
+     * {@code auth.outbox.poll-interval} when the relay is enabled.
+     */
+    @Scheduled(fixedDelayString = "${auth.outbox.poll-interval:PT1S}")
+    public void relayPendingEvents() {
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    /**
+     * Locks and delivers one batch of due events in a single transaction and
+     * a single request.
+     *
+     * @return the number of events attempted.
+     */
+    public int relayBatch() {
+        List<String> removedUsernames = new ArrayList<>();
+        Integer relayed = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<OutboxEvent> events = outboxEventRepository.lockDueEvents(
+                    OutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+            if (!events.isEmpty()) {
+                deliver(events, now, removedUsernames);
+            }
+            return events.size();
+        });
+        // After the commit, so a concurrent login cannot cache the user again before it is gone
+        removedUsernames.forEach(userCache::removeUserFromCache);
+        return relayed != null ? relayed : 0;
+    }
+
+    private void deliver(List<OutboxEvent> events, Instant now, List<String> removedUsernames) {
+        Map<OutboxEvent, JsonNode> entries = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            try {
+                entries.put(event, objectMapper.readTree(event.getPayload()));
+            } catch (JsonProcessingException e) {
+                fail(event, "Invalid payload: " + e.getOriginalMessage());
+            }
+        }
+        if (!entries.isEmpty()) {
+            deliver(entries, now, removedUsernames);
+        }
+    }
+
+    private void deliver(Map<OutboxEvent, JsonNode> entries, Instant now, List<String> removedUsernames) {
+        Map<Long, JsonNode> results;
+        try {
+            results = send(entries.values());
+        } catch (HttpClientErrorException e) {
+            if (isTransient(e)) {
+                entries.keySet().forEach(event -> retryLater(event, now, e.getMessage()));
+            } else if (entries.size() > 1) {
+                // Find out which of the events the recipient refuses
+                entries.forEach((event, entry) -> deliver(Map.of(event, entry), now, removedUsernames));
+            } else {
+                entries.keySet().forEach(event -> fail(event, "Rejected by recruitment service: " + e.getMessage()));
+            }
+            return;
+        } catch (RestClientException e) {
+            entries.keySet().forEach(event -> retryLater(event, now, e.getMessage()));
+            return;
+        }
+
+        for (OutboxEvent event : entries.keySet()) {
+            JsonNode result = results.get(event.getAggregateId());
+            String outcome = result != null ? result.path("outcome").asText() : null;
+            if ("CREATED".equals(outcome) || "EXISTS".equals(outcome)) {
+                event.setStatus(OutboxStatus.DELIVERED);
+                event.setLastError(null);
+                delivered.increment();
+            } else if ("CONFLICT".equals(outcome)) {
+                reject(event, result.path("reason").asText("no reason given"), removedUsernames);
+            } else {
+                retryLater(event, now, "No outcome reported");
+            }
+        }
+    }
+
+    /**
+     * Whether a 4xx response may succeed when the request is repeated.
+     */
+    private static boolean isTransient(HttpClientErrorException e) {
+        return e.getStatusCode().isSameCodeAs(HttpStatus.REQUEST_TIMEOUT)
+                || e.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * Posts the entries to the batch endpoint and returns the reported result
+     * per person id.
+     */
+    private Map<Long, JsonNode> send(Collection<JsonNode> entries) {
+        ArrayNode body = objectMapper.createArrayNode();
+        body.addAll(entries);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        JsonNode response = restTemplate.postForObject(
+            recruitmentServiceUrl + "/api/recruitment/persons/batch",
+            new HttpEntity<>(body, headers),
+            JsonNode.class
+        );
+
+        Map<Long, JsonNode> results = new HashMap<>();
+        if (response != null) {
+            response.forEach(result -> results.put(result.path("personId").asLong(), result));
+        }
+        return results;
+    }
+
+    private void reject(OutboxEvent event, String reason, List<String> removedUsernames) {
+        event.setStatus(OutboxStatus.FAILED);
+        event.setLastError(truncate("Rejected by recruitment service: " + reason));
+        userRepository.findById(event.getAggregateId()).ifPresent(user -> {
+            userRepository.delete(user);
+            removedUsernames.add(user.getUsername());
+        });
+        failed.increment();
+        log.warn("Outbox event {} rejected ({}), user {} removed", event.getId(), reason, event.getAggregateId());
+    }
+
+    /**
+     * Gives an event up without compensating; the user stays, and the event
+     * can be set back to PENDING by hand once the cause is fixed.
+     */
+    private void fail(OutboxEvent event, String error) {
+        event.setStatus(OutboxStatus.FAILED);
+        event.setLastError(truncate(error));
+        failed.increment();
+        log.error("Outbox event {} failed: {}", event.getId(), error);
+    }
+
+    private void retryLater(OutboxEvent event, Instant now, String error) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        if (attempts >= maxAttempts) {
+            fail(event, "Gave up after " + attempts + " attempts: " + error);
+            return;
+        }
+        event.setNextAttemptAt(now.plus(backoff(attempts)));
+        event.setLastError(truncate(error));
+        retried.increment();
+        log.warn("Outbox event {} delivery attempt {} failed: {}", event.getId(), attempts, error);
+    }
+
+    /**
+     * Returns the delay before the given retry: the base backoff doubled per
+     * earlier attempt, capped at the max backoff.
+     */
+    Duration backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        Duration delay = baseBackoff.multipliedBy(1L << doublings);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 255 ? message : message.substring(0, 255);
+    }
+}
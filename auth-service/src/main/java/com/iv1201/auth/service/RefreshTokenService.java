@@ -0,0 +1,157 @@
+package com.iv1201.auth.service;
+
+import com.iv1201.auth.integration.RefreshTokenRepository;
+import com.iv1201.auth.model.RefreshToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens.
+ * <p>
+ * A refresh token is 256 random bits, handed to the client once and stored
+ * only as its SHA-256 hash, so a lookup is a single indexed read and a
+ * database leak does not expose usable tokens. Every exchange rotates the
+ * token: the presented one is revoked and a new one in the same family is
+ * issued. Presenting a token that was already rotated means it was copied,
+ * so the whole family is revoked and the holder has to log in again. The
+ * presented token is claimed with a conditional update, so two concurrent
+ * exchanges of the same token cannot both succeed; the one that loses is
+ * treated as reuse. Expired tokens are purged every
+ * {@code auth.refresh-token.purge-interval}.
+ * </p>
+ */
+@Service
+@Transactional(noRollbackFor = BadCredentialsException.class)
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration timeToLive;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * @param refreshTokenRepository the token store.
+     * @param timeToLive             how long a refresh token is valid.
+     */
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${jwt.refresh.time-to-live:P14D}") Duration timeToLive) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Issues a refresh token for a user that just logged in, starting a new
+     * rotation family.
+     *
+     * @param userId the id of the authenticated user.
+     * @return the raw token to hand to the client.
+     */
+    public String issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new one.
+     *
+     * @param rawToken the token presented by the client.
+     * @return the user the token belongs to and the new raw token.
+     * @throws BadCredentialsException if the token is unknown, expired,
+     *                                 revoked, or was already rotated (in
+     *                                 which case its family is revoked).
+     */
+    public Rotation rotate(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+
+        if (token.isRevoked()) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId());
+            throw new BadCredentialsException("Refresh token reused");
+        }
+        if (token.getExpiresAt().isBefore(Instant.now())) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+        // Another rotation of the same token got there first
+        if (refreshTokenRepository.claim(token.getId()) == 0) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId());
+            throw new BadCredentialsException("Refresh token reused");
+        }
+
+        return new Rotation(token.getUserId(), issue(token.getUserId(), token.getFamilyId()));
+    }
+
+    /**
+     * Revokes a refresh token together with every token rotated from the
+     * same login. Unknown tokens are ignored, so logging out twice is harmless.
+     *
+     * @param rawToken the token presented by the client.
+     */
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    /**
+     * Deletes refresh tokens that have expired. Scheduled every
+     * {@code auth.refresh-token.purge-interval}.
+     */
+    @Scheduled(fixedDelayString = "${auth.refresh-token.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setUserId(userId);
+        token.setTokenHash(hash(rawToken));
+        token.setFamilyId(familyId);
+        token.setExpiresAt(Instant.now().plus(timeToLive));
+        refreshTokenRepository.save(token);
+        return rawToken;
+    }
+
+    /**
+     * Hashes a raw token for storage and lookup.
+     */
+    static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Result of a rotation.
+     *
+     * @param userId       the user the token belongs to.
+     * @param refreshToken the newly issued raw token.
+     */
+    public record Rotation(Long userId, String refreshToken) {
+    }
+}
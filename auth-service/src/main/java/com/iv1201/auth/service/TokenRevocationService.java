@@ -0,0 +1,111 @@
+package com.iv1201.auth.service;
+
+import com.iv1201.auth.dto.RevocationListDTO;
+import com.iv1201.auth.integration.RevokedTokenRepository;
+import com.iv1201.auth.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Records revoked access tokens and serves them to the gateway.
+ * <p>
+ * A revoked token is stored by its {@code jti} until it expires. The gateway
+ * does not query this service per request: it keeps the unexpired
+ * revocations in memory and pulls the ones added since its last poll from
+ * {@code GET /auth/revocations?since=...}. Expired revocations are purged
+ * every {@code auth.revocation.purge-interval}.
+ * </p>
+ * <p>
+ * Publishes {@code auth.tokens.revoked} (revoked access tokens).
+ * </p>
+ */
+@Service
+@Transactional(rollbackFor = Exception.class)
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtUtil jwtUtil;
+    private final Counter revoked;
+
+    /**
+     * @param revokedTokenRepository the store of revoked tokens.
+     * @param jwtUtil                verifies the tokens to revoke.
+     * @param meterRegistry          the registry the revocation metrics are published to.
+     */
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository, JwtUtil jwtUtil,
+                                  MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jwtUtil = jwtUtil;
+        this.revoked = Counter.builder("auth.tokens.revoked")
+                .description("Access tokens revoked before their expiry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Revokes an access token. Revoking a token twice has no further effect,
+     * and tokens issued before tokens carried a {@code jti} cannot be
+     * revoked; they simply run out.
+     *
+     * @param accessToken the compact JWT to revoke.
+     * @throws BadCredentialsException if the token is invalid or expired.
+     */
+    public void revoke(String accessToken) {
+        Claims claims;
+        try {
+            claims = jwtUtil.parseToken(accessToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException("Invalid token");
+        }
+
+        String jti = claims.getId();
+        if (jti == null) {
+            return;
+        }
+        // Two logouts with the same token may race; the insert skips the second
+        if (revokedTokenRepository.insertIfAbsent(jti, claims.getExpiration().toInstant(), Instant.now()) > 0) {
+            revoked.increment();
+        }
+    }
+
+    /**
+     * Lists the unexpired tokens revoked after a point in time. The returned
+     * {@code asOf} is taken before the query, so a revocation committed
+     * while the list is read appears in the next poll.
+     *
+     * @param since only revocations after this time are returned.
+     * @return the revocations and the time they were read.
+     */
+    @Transactional(readOnly = true)
+    public RevocationListDTO revokedSince(Instant since) {
+        Instant asOf = Instant.now();
+        List<RevocationListDTO.Revocation> revocations = revokedTokenRepository.findRevokedSince(since, asOf).stream()
+                .map(token -> new RevocationListDTO.Revocation(token.getJti(), token.getExpiresAt()))
+                .toList();
+        return new RevocationListDTO(asOf, revocations);
+    }
+
+    /**
+     * Deletes revocations of tokens that have expired. Scheduled every
+     * {@code auth.revocation.purge-interval}.
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int purged = revokedTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired token revocations", purged);
+        }
+    }
+}
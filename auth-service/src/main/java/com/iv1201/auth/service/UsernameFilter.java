@@ -0,0 +1,198 @@
+package com.iv1201.auth.service;
+
+import com.iv1201.auth.integration.UserRepository;
+import com.iv1201.auth.model.User;
+import com.iv1201.auth.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * In-memory membership filter of taken (normalized) usernames, consulted by
+ * {@link com.iv1201.auth.validation.UniqueUsernameValidator} before the
+ * database.
+ * <p>
+ * The filter is a {@link BloomFilter}: a negative answer means the username
+ * is definitely free and no query is needed; a positive answer is confirmed
+ * with {@code existsByUsername}, so the database stays authoritative. Until
+ * the first load completes every username is reported as possibly taken.
+ * </p>
+ * <p>
+ * The filter is loaded when the application is ready and rebuilt every
+ * {@code auth.username-filter.rebuild-interval}, sized for twice the current
+ * user count, which also clears usernames of deleted users. New usernames
+ * are added after their transaction commits. During a rebuild they are added
+ * to the old and the new filter; together with the rebuild registering the
+ * new filter before it reads the table, this means no username committed
+ * through this instance is ever missing from the filter. Usernames
+ * registered through other instances are only picked up by the next
+ * rebuild; until then the unique index on the normalized username rejects
+ * them, and {@link AuthService} answers that like any taken username.
+ * </p>
+ * <p>
+ * Publishes {@code auth.username.filter.checks} (tagged
+ * {@code result=negative|positive|false_positive}),
+ * {@code auth.username.filter.expected.fpp} (false-positive rate expected at
+ * the current fill) and {@code auth.username.filter.size} (bytes).
+ * </p>
+ */
+@Service
+public class UsernameFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(UsernameFilter.class);
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    private final UserRepository userRepository;
+    private final long minimumExpectedInsertions;
+    private final double falsePositiveRate;
+    private final Counter negative;
+    private final Counter positive;
+    private final Counter falsePositive;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter building;
+
+    /**
+     * @param userRepository            the source of taken usernames.
+     * @param minimumExpectedInsertions the smallest number of usernames the filter is sized for.
+     * @param falsePositiveRate         the target false-positive rate.
+     * @param meterRegistry             the registry the filter metrics are published to.
+     */
+    public UsernameFilter(UserRepository userRepository,
+                          @Value("${auth.username-filter.expected-insertions:100000}") long minimumExpectedInsertions,
+                          @Value("${auth.username-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                          MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.minimumExpectedInsertions = minimumExpectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.negative = meterRegistry.counter("auth.username.filter.checks", "result", "negative");
+        this.positive = meterRegistry.counter("auth.username.filter.checks", "result", "positive");
+        this.falsePositive = meterRegistry.counter("auth.username.filter.checks", "result", "false_positive");
+        Gauge.builder("auth.username.filter.expected.fpp", this,
+                        filter -> filter.current != null ? filter.current.expectedFalsePositiveRate() : 1.0)
+                .description("False-positive rate expected at the current fill of the username filter")
+                .register(meterRegistry);
+        Gauge.builder("auth.username.filter.size", this,
+                        filter -> filter.current != null ? filter.current.sizeInBytes() : 0)
+                .baseUnit("bytes")
+                .description("Memory used by the username filter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tests whether a username may be taken.
+     *
+     * @param username the username to test.
+     * @return {@code false} if the username is definitely free.
+     */
+    public boolean mightBeTaken(String username) {
+        BloomFilter filter = current;
+        if (filter != null && !filter.mightContain(User.normalize(username))) {
+            negative.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records the outcome of the database check that followed a positive
+     * {@link #mightBeTaken(String)}.
+     *
+     * @param taken whether the database found the username.
+     */
+    public void recordDatabaseCheck(boolean taken) {
+        (taken ? positive : falsePositive).increment();
+    }
+
+    /**
+     * Adds a new username once the current transaction commits, or at once
+     * when no transaction is active. A rolled back registration leaves the
+     * filter unchanged.
+     *
+     * @param username the username that was taken.
+     */
+    public void add(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(username);
+                }
+            });
+        } else {
+            put(username);
+        }
+    }
+
+    /**
+     * Reads {@code building} before {@code current}. A rebuild publishes
+     * {@code current} before it clears {@code building}, so if the rebuild
+     * finishes in between, {@code current} is already the new filter; read
+     * the other way round, the username could land only in the discarded one.
+     */
+    private void put(String username) {
+        String normalized = User.normalize(username);
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(normalized);
+        }
+        BloomFilter filter = current;
+        if (filter != null && filter != next) {
+            filter.put(normalized);
+        }
+    }
+
+    /**
+     * Loads the filter on startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the filter from the user table, sized for the current number
+     * of users. Scheduled every {@code auth.username-filter.rebuild-interval}.
+     */
+    @Scheduled(initialDelayString = "${auth.username-filter.rebuild-interval:PT6H}",
+               fixedDelayString = "${auth.username-filter.rebuild-interval:PT6H}")
+    public synchronized void rebuild() {
+        long expected = Math.max(minimumExpectedInsertions, 2 * userRepository.count());
+        BloomFilter next = new BloomFilter(expected, falsePositiveRate);
+        building = next;
+        try {
+            long loaded = 0;
+            long afterId = 0;
+            List<UserRepository.UsernameView> page;
+            do {
+                page = userRepository.findUsernamesAfter(afterId, PageRequest.of(0, LOAD_PAGE_SIZE));
+                for (UserRepository.UsernameView user : page) {
+                    if (user.getUsername() != null) {
+                        next.put(user.getUsername());
+                    }
+                    afterId = user.getId();
+                }
+                loaded += page.size();
+            } while (page.size() == LOAD_PAGE_SIZE);
+
+            current = next;
+            log.info("Username filter loaded with {} usernames ({} bytes, {} hash functions)",
+                    loaded, next.sizeInBytes(), next.hashFunctions());
+        } finally {
+            building = null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.iv1201.auth.util;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks a BCrypt work factor for the current host.
+ * <p>
+ * Each step in BCrypt strength doubles the hashing time, so the time of a
+ * single hash at the minimum strength is enough to extrapolate the highest
+ * strength that stays within the target latency. Run once at startup, this
+ * keeps login latency roughly constant as the service moves to faster or
+ * slower hardware.
+ * </p>
+ */
+public final class BCryptStrengthCalibrator {
+
+    /** Number of timed hashes at the minimum strength; the fastest one is used */
+    private static final int SAMPLES = 3;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * Measures BCrypt on this host and returns the highest strength whose
+     * estimated hash time does not exceed the target.
+     *
+     * @param targetMillis the desired time for one hash, in milliseconds.
+     * @param minStrength  the lowest acceptable strength, also the measured one.
+     * @param maxStrength  the highest strength that may be chosen.
+     * @return a strength between minStrength and maxStrength.
+     */
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        encoder.encode("calibration"); // warm-up, excluded from the measurement
+
+        long fastestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            fastestNanos = Math.min(fastestNanos, System.nanoTime() - start);
+        }
+        return strengthFor(fastestNanos, targetMillis, minStrength, maxStrength);
+    }
+
+    /**
+     * Extrapolates the strength from one measured hash time.
+     *
+     * @param measuredNanos time of one hash at minStrength.
+     * @param targetMillis  the desired time for one hash, in milliseconds.
+     * @param minStrength   the strength the measurement was taken at.
+     * @param maxStrength   the highest strength that may be chosen.
+     * @return a strength between minStrength and maxStrength.
+     */
+    public static int strengthFor(long measuredNanos, long targetMillis, int minStrength, int maxStrength) {
+        long targetNanos = targetMillis * 1_000_000L;
+        int strength = minStrength;
+        long estimate = Math.max(measuredNanos, 1);
+        while (strength < maxStrength && estimate * 2 <= targetNanos) {
+            estimate *= 2;
+            strength++;
+        }
+        return strength;
+    }
+}
@@ -0,0 +1,69 @@
+package com.iv1201.auth.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.iv1201.auth.model.AuthenticatedUser;
+import com.iv1201.auth.model.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+
+/**
+ * Short-lived, size-bounded cache of loaded users keyed by normalized
+ * username, so logins with differently cased usernames share one entry.
+ * <p>
+ * Used by the authentication provider so repeated logins of the same user
+ * within the time-to-live do not query the database. The provider only
+ * trusts a cached entry when the presented password matches its hash;
+ * otherwise it reloads the user, so a changed password takes effect at once.
+ * </p>
+ * <p>
+ * Entries are immutable {@link AuthenticatedUser} snapshots; a {@link User}
+ * entity put into the cache is copied. Code that deletes a user or changes
+ * its username, password or role evicts it with
+ * {@link #removeUserFromCache(String)}.
+ * </p>
+ */
+public class CaffeineUserCache implements UserCache {
+
+    private final Cache<String, AuthenticatedUser> cache;
+
+    /**
+     * @param timeToLive  how long a loaded user is reused.
+     * @param maximumSize the maximum number of cached users.
+     */
+    public CaffeineUserCache(Duration timeToLive, long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        return cache.getIfPresent(User.normalize(username));
+    }
+
+    /**
+     * @param user an {@link AuthenticatedUser} or a {@link User} entity.
+     * @throws IllegalArgumentException for any other kind of user.
+     */
+    @Override
+    public void putUserInCache(UserDetails user) {
+        AuthenticatedUser snapshot;
+        if (user instanceof AuthenticatedUser authenticated) {
+            snapshot = authenticated;
+        } else if (user instanceof User entity) {
+            snapshot = AuthenticatedUser.of(entity);
+        } else {
+            throw new IllegalArgumentException("Cannot cache " + user.getClass().getName());
+        }
+        cache.put(User.normalize(snapshot.getUsername()), snapshot);
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        cache.invalidate(User.normalize(username));
+    }
+}
@@ -0,0 +1,86 @@
+package com.iv1201.auth.util;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keyring of HMAC keys used to sign and verify JWTs.
+ * <p>
+ * Keys are decoded once at startup and identified by a key id ({@code kid}).
+ * New tokens are signed with the active key ({@code jwt.kid} /
+ * {@code jwt.secret}) and carry its id in the {@code kid} header. Retiring
+ * keys ({@code jwt.retiring-keys}, a comma separated list of
+ * {@code kid:base64-secret}) are no longer used for signing but stay known,
+ * so the gateway keeps accepting tokens issued before a rotation until they
+ * expire.
+ * </p>
+ */
+@Component
+public class JwtKeyRing {
+
+    private final String activeKid;
+    private final SecretKey activeKey;
+    private final Map<String, SecretKey> keys;
+
+    /**
+     * @param activeKid     the id of the signing key.
+     * @param activeSecret  the base64 encoded signing secret.
+     * @param retiringKeys  comma separated {@code kid:base64-secret} pairs of
+     *                      keys that are being rotated out, may be empty.
+     */
+    public JwtKeyRing(@Value("${jwt.kid:primary}") String activeKid,
+                      @Value("${jwt.secret}") String activeSecret,
+                      @Value("${jwt.retiring-keys:}") String retiringKeys) {
+        Map<String, SecretKey> ring = new LinkedHashMap<>();
+        for (String entry : retiringKeys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid jwt.retiring-keys entry, expected kid:secret");
+            }
+            ring.put(entry.substring(0, separator).trim(), decode(entry.substring(separator + 1).trim()));
+        }
+        this.activeKid = activeKid;
+        this.activeKey = decode(activeSecret);
+        ring.put(activeKid, activeKey);
+        this.keys = Collections.unmodifiableMap(ring);
+    }
+
+    private static SecretKey decode(String secret) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+
+    /**
+     * @return the id of the key new tokens are signed with.
+     */
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    /**
+     * @return the key new tokens are signed with.
+     */
+    public SecretKey getActiveKey() {
+        return activeKey;
+    }
+
+    /**
+     * Looks up a key by id, including retiring keys.
+     *
+     * @param kid the key id from a token header.
+     * @return the key, or empty if the id is unknown.
+     */
+    public Optional<SecretKey> getKey(String kid) {
+        return Optional.ofNullable(keys.get(kid));
+    }
+}
@@ -1,54 +1,89 @@
 package com.iv1201.auth.util;
 
+import com.iv1201.auth.model.AuthenticatedUser;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value; // <--- Import this!
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 /**
- * Utility for generating signed JWT tokens.
+ * Utility for generating and verifying signed JWT tokens.
+ * Tokens are signed with the active key of the {@link JwtKeyRing} and name it
+ * in the {@code kid} header. Every token carries a random {@code jti} claim,
+ * the id under which it can be revoked.
  */
 @Component
 public class JwtUtil {
 
-    // Spring injects the value from application.properties
-    @Value("${jwt.secret}")
-    private String secret;
+    private final JwtKeyRing keyRing;
+    private final long expirationMillis;
+    private final JwtParser parser;
+
+    /**
+     * @param keyRing          the keyring providing the signing key.
+     * @param expirationMillis lifetime of an access token in milliseconds.
+     */
+    public JwtUtil(JwtKeyRing keyRing,
+                   @Value("${jwt.expiration:36000000}") long expirationMillis) {
+        this.keyRing = keyRing;
+        this.expirationMillis = expirationMillis;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return keyRing.getKey(header.getKeyId())
+                                .orElseThrow(() -> new JwtException("Unknown key id"));
+                    }
+                })
+                .build();
+    }
 
     /**
      * Generates a JWT token containing the user's role and ID as claims.
      *
-     * @param user The authenticated user entity.
+     * @param user The authenticated user.
      * @return A signed JWT string.
      */
-    public String generateToken(com.iv1201.auth.model.User user) {
+    public String generateToken(AuthenticatedUser user) {
         Map<String, Object> claims = new HashMap<>();
         
-        claims.put("role", user.getRoleId());
-        claims.put("id", user.getId()); 
+        claims.put("role", user.roleId());
+        claims.put("id", user.id()); 
 
         return createToken(claims, user.getUsername());
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
+                .setHeaderParam("kid", keyRing.getActiveKid())
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)) // 10 Hours
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMillis))
+                .signWith(keyRing.getActiveKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Verifies a token issued by this service and returns its claims.
+     *
+     * @param token the compact JWT.
+     * @return the claims of the token.
+     * @throws JwtException if the signature is invalid, the key unknown or the token expired.
+     */
+    public Claims parseToken(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
-}
\ No newline at end of file
+}
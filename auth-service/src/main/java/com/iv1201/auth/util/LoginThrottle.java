@@ -0,0 +1,150 @@
+package com.iv1201.auth.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.iv1201.auth.exception.LoginThrottledException;
+import com.iv1201.auth.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory rate limiter for login attempts, applied before the
+ * {@link org.springframework.security.authentication.AuthenticationManager}
+ * so a throttled attempt never costs a BCrypt verification.
+ * <p>
+ * Every attempt takes a token from the bucket of its username (ignoring
+ * case, like logins) and from the bucket of its source address. A
+ * successful login resets the username
+ * bucket, so that bucket effectively counts failed attempts and locks the
+ * username once they exceed its capacity; the address bucket also limits
+ * clients spraying many usernames. An empty bucket rejects the attempt with
+ * {@link LoginThrottledException} (429 with Retry-After).
+ * </p>
+ * <p>
+ * A bucket is a single {@link AtomicLong} holding its theoretical arrival
+ * time (GCRA, equivalent to a token bucket) and is updated with a CAS loop,
+ * so concurrent attempts never block. Buckets live in a Caffeine map, which
+ * is striped internally, bounded in size, and drops a bucket once it has been
+ * idle for a full refill period (by then it would be full again anyway).
+ * </p>
+ * <p>
+ * Publishes {@code auth.login.throttled} (rejected attempts, tagged by the
+ * bucket that rejected them) and {@code auth.login.throttle.keys} (tracked
+ * buckets).
+ * </p>
+ */
+public class LoginThrottle {
+
+    private static final String USERNAME = "username";
+    private static final String ADDRESS = "ip";
+
+    private final Limit usernameLimit;
+    private final Limit addressLimit;
+    private final Ticker ticker;
+    private final Cache<String, AtomicLong> buckets;
+    private final Counter usernameThrottled;
+    private final Counter addressThrottled;
+
+    /**
+     * Capacity and refill rate of a bucket.
+     *
+     * @param capacity     attempts allowed in a burst.
+     * @param refillPeriod time in which an empty bucket refills completely.
+     */
+    public record Limit(int capacity, Duration refillPeriod) {
+
+        public Limit {
+            if (capacity < 1 || refillPeriod.isNegative() || refillPeriod.isZero()) {
+                throw new IllegalArgumentException("Invalid login throttle limit");
+            }
+        }
+
+        long intervalNanos() {
+            return refillPeriod.toNanos() / capacity;
+        }
+    }
+
+    /**
+     * @param usernameLimit  the limit per username.
+     * @param addressLimit   the limit per source address.
+     * @param maximumKeys    the maximum number of tracked buckets.
+     * @param meterRegistry  the registry the throttle metrics are published to.
+     * @param ticker         the time source, {@link Ticker#systemTicker()} outside tests.
+     */
+    public LoginThrottle(Limit usernameLimit, Limit addressLimit, long maximumKeys,
+                         MeterRegistry meterRegistry, Ticker ticker) {
+        this.usernameLimit = usernameLimit;
+        this.addressLimit = addressLimit;
+        this.ticker = ticker;
+        Duration idle = usernameLimit.refillPeriod().compareTo(addressLimit.refillPeriod()) > 0
+                ? usernameLimit.refillPeriod() : addressLimit.refillPeriod();
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idle)
+                .maximumSize(maximumKeys)
+                .ticker(ticker)
+                .build();
+        this.usernameThrottled = Counter.builder("auth.login.throttled")
+                .tag("key", USERNAME)
+                .description("Login attempts rejected by the username limit")
+                .register(meterRegistry);
+        this.addressThrottled = Counter.builder("auth.login.throttled")
+                .tag("key", ADDRESS)
+                .description("Login attempts rejected by the source address limit")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.throttle.keys", buckets, Cache::estimatedSize)
+                .description("Usernames and addresses currently tracked by the login throttle")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one attempt from the buckets of a username and an address.
+     *
+     * @param username the username of the attempt, may be {@code null}.
+     * @param address  the source address of the attempt, may be {@code null}.
+     * @throws LoginThrottledException if either bucket is empty.
+     */
+    public void acquire(String username, String address) {
+        if (address != null) {
+            acquire(ADDRESS + ":" + address, addressLimit, addressThrottled);
+        }
+        if (username != null) {
+            acquire(USERNAME + ":" + User.normalize(username), usernameLimit, usernameThrottled);
+        }
+    }
+
+    /**
+     * Resets the bucket of a username after a successful login.
+     *
+     * @param username the username that logged in.
+     */
+    public void recordSuccess(String username) {
+        if (username != null) {
+            buckets.invalidate(USERNAME + ":" + User.normalize(username));
+        }
+    }
+
+    private void acquire(String key, Limit limit, Counter throttled) {
+        AtomicLong arrival = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long interval = limit.intervalNanos();
+        long tolerance = interval * limit.capacity();
+        while (true) {
+            long now = ticker.read();
+            long current = arrival.get();
+            long next = Math.max(current, now) + interval;
+            long excess = next - now - tolerance;
+            if (excess > 0) {
+                throttled.increment();
+                throw new LoginThrottledException(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(excess + 999_999_999L)));
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+}
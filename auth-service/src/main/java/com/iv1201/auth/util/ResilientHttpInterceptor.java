@@ -0,0 +1,86 @@
+package com.iv1201.auth.util;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Guards outgoing HTTP calls with a circuit breaker and a bulkhead per
+ * target host.
+ * <p>
+ * The bulkhead caps the concurrent calls to a host, so a slow host cannot tie
+ * up more threads than that. The circuit breaker counts I/O errors (including
+ * timeouts) and 5xx responses; once the failure rate is above its threshold,
+ * calls fail immediately until the host has had time to recover.
+ * </p>
+ * <p>
+ * A rejected call is reported as an {@link IOException}, which
+ * {@link org.springframework.web.client.RestTemplate} turns into a
+ * {@link org.springframework.web.client.ResourceAccessException}, so callers
+ * handle it like any other transient connection failure.
+ * </p>
+ */
+public class ResilientHttpInterceptor implements ClientHttpRequestInterceptor {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    /**
+     * @param circuitBreakerRegistry provides the circuit breaker of each host.
+     * @param bulkheadRegistry       provides the bulkhead of each host.
+     */
+    public ResilientHttpInterceptor(CircuitBreakerRegistry circuitBreakerRegistry,
+                                    BulkheadRegistry bulkheadRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        String host = request.getURI().getHost();
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(host);
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(host);
+
+        try {
+            bulkhead.acquirePermission();
+        } catch (BulkheadFullException e) {
+            throw new IOException("Too many concurrent calls to " + host, e);
+        }
+        try {
+            try {
+                circuitBreaker.acquirePermission();
+            } catch (CallNotPermittedException e) {
+                throw new IOException("Circuit breaker open for " + host, e);
+            }
+
+            long start = circuitBreaker.getCurrentTimestamp();
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                long duration = circuitBreaker.getCurrentTimestamp() - start;
+                if (response.getStatusCode().is5xxServerError()) {
+                    circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(),
+                            new IOException("Server error " + response.getStatusCode().value() + " from " + host));
+                } else {
+                    circuitBreaker.onSuccess(duration, circuitBreaker.getTimestampUnit());
+                }
+                return response;
+            } catch (IOException | RuntimeException e) {
+                circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start,
+                        circuitBreaker.getTimestampUnit(), e);
+                throw e;
+            }
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.iv1201.auth.validation;
 
 import com.iv1201.auth.integration.UserRepository;
+import com.iv1201.auth.service.UsernameFilter;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import org.springframework.stereotype.Component;
@@ -8,17 +9,24 @@ import org.springframework.stereotype.Component;
 /**
  * Validator implementation for @UniqueUsername annotation.
  * Checks if a username already exists in the database.
+ * <p>
+ * The {@link UsernameFilter} is asked first: a username it has never seen is
+ * accepted without a query, and only possibly taken usernames are looked up.
+ * </p>
  */
 @Component
 public class UniqueUsernameValidator implements ConstraintValidator<UniqueUsername, String> {
 
     private final UserRepository userRepository;
+    private final UsernameFilter usernameFilter;
 
     /**
      * @param userRepository the repository for checking username existence.
+     * @param usernameFilter the filter that rules out most free usernames without a query.
      */
-    public UniqueUsernameValidator(UserRepository userRepository) {
+    public UniqueUsernameValidator(UserRepository userRepository, UsernameFilter usernameFilter) {
         this.userRepository = userRepository;
+        this.usernameFilter = usernameFilter;
     }
 
     /** {@inheritDoc} */
@@ -32,6 +40,11 @@ public class UniqueUsernameValidator implements ConstraintValidator<UniqueUserna
         if (value == null) {
             return true; // Let @NotNull handle null validation
         }
-        return !userRepository.existsByUsername(value);
+        if (!usernameFilter.mightBeTaken(value)) {
+            return true;
+        }
+        boolean taken = userRepository.existsByUsername(value);
+        usernameFilter.recordDatabaseCheck(taken);
+        return !taken;
     }
 }
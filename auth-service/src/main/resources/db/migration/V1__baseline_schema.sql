@@ -0,0 +1,12 @@
+-- Baseline schema of the auth database.
+--
+-- Existing databases that were seeded from auth-db.sql are baselined at this
+-- version (spring.flyway.baseline-on-migrate), so this script only runs
+-- against empty databases.
+
+CREATE TABLE person (
+    person_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username  VARCHAR(255),
+    password  VARCHAR(255),
+    role_id   BIGINT
+);
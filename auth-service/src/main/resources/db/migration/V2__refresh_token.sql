@@ -0,0 +1,17 @@
+-- Refresh tokens. Only the SHA-256 hash of a token is stored; lookups go
+-- through the unique index on token_hash. Tokens created by rotating one
+-- another share a family_id, so reuse of a rotated token can revoke the
+-- whole family.
+
+CREATE TABLE refresh_token (
+    refresh_token_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id          BIGINT NOT NULL,
+    token_hash       VARCHAR(64) NOT NULL,
+    family_id        VARCHAR(36) NOT NULL,
+    expires_at       TIMESTAMP WITH TIME ZONE NOT NULL,
+    revoked          BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+CREATE UNIQUE INDEX ux_refresh_token_hash ON refresh_token (token_hash);
+
+CREATE INDEX idx_refresh_token_family ON refresh_token (family_id);
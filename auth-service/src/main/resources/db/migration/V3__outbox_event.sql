@@ -0,0 +1,21 @@
+-- Transactional outbox for the registration saga. A registration writes the
+-- user and a PERSON_CREATED event in the same transaction; OutboxRelay
+-- delivers pending events to the recruitment service in the background.
+
+CREATE TABLE outbox_event (
+    outbox_event_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_id    BIGINT NOT NULL,
+    event_type      VARCHAR(64) NOT NULL,
+    payload         TEXT NOT NULL,
+    idempotency_key VARCHAR(36) NOT NULL,
+    status          VARCHAR(16) NOT NULL,
+    attempts        INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at      TIMESTAMP WITH TIME ZONE NOT NULL,
+    last_error      VARCHAR(255)
+);
+
+CREATE UNIQUE INDEX ux_outbox_event_idempotency_key ON outbox_event (idempotency_key);
+
+-- OutboxEventRepository.lockDueEvents: pending events ordered by due time
+CREATE INDEX idx_outbox_event_due ON outbox_event (status, next_attempt_at, outbox_event_id);
@@ -0,0 +1,12 @@
+-- Person ids come from a sequence instead of the identity column, so that
+-- Hibernate can allocate ids in blocks of 50 and batch inserts.
+--
+-- Hibernate treats each value drawn from the sequence as the top of a block
+-- of 50 ids, so the sequence starts 50 above the highest existing id.
+
+CREATE SEQUENCE person_seq INCREMENT BY 50;
+
+SELECT setval('person_seq', (SELECT COALESCE(MAX(person_id), 0) + 50 FROM person), false);
+
+ALTER TABLE person ALTER COLUMN person_id DROP IDENTITY IF EXISTS;
+ALTER TABLE person ALTER COLUMN person_id SET DEFAULT nextval('person_seq');
@@ -0,0 +1,13 @@
+-- Revoked access tokens, by their jti claim. The gateway pulls the rows
+-- revoked since its last poll (idx_revoked_token_revoked_at); rows are
+-- purged once the token has expired (idx_revoked_token_expires_at).
+
+CREATE TABLE revoked_token (
+    jti        VARCHAR(36) PRIMARY KEY,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    revoked_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_revoked_token_revoked_at ON revoked_token (revoked_at);
+
+CREATE INDEX idx_revoked_token_expires_at ON revoked_token (expires_at);
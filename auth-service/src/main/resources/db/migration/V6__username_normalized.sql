@@ -0,0 +1,24 @@
+-- Case-insensitive usernames: logins and the uniqueness check look users up
+-- by the lower-cased username through a unique index instead of scanning
+-- person by the exact username.
+--
+-- Existing rows are backfilled. Should the old data hold usernames that
+-- differ only in case, only the oldest of them (lowest person_id) gets the
+-- normalized value; the others keep NULL (allowed by the unique index) and
+-- must be renamed before they can log in again.
+
+ALTER TABLE person ADD COLUMN username_normalized VARCHAR(255);
+
+UPDATE person p
+SET username_normalized = ranked.normalized
+FROM (
+    SELECT person_id,
+           LOWER(username) AS normalized,
+           ROW_NUMBER() OVER (PARTITION BY LOWER(username) ORDER BY person_id) AS occurrence
+    FROM person
+    WHERE username IS NOT NULL
+) ranked
+WHERE p.person_id = ranked.person_id
+  AND ranked.occurrence = 1;
+
+CREATE UNIQUE INDEX ux_person_username_normalized ON person (username_normalized);
@@ -0,0 +1,4 @@
+-- Expired refresh tokens are purged periodically; the purge finds them
+-- through this index instead of scanning the table.
+
+CREATE INDEX idx_refresh_token_expires_at ON refresh_token (expires_at);
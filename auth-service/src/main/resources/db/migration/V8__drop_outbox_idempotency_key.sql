@@ -0,0 +1,5 @@
+-- The relay matches batch outcomes by person id, which is already unique per
+-- PERSON_CREATED event, so the separate idempotency key is no longer sent.
+
+DROP INDEX ux_outbox_event_idempotency_key;
+ALTER TABLE outbox_event DROP COLUMN idempotency_key;
@@ -2,26 +2,44 @@ package com.iv1201.auth;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.iv1201.auth.controller.AuthController;
+import com.iv1201.auth.dto.AuthResponseDTO;
 import com.iv1201.auth.dto.LoginRequestDTO;
 import com.iv1201.auth.dto.RecruiterRegisterRequestDTO;
+import com.iv1201.auth.dto.RefreshRequestDTO;
 import com.iv1201.auth.dto.RegisterRequestDTO;
+import com.iv1201.auth.exception.HashingCapacityExceededException;
+import com.iv1201.auth.exception.LoginThrottledException;
 import com.iv1201.auth.integration.UserRepository;
+import com.iv1201.auth.dto.RevocationListDTO;
 import com.iv1201.auth.service.AuthService;
+import com.iv1201.auth.service.TokenRevocationService;
+import com.iv1201.auth.service.UsernameFilter;
+import com.iv1201.auth.util.LoginThrottle;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
+import java.util.List;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(AuthController.class)
@@ -38,6 +56,15 @@ public class AuthControllerTest {
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private LoginThrottle loginThrottle;
+
+    @MockBean
+    private UsernameFilter usernameFilter;
+
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -139,6 +166,23 @@ public class AuthControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    public void shouldReturnServiceUnavailable_WhenHashingPoolIsFull() throws Exception {
+        LoginRequestDTO request = new LoginRequestDTO();
+        request.setUsername("testUser");
+        request.setPassword("password123");
+
+        when(authService.login(any(LoginRequestDTO.class)))
+                .thenThrow(new HashingCapacityExceededException(2));
+
+        mockMvc.perform(post("/auth/login")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
     @Test
     public void shouldReturnOk_WhenLoginSucceeds() throws Exception {
         LoginRequestDTO request = new LoginRequestDTO();
@@ -146,13 +190,78 @@ public class AuthControllerTest {
         request.setPassword("password123");
 
         when(authService.login(any(LoginRequestDTO.class)))
-                .thenReturn("jwtToken123");
+                .thenReturn(new AuthResponseDTO("jwtToken123", "refresh123"));
+
+        mockMvc.perform(post("/auth/login")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("jwtToken123"))
+                .andExpect(jsonPath("$.refreshToken").value("refresh123"));
+    }
+
+    @Test
+    public void shouldReturnTooManyRequests_WhenLoginThrottled() throws Exception {
+        LoginRequestDTO request = new LoginRequestDTO();
+        request.setUsername("testUser");
+        request.setPassword("password123");
+
+        doThrow(new LoginThrottledException(30))
+                .when(loginThrottle).acquire("testUser", "203.0.113.7");
 
         mockMvc.perform(post("/auth/login")
                 .with(csrf())
+                .header("X-Forwarded-For", "198.51.100.1, 203.0.113.7")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
-                .andExpect(status().isOk());
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "30"));
+
+        verify(authService, never()).login(any(LoginRequestDTO.class));
+        verify(loginThrottle, never()).recordSuccess(anyString());
+    }
+
+    @Test
+    public void shouldReturnNewTokens_WhenRefreshSucceeds() throws Exception {
+        RefreshRequestDTO request = new RefreshRequestDTO();
+        request.setRefreshToken("refresh123");
+
+        when(authService.refresh("refresh123"))
+                .thenReturn(new AuthResponseDTO("jwtToken456", "refresh456"));
+
+        mockMvc.perform(post("/auth/refresh")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("jwtToken456"))
+                .andExpect(jsonPath("$.refreshToken").value("refresh456"));
+    }
+
+    @Test
+    public void shouldReturnUnauthorized_WhenRefreshTokenInvalid() throws Exception {
+        RefreshRequestDTO request = new RefreshRequestDTO();
+        request.setRefreshToken("reused");
+
+        when(authService.refresh("reused"))
+                .thenThrow(new BadCredentialsException("Refresh token reused"));
+
+        mockMvc.perform(post("/auth/refresh")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void shouldReturnBadRequest_WhenRefreshTokenMissing() throws Exception {
+        mockMvc.perform(post("/auth/refresh")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Refresh token is required"));
     }
     @Test
     @WithMockUser
@@ -425,4 +534,43 @@ public class AuthControllerTest {
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldLogoutWithAccessAndRefreshToken() throws Exception {
+        RefreshRequestDTO request = new RefreshRequestDTO();
+        request.setRefreshToken("refresh123");
+
+        mockMvc.perform(post("/auth/logout")
+                .with(csrf())
+                .header("Authorization", "Bearer jwtToken123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isNoContent());
+
+        verify(authService).logout("jwtToken123", "refresh123");
+    }
+
+    @Test
+    public void shouldReturnUnauthorized_WhenLogoutWithoutAccessToken() throws Exception {
+        mockMvc.perform(post("/auth/logout")
+                .with(csrf()))
+                .andExpect(status().isUnauthorized());
+
+        verify(authService, never()).logout(any(), any());
+    }
+
+    @Test
+    public void shouldListRevocationsSinceInstant() throws Exception {
+        Instant since = Instant.parse("2024-01-01T00:00:00Z");
+        Instant expiresAt = Instant.parse("2024-01-01T10:00:00Z");
+        when(tokenRevocationService.revokedSince(since)).thenReturn(new RevocationListDTO(
+                Instant.parse("2024-01-01T00:00:05Z"),
+                List.of(new RevocationListDTO.Revocation("jti-1", expiresAt))));
+
+        mockMvc.perform(get("/auth/revocations").param("since", "2024-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.asOf").value("2024-01-01T00:00:05Z"))
+                .andExpect(jsonPath("$.revocations[0].jti").value("jti-1"))
+                .andExpect(jsonPath("$.revocations[0].expiresAt").value("2024-01-01T10:00:00Z"));
+    }
+}
@@ -3,23 +3,37 @@ package com.iv1201.auth;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.iv1201.auth.dto.RegisterRequestDTO;
 import com.iv1201.auth.dto.LoginRequestDTO;
+import com.iv1201.auth.dto.RefreshRequestDTO;
+import com.iv1201.auth.integration.OutboxEventRepository;
+import com.iv1201.auth.integration.RefreshTokenRepository;
+import com.iv1201.auth.integration.RevokedTokenRepository;
+import com.iv1201.auth.integration.UserRepository;
+import com.iv1201.auth.model.AuthenticatedUser;
+import com.iv1201.auth.model.OutboxStatus;
+import com.iv1201.auth.model.User;
+import com.iv1201.auth.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -30,7 +44,6 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @TestPropertySource(properties = {
     "recruiter.secret.code=TEST_SECRET_CODE"
 })
-@Transactional
 public class AuthIntegrationTest {
 
     @Autowired
@@ -42,6 +55,40 @@ public class AuthIntegrationTest {
     @MockBean
     private RestTemplate restTemplate;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    /**
+     * Registration and login run outside the caller's transaction, so the
+     * tests commit and clean up instead of rolling back.
+     */
+    @AfterEach
+    void tearDown() {
+        userRepository.findAll().forEach(user -> userCache.removeUserFromCache(user.getUsername()));
+        refreshTokenRepository.deleteAll();
+        revokedTokenRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
     private RegisterRequestDTO createRegisterRequest(String username, String password) {
         RegisterRequestDTO request = new RegisterRequestDTO();
         request.setUsername(username);
@@ -53,9 +100,6 @@ public class AuthIntegrationTest {
 
     @Test
     public void shouldRegisterUserSuccessfully() throws Exception {
-        when(restTemplate.postForEntity(anyString(), any(), eq(Void.class)))
-            .thenReturn(ResponseEntity.status(201).build());
-
         RegisterRequestDTO newUser = createRegisterRequest("TestUser", "TestPass123");
 
         mockMvc.perform(post("/auth/register")
@@ -63,13 +107,17 @@ public class AuthIntegrationTest {
                 .content(objectMapper.writeValueAsString(newUser)))
                 .andExpect(status().isCreated())
                 .andExpect(content().string("User registered successfully"));
+
+        // The person is created later by the outbox relay, not during the request
+        Long userId = userRepository.findByUsername("TestUser").orElseThrow().getId();
+        assertTrue(outboxEventRepository.findAll().stream()
+                .anyMatch(event -> event.getAggregateId().equals(userId)
+                        && event.getStatus() == OutboxStatus.PENDING));
+        verifyNoInteractions(restTemplate);
     }
 
     @Test
     public void shouldLoginAndReturnToken() throws Exception {
-        when(restTemplate.postForEntity(anyString(), any(), eq(Void.class)))
-            .thenReturn(ResponseEntity.status(201).build());
-
         // 1. Register first
         RegisterRequestDTO newUser = createRegisterRequest("LoginUser", "LoginPass123");
 
@@ -90,10 +138,65 @@ public class AuthIntegrationTest {
     }
 
     @Test
-    public void shouldRejectWrongPassword() throws Exception {
-        when(restTemplate.postForEntity(anyString(), any(), eq(Void.class)))
-            .thenReturn(ResponseEntity.status(201).build());
+    public void shouldLoginWithDifferentlyCasedUsername() throws Exception {
+        User user = new User();
+        user.setUsername("CaseUser");
+        user.setPassword(passwordEncoder.encode("CasePass123"));
+        user.setRoleId(2L);
+        userRepository.saveAndFlush(user);
+
+        LoginRequestDTO loginRequest = new LoginRequestDTO();
+        loginRequest.setUsername("caseUSER");
+        loginRequest.setPassword("CasePass123");
+
+        mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists());
+    }
+
+    @Test
+    public void shouldStoreNewPasswordsWithAlgorithmAndCostPrefix() throws Exception {
+        mockMvc.perform(post("/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createRegisterRequest("PrefixUser", "PrefixPass123"))))
+                .andExpect(status().isCreated());
+
+        String hash = userRepository.findByUsername("PrefixUser").orElseThrow().getPassword();
+        assertTrue(hash.startsWith("{bcrypt}$2a$04$"), hash);
+    }
+
+    @Test
+    public void shouldRehashOutdatedPasswordOnLogin() throws Exception {
+        // stored before the {id} prefix was introduced, and with a lower cost
+        User legacy = new User();
+        legacy.setUsername("LegacyUser");
+        legacy.setPassword(new BCryptPasswordEncoder(4).encode("LegacyPass123"));
+        legacy.setRoleId(2L);
+        userRepository.saveAndFlush(legacy);
+
+        LoginRequestDTO loginRequest = new LoginRequestDTO();
+        loginRequest.setUsername("LegacyUser");
+        loginRequest.setPassword("LegacyPass123");
+
+        mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk());
+
+        String rehashed = userRepository.findByUsername("LegacyUser").orElseThrow().getPassword();
+        assertTrue(rehashed.startsWith("{bcrypt}"), rehashed);
+        assertTrue(passwordEncoder.matches("LegacyPass123", rehashed));
+        assertFalse(passwordEncoder.upgradeEncoding(rehashed));
+
+        UserDetails cached = userCache.getUserFromCache("LegacyUser");
+        assertInstanceOf(AuthenticatedUser.class, cached);
+        assertEquals(rehashed, cached.getPassword());
+    }
 
+    @Test
+    public void shouldRejectWrongPassword() throws Exception {
         // 1. Register
         RegisterRequestDTO newUser = createRegisterRequest("WrongPassUser", "CorrectPass");
 
@@ -112,6 +215,91 @@ public class AuthIntegrationTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    public void shouldRotateRefreshTokenAndRevokeFamilyOnReuse() throws Exception {
+        User user = new User();
+        user.setUsername("RefreshUser");
+        user.setPassword(passwordEncoder.encode("RefreshPass123"));
+        user.setRoleId(2L);
+        userRepository.saveAndFlush(user);
+
+        LoginRequestDTO loginRequest = new LoginRequestDTO();
+        loginRequest.setUsername("RefreshUser");
+        loginRequest.setPassword("RefreshPass123");
+
+        String loginBody = mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String first = objectMapper.readTree(loginBody).get("refreshToken").asText();
+
+        // 1. Exchange the refresh token for a new pair
+        String refreshBody = mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(refreshRequest(first)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists())
+                .andReturn().getResponse().getContentAsString();
+        String second = objectMapper.readTree(refreshBody).get("refreshToken").asText();
+        assertNotEquals(first, second);
+
+        // 2. Replaying the rotated token is rejected and revokes the family
+        mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(refreshRequest(first)))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(refreshRequest(second)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void shouldListAccessTokenAsRevokedAfterLogout() throws Exception {
+        User user = new User();
+        user.setUsername("LogoutUser");
+        user.setPassword(passwordEncoder.encode("LogoutPass123"));
+        user.setRoleId(2L);
+        userRepository.saveAndFlush(user);
+
+        LoginRequestDTO loginRequest = new LoginRequestDTO();
+        loginRequest.setUsername("LogoutUser");
+        loginRequest.setPassword("LogoutPass123");
+
+        String loginBody = mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(loginBody).get("token").asText();
+        String refreshToken = objectMapper.readTree(loginBody).get("refreshToken").asText();
+        String jti = jwtUtil.parseToken(token).getId();
+
+        mockMvc.perform(post("/auth/logout")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(refreshRequest(refreshToken)))
+                .andExpect(status().isNoContent());
+
+        // The gateway's next poll sees the token; the refresh token is dead too
+        mockMvc.perform(get("/auth/revocations"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.revocations[0].jti").value(jti));
+
+        mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(refreshRequest(refreshToken)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String refreshRequest(String refreshToken) throws Exception {
+        RefreshRequestDTO request = new RefreshRequestDTO();
+        request.setRefreshToken(refreshToken);
+        return objectMapper.writeValueAsString(request);
+    }
+
     @Test
     public void shouldProtectSecretEndpoints() throws Exception {
         mockMvc.perform(get("/auth/secret-data"))
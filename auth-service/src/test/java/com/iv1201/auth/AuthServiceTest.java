@@ -1,32 +1,43 @@
 package com.iv1201.auth;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iv1201.auth.dto.AuthResponseDTO;
 import com.iv1201.auth.dto.LoginRequestDTO;
 import com.iv1201.auth.dto.RecruiterRegisterRequestDTO;
 import com.iv1201.auth.dto.RegisterRequestDTO;
+import com.iv1201.auth.integration.OutboxEventRepository;
 import com.iv1201.auth.integration.UserRepository;
+import com.iv1201.auth.model.AuthenticatedUser;
+import com.iv1201.auth.model.OutboxEvent;
+import com.iv1201.auth.model.OutboxStatus;
 import com.iv1201.auth.model.User;
 import com.iv1201.auth.service.AuthService;
+import com.iv1201.auth.service.RefreshTokenService;
+import com.iv1201.auth.service.TokenRevocationService;
+import com.iv1201.auth.service.UsernameFilter;
 import com.iv1201.auth.util.JwtUtil;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.ResponseEntity;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,16 +56,26 @@ class AuthServiceTest {
     private AuthenticationManager authenticationManager;
 
     @Mock
-    private RestTemplate restTemplate;
+    private OutboxEventRepository outboxEventRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private UsernameFilter usernameFilter;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private AuthService authService;
 
-    @BeforeEach
-    void setUp() {
-        ReflectionTestUtils.setField(authService, "recruitmentServiceUrl", "http://recruitment-service:8080");
-    }
-
     private RegisterRequestDTO createRegisterRequest() {
         RegisterRequestDTO request = new RegisterRequestDTO();
         request.setUsername("newUser");
@@ -65,7 +86,7 @@ class AuthServiceTest {
     }
 
     @Test
-    void testRegister_Success() {
+    void testRegister_Success() throws Exception {
         RegisterRequestDTO request = createRegisterRequest();
 
         when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
@@ -74,37 +95,67 @@ class AuthServiceTest {
             user.setId(42L);
             return user;
         });
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Void.class)))
-                .thenReturn(ResponseEntity.status(201).build());
 
         authService.register(request);
 
         verify(userRepository, times(1)).save(any(User.class));
         verify(userRepository, times(1)).flush();
-        verify(restTemplate, times(1)).postForEntity(
-                eq("http://recruitment-service:8080/api/recruitment/persons"),
-                any(HttpEntity.class),
-                eq(Void.class)
-        );
+        ArgumentCaptor<OutboxEvent> event = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository, times(1)).save(event.capture());
+        assertEquals(42L, event.getValue().getAggregateId());
+        assertEquals(OutboxEvent.PERSON_CREATED, event.getValue().getEventType());
+        assertEquals(OutboxStatus.PENDING, event.getValue().getStatus());
+        JsonNode payload = objectMapper.readTree(event.getValue().getPayload());
+        assertEquals(42L, payload.get("personId").asLong());
+        assertEquals("test@example.com", payload.get("email").asText());
+        assertEquals("19900101-1234", payload.get("pnr").asText());
     }
 
     @Test
-    void testRegister_SagaCompensation_WhenRecruitmentServiceFails() {
-        RegisterRequestDTO request = createRegisterRequest();
-
+    void testRegister_HashesPasswordBeforeTransaction() {
         when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
             User user = invocation.getArgument(0);
             user.setId(42L);
             return user;
         });
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Void.class)))
-                .thenThrow(new RuntimeException("Connection refused"));
 
-        assertThrows(RuntimeException.class, () -> authService.register(request));
+        authService.register(createRegisterRequest());
+
+        InOrder order = inOrder(passwordEncoder, transactionManager, userRepository);
+        order.verify(passwordEncoder).encode("password123");
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(userRepository).save(any(User.class));
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void testRegister_UsernameTakenConcurrently_ShouldThrowException() {
+        RegisterRequestDTO request = createRegisterRequest();
+
+        when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
+        doThrow(new DataIntegrityViolationException("ux_person_username_normalized"))
+                .when(userRepository).flush();
+        when(userRepository.existsByUsername("newUser")).thenReturn(true);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> authService.register(request));
+        assertEquals("Username is already taken", e.getMessage());
+        verify(usernameFilter, never()).add(anyString());
+        verify(outboxEventRepository, never()).save(any());
+    }
+
+    @Test
+    void testRegister_OtherConstraintViolated_ShouldRethrow() {
+        RegisterRequestDTO request = createRegisterRequest();
 
-        // Verify compensating transaction: user is deleted
-        verify(userRepository, times(1)).delete(any(User.class));
+        when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
+        doThrow(new DataIntegrityViolationException("person_pkey"))
+                .when(userRepository).flush();
+        when(userRepository.existsByUsername("newUser")).thenReturn(false);
+
+        assertThrows(DataIntegrityViolationException.class, () -> authService.register(request));
+        verify(usernameFilter, never()).add(anyString());
     }
 
     private RecruiterRegisterRequestDTO createRecruiterRegisterRequest() {
@@ -127,37 +178,11 @@ class AuthServiceTest {
             user.setId(99L);
             return user;
         });
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Void.class)))
-                .thenReturn(ResponseEntity.status(201).build());
 
         authService.registerRecruiter(request);
 
-        verify(userRepository, times(1)).save(any(User.class));
-        verify(userRepository, times(1)).flush();
-        verify(restTemplate, times(1)).postForEntity(
-                eq("http://recruitment-service:8080/api/recruitment/persons"),
-                any(HttpEntity.class),
-                eq(Void.class)
-        );
-    }
-
-    @Test
-    void testRegisterRecruiter_SagaCompensation_WhenRecruitmentServiceFails() {
-        RecruiterRegisterRequestDTO request = createRecruiterRegisterRequest();
-
-        when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
-            User user = invocation.getArgument(0);
-            user.setId(99L);
-            return user;
-        });
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Void.class)))
-                .thenThrow(new RuntimeException("Connection refused"));
-
-        assertThrows(RuntimeException.class, () -> authService.registerRecruiter(request));
-
-        // Verify compensating transaction: user is deleted
-        verify(userRepository, times(1)).delete(any(User.class));
+        verify(userRepository, times(1)).save(argThat(user -> user.getRoleId() == 1L));
+        verify(outboxEventRepository, times(1)).save(argThat(event -> event.getAggregateId() == 99L));
     }
 
     @Test
@@ -166,32 +191,76 @@ class AuthServiceTest {
         request.setUsername("testUser");
         request.setPassword("password123");
 
-        User mockUser = new User();
-        mockUser.setUsername("testUser");
+        AuthenticatedUser mockUser = new AuthenticatedUser(42L, "testUser", "hash", 2L);
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(new UsernamePasswordAuthenticationToken("testUser", "password123"));
-        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(mockUser));
+                .thenReturn(new UsernamePasswordAuthenticationToken(mockUser, null, mockUser.getAuthorities()));
         when(jwtUtil.generateToken(mockUser)).thenReturn("jwtToken");
+        when(refreshTokenService.issue(42L)).thenReturn("refreshToken");
 
-        String token = authService.login(request);
+        AuthResponseDTO response = authService.login(request);
 
-        assertNotNull(token);
-        assertEquals("jwtToken", token);
+        assertNotNull(response);
+        assertEquals("jwtToken", response.getToken());
+        assertEquals("refreshToken", response.getRefreshToken());
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(jwtUtil, times(1)).generateToken(mockUser);
+        verify(userRepository, never()).findByUsername(anyString());
     }
 
     @Test
-    void testLogin_UserNotFound_ShouldThrowException() {
+    void testLogin_PrincipalNotAUser_ShouldThrowException() {
         LoginRequestDTO request = new LoginRequestDTO();
         request.setUsername("unknownUser");
         request.setPassword("password123");
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(new UsernamePasswordAuthenticationToken("unknownUser", "password123"));
-        when(userRepository.findByUsername("unknownUser")).thenReturn(Optional.empty());
 
         assertThrows(IllegalArgumentException.class, () -> authService.login(request));
     }
+
+    @Test
+    void testRefresh_Success() {
+        User mockUser = new User();
+        mockUser.setId(42L);
+        mockUser.setUsername("testUser");
+
+        when(refreshTokenService.rotate("oldRefresh"))
+                .thenReturn(new RefreshTokenService.Rotation(42L, "newRefresh"));
+        when(userRepository.findById(42L)).thenReturn(Optional.of(mockUser));
+        when(jwtUtil.generateToken(AuthenticatedUser.of(mockUser))).thenReturn("jwtToken");
+
+        AuthResponseDTO response = authService.refresh("oldRefresh");
+
+        assertEquals("jwtToken", response.getToken());
+        assertEquals("newRefresh", response.getRefreshToken());
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    @Test
+    void testRefresh_InvalidToken_ShouldThrowException() {
+        when(refreshTokenService.rotate("badRefresh"))
+                .thenThrow(new BadCredentialsException("Invalid refresh token"));
+
+        assertThrows(BadCredentialsException.class, () -> authService.refresh("badRefresh"));
+        verify(jwtUtil, never()).generateToken(any());
+    }
+
+    @Test
+    void testLogout_RevokesAccessAndRefreshToken() {
+        authService.logout("accessToken", "refreshToken");
+
+        verify(tokenRevocationService).revoke("accessToken");
+        verify(refreshTokenService).revoke("refreshToken");
+    }
+
+    @Test
+    void testLogout_InvalidAccessToken_KeepsRefreshToken() {
+        doThrow(new BadCredentialsException("Invalid token"))
+                .when(tokenRevocationService).revoke("badToken");
+
+        assertThrows(BadCredentialsException.class, () -> authService.logout("badToken", "refreshToken"));
+        verify(refreshTokenService, never()).revoke(any());
+    }
 }
@@ -0,0 +1,34 @@
+package com.iv1201.auth;
+
+import com.iv1201.auth.util.BCryptStrengthCalibrator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BCryptStrengthCalibratorTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void picksHighestStrengthWithinTarget() {
+        // 60 ms at strength 10 -> 120 ms at 11, 240 ms at 12, 480 ms at 13
+        assertEquals(12, BCryptStrengthCalibrator.strengthFor(60 * MILLIS, 250, 10, 14));
+    }
+
+    @Test
+    void staysAtMinimumOnSlowHosts() {
+        assertEquals(10, BCryptStrengthCalibrator.strengthFor(400 * MILLIS, 250, 10, 14));
+    }
+
+    @Test
+    void isCappedAtMaximumOnFastHosts() {
+        assertEquals(14, BCryptStrengthCalibrator.strengthFor(MILLIS, 250, 10, 14));
+    }
+
+    @Test
+    void calibrateReturnsStrengthWithinBounds() {
+        int strength = BCryptStrengthCalibrator.calibrate(1, 4, 6);
+
+        assertTrue(strength >= 4 && strength <= 6);
+    }
+}
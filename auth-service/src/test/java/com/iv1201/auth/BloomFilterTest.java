@@ -0,0 +1,58 @@
+package com.iv1201.auth;
+
+import com.iv1201.auth.util.BloomFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    private static final int VALUES = 10_000;
+
+    @Test
+    void neverReportsAnAddedValueAsMissing() {
+        BloomFilter filter = new BloomFilter(VALUES, 0.01);
+        IntStream.range(0, VALUES).forEach(i -> filter.put("user" + i));
+
+        IntStream.range(0, VALUES).forEach(i -> assertTrue(filter.mightContain("user" + i)));
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(VALUES, 0.01);
+        IntStream.range(0, VALUES).forEach(i -> filter.put("user" + i));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("other" + i))
+                .count();
+
+        double rate = falsePositives / 100_000.0;
+        assertTrue(rate < 0.02, "false-positive rate " + rate);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        assertFalse(filter.mightContain("alice"));
+        assertEquals(0.0, filter.expectedFalsePositiveRate());
+    }
+
+    @Test
+    void sizesBitsForExpectedInsertionsAndRate() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+
+        // m = -n ln p / (ln 2)^2 = 958506 bits, k = m / n ln 2 = 7
+        assertEquals(119_816, filter.sizeInBytes());
+        assertEquals(7, filter.hashFunctions());
+    }
+
+    @Test
+    void rejectsInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.0));
+    }
+}
@@ -0,0 +1,81 @@
+package com.iv1201.auth;
+
+import com.iv1201.auth.model.AuthenticatedUser;
+import com.iv1201.auth.util.JwtKeyRing;
+import com.iv1201.auth.util.JwtUtil;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String ACTIVE = "QWN0aXZlU2lnbmluZ0tleUZvclRlc3RpbmdQdXJwb3NlczEyMzQ=";
+    private static final String OLD = "T2xkU2lnbmluZ0tleUZvclRlc3RpbmdQdXJwb3NlczEyMzQ1Njc4OTA=";
+
+    private AuthenticatedUser user() {
+        return new AuthenticatedUser(7L, "kidUser", null, 2L);
+    }
+
+    @Test
+    void generateToken_signsWithActiveKeyAndSetsKid() {
+        JwtKeyRing keyRing = new JwtKeyRing("2024-06", ACTIVE, "2024-01:" + OLD);
+
+        String token = new JwtUtil(keyRing, 60_000).generateToken(user());
+
+        Jws<Claims> jws = Jwts.parserBuilder().setSigningKey(keyRing.getActiveKey()).build().parseClaimsJws(token);
+        assertEquals("2024-06", jws.getHeader().getKeyId());
+        assertEquals(7, jws.getBody().get("id", Integer.class));
+    }
+
+    @Test
+    void generateToken_usesConfiguredExpiration() {
+        JwtKeyRing keyRing = new JwtKeyRing("2024-06", ACTIVE, "");
+
+        String token = new JwtUtil(keyRing, 60_000).generateToken(user());
+
+        Claims claims = Jwts.parserBuilder().setSigningKey(keyRing.getActiveKey()).build()
+                .parseClaimsJws(token).getBody();
+        assertEquals(60_000, claims.getExpiration().getTime() - claims.getIssuedAt().getTime(), 1000);
+    }
+
+    @Test
+    void generateToken_setsUniqueJti() {
+        JwtUtil jwtUtil = new JwtUtil(new JwtKeyRing("2024-06", ACTIVE, ""), 60_000);
+
+        String first = jwtUtil.parseToken(jwtUtil.generateToken(user())).getId();
+        String second = jwtUtil.parseToken(jwtUtil.generateToken(user())).getId();
+
+        assertNotNull(first);
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void parseToken_acceptsRetiringKeyAndRejectsUnknownKey() {
+        JwtKeyRing oldRing = new JwtKeyRing("2024-01", OLD, "");
+        String oldToken = new JwtUtil(oldRing, 60_000).generateToken(user());
+
+        JwtUtil rotated = new JwtUtil(new JwtKeyRing("2024-06", ACTIVE, "2024-01:" + OLD), 60_000);
+        assertEquals(7, rotated.parseToken(oldToken).get("id", Integer.class));
+
+        JwtUtil unrelated = new JwtUtil(new JwtKeyRing("2024-06", ACTIVE, ""), 60_000);
+        assertThrows(JwtException.class, () -> unrelated.parseToken(oldToken));
+    }
+
+    @Test
+    void keyRing_keepsRetiringKeysForVerification() {
+        JwtKeyRing keyRing = new JwtKeyRing("2024-06", ACTIVE, "2024-01:" + OLD + ", ");
+
+        assertTrue(keyRing.getKey("2024-01").isPresent());
+        assertSame(keyRing.getActiveKey(), keyRing.getKey("2024-06").orElseThrow());
+        assertTrue(keyRing.getKey("unknown").isEmpty());
+    }
+
+    @Test
+    void keyRing_rejectsMalformedRetiringKey() {
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing("2024-06", ACTIVE, OLD));
+    }
+}
@@ -0,0 +1,147 @@
+package com.iv1201.auth;
+
+import com.iv1201.auth.integration.UserRepository;
+import com.iv1201.auth.model.User;
+import com.iv1201.auth.service.LegacyUserImporter;
+import com.iv1201.auth.service.UsernameFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "recruiter.secret.code=TEST_SECRET_CODE",
+    "auth.legacy-import.bcrypt-strength=4",
+    "auth.legacy-import.chunk-size=64",
+    "auth.legacy-import.batch-size=16"
+})
+class LegacyUserImporterTest {
+
+    private static final int USERS = 300;
+
+    @Autowired
+    private LegacyUserImporter importer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @SpyBean
+    private UsernameFilter usernameFilter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @TempDir
+    private Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    private Path legacyFile(List<String> rows) throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add("person_id,username,role_id,temporary_password");
+        lines.addAll(rows);
+        return Files.write(tempDir.resolve("legacy-users.csv"), lines);
+    }
+
+    private List<String> legacyUsers() {
+        List<String> rows = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            rows.add((1000 + i) + ",legacy" + i + ",2,Tmp,pass" + i);
+        }
+        return rows;
+    }
+
+    @Test
+    void importsAllUsersWithHashedTemporaryPasswords() throws Exception {
+        LegacyUserImporter.ImportReport report = importer.importFile(legacyFile(legacyUsers()));
+
+        assertEquals(USERS, report.imported());
+        assertEquals(0, report.skipped());
+        assertEquals(0, report.invalid());
+        assertEquals(USERS, userRepository.count());
+
+        User user = userRepository.findByUsername("legacy42").orElseThrow();
+        assertEquals(1042L, user.getId());
+        assertEquals(2L, user.getRoleId());
+        assertTrue(user.getPassword().startsWith("{bcrypt}$2a$04$"));
+        assertTrue(passwordEncoder.matches("Tmp,pass42", user.getPassword()));
+        assertTrue(usernameFilter.mightBeTaken("legacy42"));
+    }
+
+    @Test
+    void skipsExistingUsersAndMalformedLines() throws Exception {
+        importer.importFile(legacyFile(legacyUsers().subList(0, 100)));
+
+        List<String> rows = new ArrayList<>(legacyUsers());
+        rows.add("not-a-number,someone,2,Tmp-pass");
+        rows.add("2001,,2,Tmp-pass");
+        rows.add("2002,sameName,2,Tmp-pass");
+        rows.add("2003,sameName,2,Tmp-pass");
+        LegacyUserImporter.ImportReport report = importer.importFile(legacyFile(rows));
+
+        assertEquals(USERS - 100 + 1, report.imported());
+        assertEquals(100 + 1, report.skipped());
+        assertEquals(2, report.invalid());
+        assertEquals(2002L, userRepository.findByUsername("sameName").orElseThrow().getId());
+    }
+
+    @Test
+    void newUsersGetIdsAboveImportedIds() throws Exception {
+        importer.importFile(legacyFile(legacyUsers()));
+
+        User user = new User();
+        user.setUsername("AfterImport");
+        user.setPassword("hash");
+        user.setRoleId(2L);
+        userRepository.saveAndFlush(user);
+
+        assertTrue(user.getId() > 1000 + USERS);
+    }
+
+    @Test
+    void sequenceIsMovedBeforeRowsAreWrittenAndAfterFailure() throws Exception {
+        List<Long> nextIdWhileWriting = new ArrayList<>();
+        doAnswer(invocation -> {
+            nextIdWhileWriting.add(nextPersonId());
+            throw new IllegalStateException("write failed");
+        }).when(usernameFilter).add(anyString());
+
+        assertThrows(IllegalStateException.class, () -> importer.importFile(legacyFile(legacyUsers())));
+
+        assertEquals(1, nextIdWhileWriting.size());
+        assertTrue(nextIdWhileWriting.get(0) > 1000 + USERS, "next id " + nextIdWhileWriting.get(0));
+        assertTrue(nextPersonId() > 1000 + USERS);
+    }
+
+    private long nextPersonId() {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR person_seq", Long.class);
+    }
+}
@@ -0,0 +1,108 @@
+package com.iv1201.auth;
+
+import com.iv1201.auth.dto.LoginRequestDTO;
+import com.iv1201.auth.integration.UserRepository;
+import com.iv1201.auth.model.User;
+import com.iv1201.auth.service.AuthService;
+import com.iv1201.auth.service.RefreshTokenService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements issued per login. Before the principal was reused
+ * a login ran two user lookups; now it runs at most one, and none while the
+ * user is in the user cache. The refresh token insert is mocked out so only
+ * the user lookups are counted.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "recruiter.secret.code=TEST_SECRET_CODE",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class LoginQueryCountTest {
+
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @MockBean
+    private RefreshTokenService refreshTokenService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("CountUser");
+        user.setPassword(passwordEncoder.encode("CountPass123"));
+        user.setRoleId(2L);
+        userRepository.saveAndFlush(user);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        userCache.removeUserFromCache("CountUser");
+    }
+
+    @AfterEach
+    void tearDown() {
+        userCache.removeUserFromCache("CountUser");
+        userRepository.deleteAll();
+    }
+
+    private LoginRequestDTO request() {
+        LoginRequestDTO request = new LoginRequestDTO();
+        request.setUsername("CountUser");
+        request.setPassword("CountPass123");
+        return request;
+    }
+
+    @Test
+    void coldLogin_queriesUserOnce() {
+        statistics.clear();
+
+        assertNotNull(authService.login(request()));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void repeatedLogins_areServedFromUserCache() {
+        statistics.clear();
+
+        for (int i = 0; i < ROUNDS; i++) {
+            assertNotNull(authService.login(request()));
+        }
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
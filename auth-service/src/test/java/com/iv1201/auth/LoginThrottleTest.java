@@ -0,0 +1,99 @@
+package com.iv1201.auth;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.iv1201.auth.exception.LoginThrottledException;
+import com.iv1201.auth.util.LoginThrottle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        Ticker ticker = nanos::get;
+        throttle = new LoginThrottle(
+                new LoginThrottle.Limit(3, Duration.ofMinutes(3)),
+                new LoginThrottle.Limit(5, Duration.ofMinutes(1)),
+                1000, meterRegistry, ticker);
+    }
+
+    @Test
+    void rejectsUsernameAfterCapacityAndRefillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("alice", "10.0.0." + i);
+        }
+
+        LoginThrottledException e = assertThrows(LoginThrottledException.class,
+                () -> throttle.acquire("alice", "10.0.0.9"));
+        assertEquals(60, e.getRetryAfterSeconds());
+        assertEquals(1, meterRegistry.counter("auth.login.throttled", "key", "username").count());
+
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertDoesNotThrow(() -> throttle.acquire("alice", "10.0.0.9"));
+    }
+
+    @Test
+    void rejectsAddressSprayingUsernames() {
+        for (int i = 0; i < 5; i++) {
+            throttle.acquire("user" + i, "10.0.0.1");
+        }
+
+        assertThrows(LoginThrottledException.class, () -> throttle.acquire("other", "10.0.0.1"));
+        assertEquals(1, meterRegistry.counter("auth.login.throttled", "key", "ip").count());
+        assertDoesNotThrow(() -> throttle.acquire("other", "10.0.0.2"));
+    }
+
+    @Test
+    void successResetsUsernameBucket() {
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("bob", "10.0.0." + i);
+        }
+        throttle.recordSuccess("bob");
+
+        assertDoesNotThrow(() -> throttle.acquire("bob", "10.0.0.9"));
+    }
+
+    @Test
+    void concurrentAttemptsNeverExceedCapacity() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        try {
+            for (int i = 0; i < threads * 10; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    try {
+                        throttle.acquire("carol", null);
+                        allowed.incrementAndGet();
+                    } catch (LoginThrottledException ignored) {
+                        // expected once the bucket is empty
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(3, allowed.get());
+    }
+}
@@ -0,0 +1,254 @@
+package com.iv1201.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.iv1201.auth.integration.OutboxEventRepository;
+import com.iv1201.auth.integration.UserRepository;
+import com.iv1201.auth.model.OutboxEvent;
+import com.iv1201.auth.model.OutboxStatus;
+import com.iv1201.auth.model.User;
+import com.iv1201.auth.service.OutboxRelay;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "recruiter.secret.code=TEST_SECRET_CODE")
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserCache userCache;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = saveUser("OutboxUser");
+    }
+
+    private User saveUser(String username) {
+        User saved = new User();
+        saved.setUsername(username);
+        saved.setPassword("{noop}irrelevant");
+        saved.setRoleId(2L);
+        return userRepository.saveAndFlush(saved);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private OutboxEvent enqueue() {
+        return enqueue(user);
+    }
+
+    private OutboxEvent enqueue(User owner) {
+        return outboxEventRepository.save(OutboxEvent.pending(
+                owner.getId(), OutboxEvent.PERSON_CREATED, "{\"personId\":" + owner.getId() + "}"));
+    }
+
+    private OutboxEvent reload(OutboxEvent event) {
+        return outboxEventRepository.findById(event.getId()).orElseThrow();
+    }
+
+    /**
+     * Answers the batch request with the given outcome for every entry.
+     */
+    private void respondWith(String outcome) {
+        when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(JsonNode.class)))
+                .thenAnswer(invocation -> {
+                    HttpEntity<ArrayNode> request = invocation.getArgument(1);
+                    ArrayNode results = objectMapper.createArrayNode();
+                    request.getBody().forEach(entry -> results.addObject()
+                            .put("personId", entry.get("personId").asLong())
+                            .put("outcome", outcome)
+                            .put("reason", "CONFLICT".equals(outcome) ? "Email is already in use" : null));
+                    return results;
+                });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deliversBatchInOneRequest() {
+        OutboxEvent first = enqueue();
+        OutboxEvent second = enqueue();
+        respondWith("CREATED");
+
+        assertEquals(2, outboxRelay.relayBatch());
+
+        ArgumentCaptor<HttpEntity<ArrayNode>> request = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, times(1)).postForObject(eq("http://localhost:9999/api/recruitment/persons/batch"),
+                request.capture(), eq(JsonNode.class));
+        ArrayNode body = request.getValue().getBody();
+        assertEquals(2, body.size());
+        assertEquals(user.getId(), body.get(0).get("personId").asLong());
+        assertEquals(OutboxStatus.DELIVERED, outboxEventRepository.findById(first.getId()).orElseThrow().getStatus());
+        assertEquals(OutboxStatus.DELIVERED, outboxEventRepository.findById(second.getId()).orElseThrow().getStatus());
+        assertEquals(0, outboxRelay.relayBatch());
+    }
+
+    @Test
+    void treatsExistingPersonAsDelivered() {
+        OutboxEvent event = enqueue();
+        respondWith("EXISTS");
+
+        outboxRelay.relayBatch();
+
+        assertEquals(OutboxStatus.DELIVERED, outboxEventRepository.findById(event.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void retriesTransientFailureWithBackoff() {
+        OutboxEvent event = enqueue();
+        when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(JsonNode.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        assertEquals(1, outboxRelay.relayBatch());
+
+        OutboxEvent retried = outboxEventRepository.findById(event.getId()).orElseThrow();
+        assertEquals(OutboxStatus.PENDING, retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertTrue(retried.getNextAttemptAt().isAfter(Instant.now()));
+        // not due yet, so the next poll leaves it alone
+        assertEquals(0, outboxRelay.relayBatch());
+        assertTrue(userRepository.existsById(user.getId()));
+    }
+
+    @Test
+    void conflictFailsEventAndRemovesUser() {
+        OutboxEvent event = enqueue();
+        userCache.putUserInCache(user);
+        respondWith("CONFLICT");
+
+        outboxRelay.relayBatch();
+
+        assertEquals(OutboxStatus.FAILED, outboxEventRepository.findById(event.getId()).orElseThrow().getStatus());
+        assertFalse(userRepository.existsById(user.getId()));
+        assertNull(userCache.getUserFromCache("OutboxUser"));
+        assertEquals("Rejected by recruitment service: Email is already in use", reload(event).getLastError());
+    }
+
+    @Test
+    void clientErrorFailsEventAndKeepsUser() {
+        OutboxEvent event = enqueue();
+        when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(JsonNode.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+
+        outboxRelay.relayBatch();
+
+        OutboxEvent rejected = reload(event);
+        assertEquals(OutboxStatus.FAILED, rejected.getStatus());
+        assertTrue(rejected.getLastError().contains("400"), rejected.getLastError());
+        assertTrue(userRepository.existsById(user.getId()));
+    }
+
+    @Test
+    void clientErrorForBatch_failsOnlyTheRejectedEvent() {
+        User other = saveUser("OtherOutboxUser");
+        OutboxEvent good = enqueue();
+        OutboxEvent bad = enqueue(other);
+        when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(JsonNode.class)))
+                .thenAnswer(invocation -> {
+                    HttpEntity<ArrayNode> request = invocation.getArgument(1);
+                    ArrayNode results = objectMapper.createArrayNode();
+                    for (JsonNode entry : request.getBody()) {
+                        if (entry.get("personId").asLong() == other.getId()) {
+                            throw new HttpClientErrorException(HttpStatus.UNPROCESSABLE_ENTITY);
+                        }
+                        results.addObject().put("personId", entry.get("personId").asLong()).put("outcome", "CREATED");
+                    }
+                    return results;
+                });
+
+        outboxRelay.relayBatch();
+
+        assertEquals(OutboxStatus.DELIVERED, reload(good).getStatus());
+        assertEquals(OutboxStatus.FAILED, reload(bad).getStatus());
+        // the batch, then each event on its own
+        verify(restTemplate, times(3)).postForObject(anyString(), any(HttpEntity.class), eq(JsonNode.class));
+    }
+
+    @Test
+    void tooManyRequestsIsRetried() {
+        OutboxEvent event = enqueue();
+        when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(JsonNode.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
+
+        outboxRelay.relayBatch();
+
+        OutboxEvent retried = reload(event);
+        assertEquals(OutboxStatus.PENDING, retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        OutboxEvent event = enqueue();
+        event.setAttempts(9);
+        outboxEventRepository.save(event);
+        when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(JsonNode.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        outboxRelay.relayBatch();
+
+        OutboxEvent failed = reload(event);
+        assertEquals(OutboxStatus.FAILED, failed.getStatus());
+        assertEquals(10, failed.getAttempts());
+        assertTrue(userRepository.existsById(user.getId()));
+    }
+
+    @Test
+    void invalidPayloadFailsOnlyThatEvent() {
+        User other = saveUser("OtherOutboxUser");
+        OutboxEvent good = enqueue();
+        OutboxEvent malformed = outboxEventRepository.save(OutboxEvent.pending(
+                other.getId(), OutboxEvent.PERSON_CREATED, "{not json"));
+        respondWith("CREATED");
+
+        assertEquals(2, outboxRelay.relayBatch());
+
+        assertEquals(OutboxStatus.DELIVERED, reload(good).getStatus());
+        OutboxEvent failed = reload(malformed);
+        assertEquals(OutboxStatus.FAILED, failed.getStatus());
+        assertTrue(failed.getLastError().startsWith("Invalid payload"), failed.getLastError());
+    }
+}
@@ -0,0 +1,99 @@
+package com.iv1201.auth;
+
+import com.iv1201.auth.dto.LoginRequestDTO;
+import com.iv1201.auth.dto.RegisterRequestDTO;
+import com.iv1201.auth.integration.OutboxEventRepository;
+import com.iv1201.auth.integration.UserRepository;
+import com.iv1201.auth.service.AuthService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Checks that no transaction, and so no database connection, is held while
+ * a request waits for BCrypt on the bounded hashing pool.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "recruiter.secret.code=TEST_SECRET_CODE"
+})
+class PasswordHashingTransactionTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @SpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    /** Whether a transaction was active for each hashing call. */
+    private final List<Boolean> transactionActive = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            transactionActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).encode(any());
+        doAnswer(invocation -> {
+            transactionActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).matches(any(), anyString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userCache.removeUserFromCache("HashUser");
+        outboxEventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void registerAndLogin_hashOutsideTransactions() {
+        RegisterRequestDTO register = new RegisterRequestDTO();
+        register.setUsername("HashUser");
+        register.setPassword("HashPass123");
+        register.setEmail("hash@example.com");
+        register.setPnr("19900101-1234");
+        authService.register(register);
+
+        LoginRequestDTO login = new LoginRequestDTO();
+        login.setUsername("HashUser");
+        login.setPassword("HashPass123");
+        assertNotNull(authService.login(login).getToken());
+
+        assertFalse(transactionActive.isEmpty());
+        assertFalse(transactionActive.contains(true), "hashed inside a transaction: " + transactionActive);
+        assertTrue(userRepository.findByUsername("HashUser").isPresent());
+    }
+}
@@ -0,0 +1,112 @@
+package com.iv1201.auth;
+
+import com.iv1201.auth.integration.RefreshTokenRepository;
+import com.iv1201.auth.model.RefreshToken;
+import com.iv1201.auth.service.RefreshTokenService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests refresh token rotation against the database, where concurrent
+ * rotations of the same token run in separate transactions.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "recruiter.secret.code=TEST_SECRET_CODE"
+})
+class RefreshTokenServiceTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentRotationsOfSameToken_onlyOneSucceeds() throws Exception {
+        String token = refreshTokenService.issue(42L);
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<RefreshTokenService.Rotation>> rotations = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                rotations.add(executor.submit(() -> {
+                    start.await();
+                    return refreshTokenService.rotate(token);
+                }));
+            }
+
+            int succeeded = 0;
+            for (Future<RefreshTokenService.Rotation> rotation : rotations) {
+                try {
+                    rotation.get(30, TimeUnit.SECONDS);
+                    succeeded++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(BadCredentialsException.class, e.getCause());
+                }
+            }
+            assertEquals(1, succeeded);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // The losers count as reuse, so the token issued to the winner is revoked too
+        assertTrue(refreshTokenRepository.findAll().stream().allMatch(RefreshToken::isRevoked));
+    }
+
+    @Test
+    void rotate_rotatedToken_revokesFamily() {
+        String first = refreshTokenService.issue(42L);
+        String second = refreshTokenService.rotate(first).refreshToken();
+
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate(first));
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate(second));
+    }
+
+    @Test
+    void purgeExpired_deletesOnlyExpiredTokens() {
+        refreshTokenService.issue(42L);
+        RefreshToken expired = new RefreshToken();
+        expired.setUserId(42L);
+        expired.setTokenHash("0".repeat(64));
+        expired.setFamilyId("expired-family");
+        expired.setExpiresAt(Instant.now().minusSeconds(1));
+        refreshTokenRepository.save(expired);
+
+        refreshTokenService.purgeExpired();
+
+        List<RefreshToken> remaining = refreshTokenRepository.findAll();
+        assertEquals(1, remaining.size());
+        assertNotEquals("expired-family", remaining.get(0).getFamilyId());
+    }
+}
@@ -0,0 +1,107 @@
+package com.iv1201.auth;
+
+import com.iv1201.auth.util.ResilientHttpInterceptor;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ResilientHttpInterceptorTest {
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private ResilientHttpInterceptor interceptor;
+    private final MockClientHttpRequest request =
+            new MockClientHttpRequest(HttpMethod.POST, URI.create("http://recruitment-service:8080/api/recruitment/persons"));
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        interceptor = new ResilientHttpInterceptor(circuitBreakerRegistry, bulkheadRegistry);
+    }
+
+    @Test
+    void opensCircuitAfterServerErrorsAndRejectsWithoutCalling() throws Exception {
+        ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+        when(execution.execute(any(), any()))
+                .thenAnswer(invocation -> new MockClientHttpResponse(new byte[0], HttpStatus.SERVICE_UNAVAILABLE));
+
+        for (int i = 0; i < 4; i++) {
+            interceptor.intercept(request, new byte[0], execution);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakerRegistry.circuitBreaker("recruitment-service").getState());
+        assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], execution));
+        verify(execution, times(4)).execute(any(), any());
+    }
+
+    @Test
+    void countsIoErrorsAsFailures() throws Exception {
+        ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+        when(execution.execute(any(), any())).thenThrow(new IOException("Read timed out"));
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], execution));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakerRegistry.circuitBreaker("recruitment-service").getState());
+    }
+
+    @Test
+    void bulkheadRejectsConcurrentCallBeyondLimit() throws Exception {
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ClientHttpRequestExecution slow = (req, body) -> {
+            inFlight.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new MockClientHttpResponse(new byte[0], HttpStatus.CREATED);
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = executor.submit(() -> interceptor.intercept(request, new byte[0], slow));
+            inFlight.await();
+
+            ClientHttpRequestExecution fast = mock(ClientHttpRequestExecution.class);
+            assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], fast));
+            verifyNoInteractions(fast);
+
+            release.countDown();
+            first.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
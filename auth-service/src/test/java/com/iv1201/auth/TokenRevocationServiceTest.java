@@ -0,0 +1,94 @@
+package com.iv1201.auth;
+
+import com.iv1201.auth.integration.RevokedTokenRepository;
+import com.iv1201.auth.model.AuthenticatedUser;
+import com.iv1201.auth.service.TokenRevocationService;
+import com.iv1201.auth.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests access token revocation against the database, where concurrent
+ * logouts with the same token run in separate transactions.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "recruiter.secret.code=TEST_SECRET_CODE"
+})
+class TokenRevocationServiceTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @AfterEach
+    void tearDown() {
+        revokedTokenRepository.deleteAll();
+    }
+
+    private String accessToken() {
+        return jwtUtil.generateToken(new AuthenticatedUser(42L, null, null, 2L));
+    }
+
+    @Test
+    void revoke_sameTokenTwice_storesOneRevocation() {
+        String token = accessToken();
+
+        tokenRevocationService.revoke(token);
+        tokenRevocationService.revoke(token);
+
+        assertEquals(1, revokedTokenRepository.count());
+        assertTrue(revokedTokenRepository.existsById(jwtUtil.parseToken(token).getId()));
+    }
+
+    @Test
+    void concurrentRevocationsOfSameToken_allSucceed() throws Exception {
+        String token = accessToken();
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> revocations = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                revocations.add(executor.submit(() -> {
+                    start.await();
+                    tokenRevocationService.revoke(token);
+                    return null;
+                }));
+            }
+            for (Future<?> revocation : revocations) {
+                revocation.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, revokedTokenRepository.count());
+    }
+}
@@ -23,4 +23,15 @@ class UserTest {
         assertEquals("pass", user.getPassword());
         assertEquals(2L, user.getRoleId());
     }
+
+    @Test
+    void setUsername_keepsNormalizedUsernameInSync() {
+        User user = new User();
+
+        user.setUsername("Test.User");
+
+        assertEquals("Test.User", user.getUsername());
+        assertEquals("test.user", user.getUsernameNormalized());
+        assertNull(User.normalize(null));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.iv1201.auth;
+
+import com.iv1201.auth.dto.RegisterRequestDTO;
+import com.iv1201.auth.integration.UserRepository;
+import com.iv1201.auth.model.User;
+import com.iv1201.auth.service.AuthService;
+import com.iv1201.auth.service.UsernameFilter;
+import com.iv1201.auth.validation.UniqueUsernameValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the statements issued by {@link UniqueUsernameValidator}. A free
+ * username is accepted by the filter without a query; a taken one is
+ * confirmed by a single lookup.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "recruiter.secret.code=TEST_SECRET_CODE",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class UsernameFilterTest {
+
+    @Autowired
+    private UsernameFilter usernameFilter;
+
+    @Autowired
+    private UniqueUsernameValidator validator;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("TakenUser");
+        user.setPassword("hash");
+        user.setRoleId(2L);
+        userRepository.saveAndFlush(user);
+        usernameFilter.rebuild();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void freeUsername_isAcceptedWithoutQuery() {
+        double negatives = meterRegistry.counter("auth.username.filter.checks", "result", "negative").count();
+
+        assertTrue(validator.isValid("FreeUser", null));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(negatives + 1, meterRegistry.counter("auth.username.filter.checks", "result", "negative").count());
+    }
+
+    @Test
+    void takenUsername_isConfirmedByDatabase() {
+        assertFalse(validator.isValid("TakenUser", null));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void differentlyCasedUsername_isTaken() {
+        assertTrue(usernameFilter.mightBeTaken("takenUSER"));
+        assertFalse(validator.isValid("takenUSER", null));
+    }
+
+    @Test
+    void registeredUsername_isAddedAfterCommit() {
+        RegisterRequestDTO request = new RegisterRequestDTO();
+        request.setUsername("NewUser");
+        request.setPassword("NewPass123");
+        request.setEmail("new@example.com");
+        request.setPnr("19900101-1234");
+
+        authService.register(request);
+
+        assertTrue(usernameFilter.mightBeTaken("NewUser"));
+        assertFalse(validator.isValid("NewUser", null));
+    }
+}
@@ -0,0 +1,88 @@
+package com.iv1201.auth.benchmark;
+
+import com.iv1201.auth.model.AuthenticatedUser;
+import com.iv1201.auth.util.JwtKeyRing;
+import com.iv1201.auth.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issuing a JWT ({@link JwtUtil#generateToken}) and verifying it the way the
+ * gateway's {@code JwtAuthenticationFilter} does: one shared parser that
+ * resolves the HMAC key by the {@code kid} header.
+ * <p>
+ * The {@code AllCores} variants run on every core at once and show whether
+ * throughput scales with cores.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBenchmark {
+
+    private static final String SECRET = "VGhpc0lzQVNlY3JldEtleUZvckJlbmNobWFya2luZ1B1cnBvc2VzMTIzNDU2Nzg5MA==";
+
+    private JwtUtil jwtUtil;
+    private JwtParser gatewayParser;
+    private AuthenticatedUser user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing("primary", SECRET, "");
+        jwtUtil = new JwtUtil(keyRing, 3_600_000L);
+        gatewayParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return keyRing.getKey(header.getKeyId()).orElse(null);
+                    }
+                })
+                .build();
+
+        user = new AuthenticatedUser(42L, "benchmark.user", null, 2L);
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String generateTokenAllCores() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Object parseToken() {
+        return gatewayParser.parseClaimsJws(token).getBody().get("id");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object parseTokenAllCores() {
+        return gatewayParser.parseClaimsJws(token).getBody().get("id");
+    }
+}
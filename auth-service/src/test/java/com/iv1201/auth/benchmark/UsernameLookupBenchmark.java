@@ -0,0 +1,112 @@
+package com.iv1201.auth.benchmark;
+
+import com.iv1201.auth.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login lookups by username on an in-memory H2 {@code person} table: through
+ * the uniquely indexed {@code username_normalized} column, against the
+ * previous exact match on {@code username}, which no index serves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class UsernameLookupBenchmark {
+
+    @Param({"1000000"})
+    private int users;
+
+    private Connection connection;
+    private PreparedStatement byNormalized;
+    private PreparedStatement byUsername;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:username-lookup;MODE=PostgreSQL", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE person (person_id BIGINT PRIMARY KEY, "
+                    + "username VARCHAR(255), username_normalized VARCHAR(255), password VARCHAR(255))");
+            statement.execute("CREATE UNIQUE INDEX ux_person_username_normalized ON person (username_normalized)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO person (person_id, username, username_normalized, password) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < users; i++) {
+                String username = username(i);
+                insert.setLong(1, i);
+                insert.setString(2, username);
+                insert.setString(3, User.normalize(username));
+                insert.setString(4, "{bcrypt}$2a$10$benchmark");
+                insert.addBatch();
+                if (i % 10000 == 9999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        byNormalized = connection.prepareStatement(
+                "SELECT person_id, password FROM person WHERE username_normalized = ?");
+        byUsername = connection.prepareStatement(
+                "SELECT person_id, password FROM person WHERE username = ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    private static String username(int i) {
+        return "Benchmark.User" + i;
+    }
+
+    private String storedName() {
+        return username(ThreadLocalRandom.current().nextInt(users));
+    }
+
+    private static long lookup(PreparedStatement statement, String username) throws SQLException {
+        statement.setString(1, username);
+        try (ResultSet result = statement.executeQuery()) {
+            return result.next() ? result.getLong(1) : -1;
+        }
+    }
+
+    @Benchmark
+    public long normalizedIndex() throws SQLException {
+        return lookup(byNormalized, User.normalize(storedName().toUpperCase()));
+    }
+
+    @Benchmark
+    public long usernameScan() throws SQLException {
+        return lookup(byUsername, storedName());
+    }
+}
@@ -0,0 +1,70 @@
+package com.iv1201.auth.benchmark;
+
+import com.iv1201.auth.validation.ValidEmailValidator;
+import com.iv1201.auth.validation.ValidPasswordValidator;
+import com.iv1201.auth.validation.ValidPnrValidator;
+import com.iv1201.auth.validation.ValidUsernameValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The regex validators of the registration DTOs, on valid input and on
+ * input rejected at the last character (the longest match attempt).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    @Param({"valid", "invalid"})
+    private String input;
+
+    private final ValidPasswordValidator passwordValidator = new ValidPasswordValidator();
+    private final ValidUsernameValidator usernameValidator = new ValidUsernameValidator();
+    private final ValidPnrValidator pnrValidator = new ValidPnrValidator();
+    private final ValidEmailValidator emailValidator = new ValidEmailValidator();
+
+    private String value(String valid, String invalid) {
+        return "valid".equals(input) ? valid : invalid;
+    }
+
+    @Benchmark
+    public boolean password() {
+        return passwordValidator.isValid(value("Benchmark-Pass123", "Benchmark-Pass123~"), null);
+    }
+
+    @Benchmark
+    public boolean username() {
+        return usernameValidator.isValid(value("benchmark.user_01", "benchmark.user_01!"), null);
+    }
+
+    @Benchmark
+    public boolean pnr() {
+        return pnrValidator.isValid(value("19900101-1234", "19900101-123x"), null);
+    }
+
+    @Benchmark
+    public boolean email() {
+        return emailValidator.isValid(value("benchmark.user@example.com", "benchmark.user@example.c"), null);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean emailAllCores() {
+        return emailValidator.isValid(value("benchmark.user@example.com", "benchmark.user@example.c"), null);
+    }
+}
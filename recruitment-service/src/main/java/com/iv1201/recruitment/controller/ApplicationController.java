@@ -30,12 +30,18 @@ public class ApplicationController {
     }
 
     /**
-     * Retrieves all applications as summaries.
+     * Retrieves all applications as summaries, optionally only those with the
+     * given status (e.g. {@code ?status=UNHANDLED} for the recruiter work queue).
      *
+     * @param status optional status to filter on.
      * @return list of application summaries.
      */
     @GetMapping
-    public ResponseEntity<List<ApplicationSummaryDTO>> getAllApplications() {
+    public ResponseEntity<List<ApplicationSummaryDTO>> getAllApplications(
+            @RequestParam(value = "status", required = false) String status) {
+        if (status != null) {
+            return ResponseEntity.ok(applicationService.getApplicationsByStatus(status));
+        }
         return ResponseEntity.ok(applicationService.getAllApplications());
     }
 
@@ -111,12 +117,15 @@ public class ApplicationController {
      *
      * @param id the person ID of the application to update
      * @param statusUpdateDTO the new status value
+     * @param userIdHeader the recruiter's ID forwarded by the Gateway
      * @return 200 OK on success
      */
     @PutMapping("/{id}/status")
     public ResponseEntity<Void> updateApplicationStatus(@PathVariable Long id,
-                                                         @Valid @RequestBody StatusUpdateDTO statusUpdateDTO) {
-        applicationService.updateApplicationStatus(id, statusUpdateDTO.getStatus(), statusUpdateDTO.getVersion());
+                                                         @Valid @RequestBody StatusUpdateDTO statusUpdateDTO,
+                                                         @RequestHeader(value = "X-User-ID", required = false) Long userIdHeader) {
+        applicationService.updateApplicationStatus(id, statusUpdateDTO.getStatus(), statusUpdateDTO.getVersion(),
+                userIdHeader);
         return ResponseEntity.ok().build();
     }
 }
\ No newline at end of file
@@ -2,12 +2,16 @@ package com.iv1201.recruitment.controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import com.iv1201.recruitment.dto.CompetenceDTO;
 import com.iv1201.recruitment.service.CompetenceService;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.math.BigDecimal;
+import java.time.Duration;
 
 /**
  * REST controller for handling competences related to recruitment applications.
@@ -20,6 +24,10 @@ import java.math.BigDecimal;
 @RequestMapping("api/recruitment/competences")
 public class CompetenceController {
 
+    /** Competences are reference data; clients and the gateway may reuse the list this long. */
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(5))
+            .cachePublic()
+            .staleWhileRevalidate(Duration.ofMinutes(1));
 
     private final CompetenceService competenceService;
 
@@ -33,13 +41,28 @@ public class CompetenceController {
 
     /**
      * Retrieves all competences.
+     * The response is publicly cacheable and carries an ETag derived from the
+     * competence ids and names, so a request with a matching
+     * {@code If-None-Match} is answered with {@code 304 Not Modified}.
      * 
      * @return list of competence DTOs
      */
 
     @GetMapping
     public ResponseEntity<List<CompetenceDTO>> getAllCompetences() {
-        return ResponseEntity.ok(competenceService.getAllCompetences());
+        List<CompetenceDTO> competences = competenceService.getAllCompetences();
+        return ResponseEntity.ok()
+                .cacheControl(CACHE_CONTROL)
+                .eTag(etag(competences))
+                .body(competences);
+    }
+
+    private static String etag(List<CompetenceDTO> competences) {
+        StringBuilder content = new StringBuilder();
+        for (CompetenceDTO competence : competences) {
+            content.append(competence.getCompetenceId()).append(':').append(competence.getName()).append('\n');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
     }
     
 }
@@ -1,12 +1,17 @@
 package com.iv1201.recruitment.controller;
 
 import com.iv1201.recruitment.dto.PersonCreateDTO;
+import com.iv1201.recruitment.dto.PersonCreateResultDTO;
 import com.iv1201.recruitment.service.ApplicationService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
 
 /**
  * REST Controller for person record management.
@@ -17,6 +22,9 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("api/recruitment/persons")
 public class PersonController {
 
+    /** Maximum number of persons accepted by one batch request */
+    static final int MAX_BATCH_SIZE = 500;
+
     private final ApplicationService applicationService;
 
     /**
@@ -29,13 +37,39 @@ public class PersonController {
     /**
      * Creates a new person record in the recruitment database.
      * Called internally by the auth service as part of the registration saga.
+     * Redelivering the same person (same personId, email and pnr) is
+     * answered with 200 OK and changes nothing.
      *
      * @param dto the person data containing personId, email, and pnr
-     * @return 201 Created on success
+     * @return 201 Created on success, 200 OK if the person already exists,
+     *         409 Conflict if the personId or email belongs to another person
      */
     @PostMapping
     public ResponseEntity<Void> createPerson(@RequestBody PersonCreateDTO dto) {
-        applicationService.createPerson(dto);
-        return ResponseEntity.status(201).build();
+        boolean created = applicationService.createPerson(dto);
+        return ResponseEntity.status(created ? 201 : 200).build();
+    }
+
+    /**
+     * Creates many person records in one request.
+     * Used by the auth service's outbox relay to deliver a batch of
+     * registrations in a single round trip. Each entry is idempotent per
+     * personId; the response reports CREATED, EXISTS or CONFLICT per entry.
+     *
+     * @param dtos the persons to create, at most {@value #MAX_BATCH_SIZE}
+     * @return 200 OK with the outcome of each entry, in request order
+     * @throws ResponseStatusException with 400 status if the batch is empty,
+     *         too large, or an entry has no personId
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<PersonCreateResultDTO>> createPersons(@RequestBody List<PersonCreateDTO> dtos) {
+        if (dtos.isEmpty() || dtos.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Batch must contain between 1 and " + MAX_BATCH_SIZE + " persons");
+        }
+        if (dtos.stream().anyMatch(dto -> dto.getPersonId() == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Every person needs a personId");
+        }
+        return ResponseEntity.ok(applicationService.createPersons(dtos));
     }
 }
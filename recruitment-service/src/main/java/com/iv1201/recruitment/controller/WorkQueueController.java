@@ -0,0 +1,47 @@
+package com.iv1201.recruitment.controller;
+
+import com.iv1201.recruitment.dto.ApplicationSummaryDTO;
+import com.iv1201.recruitment.service.WorkQueueService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * REST controller for the recruiter work queue.
+ */
+@RestController
+@RequestMapping("api/recruitment/applications/queue")
+public class WorkQueueController {
+
+    private final WorkQueueService workQueueService;
+
+    /**
+     * @param workQueueService the service handing out leased applications.
+     */
+    public WorkQueueController(WorkQueueService workQueueService) {
+        this.workQueueService = workQueueService;
+    }
+
+    /**
+     * Claims the next batch of UNHANDLED applications for the calling
+     * recruiter. Concurrent recruiters receive disjoint batches.
+     *
+     * @param limit        the maximum number of applications to claim.
+     * @param userIdHeader the recruiter's ID forwarded by the Gateway.
+     * @return the claimed application summaries.
+     */
+    @PostMapping("/claim")
+    public ResponseEntity<List<ApplicationSummaryDTO>> claimApplications(
+            @RequestParam(value = "limit", defaultValue = "" + WorkQueueService.DEFAULT_BATCH_SIZE) int limit,
+            @RequestHeader(value = "X-User-ID", required = false) Long userIdHeader) {
+
+        if (userIdHeader == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User ID header missing");
+        }
+
+        return ResponseEntity.ok(workQueueService.claimApplications(userIdHeader, limit));
+    }
+}
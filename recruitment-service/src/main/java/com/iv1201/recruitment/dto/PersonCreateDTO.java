@@ -3,6 +3,7 @@ package com.iv1201.recruitment.dto;
 /**
  * Data Transfer Object for creating a person record during registration.
  * Called by the auth service as part of the saga pattern.
+ * The person ID makes a create idempotent.
  */
 public class PersonCreateDTO {
 
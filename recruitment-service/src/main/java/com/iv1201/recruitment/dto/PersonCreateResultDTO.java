@@ -0,0 +1,59 @@
+package com.iv1201.recruitment.dto;
+
+/**
+ * Data Transfer Object for the outcome of one entry of a batch person
+ * creation.
+ */
+public class PersonCreateResultDTO {
+
+    /**
+     * Outcome of creating one person.
+     */
+    public enum Outcome {
+        /** The person was created */
+        CREATED,
+        /** A person with the ID already existed and was left unchanged */
+        EXISTS,
+        /** The person ID or the email belongs to another person; nothing was created */
+        CONFLICT
+    }
+
+    private Long personId;
+    private Outcome outcome;
+    /** Why the entry is a CONFLICT; null for the other outcomes */
+    private String reason;
+
+    public PersonCreateResultDTO() {
+    }
+
+    public PersonCreateResultDTO(Long personId, Outcome outcome, String reason) {
+        this.personId = personId;
+        this.outcome = outcome;
+        this.reason = reason;
+    }
+
+    public Long getPersonId() {
+        return personId;
+    }
+
+    public void setPersonId(Long personId) {
+        this.personId = personId;
+    }
+
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,62 @@
+package com.iv1201.recruitment.model;
+
+/**
+ * The review status of a recruitment application.
+ *
+ * Stored as a compact smallint code (see {@link ApplicationStatusConverter})
+ * so the status column and its indexes stay small. Codes are persisted and
+ * must never be renumbered.
+ */
+public enum ApplicationStatus {
+
+    UNHANDLED((short) 0),
+    ACCEPTED((short) 1),
+    REJECTED((short) 2);
+
+    private final short code;
+
+    ApplicationStatus(short code) {
+        this.code = code;
+    }
+
+    /**
+     * @return the code stored in the database for this status
+     */
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * Resolves a status from its database code.
+     *
+     * @param code the stored code
+     * @return the matching status
+     * @throws IllegalArgumentException if the code is unknown
+     */
+    public static ApplicationStatus fromCode(short code) {
+        for (ApplicationStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown application status code: " + code);
+    }
+
+    /**
+     * Resolves a status from its name, ignoring case.
+     *
+     * @param name the status name, e.g. "UNHANDLED"
+     * @return the matching status, or {@code null} if the name is not a valid status
+     */
+    public static ApplicationStatus fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (ApplicationStatus status : values()) {
+            if (status.name().equalsIgnoreCase(name)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.iv1201.recruitment.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Maps {@link ApplicationStatus} to its smallint code in the "status" column.
+ */
+@Converter
+public class ApplicationStatusConverter implements AttributeConverter<ApplicationStatus, Short> {
+
+    /** {@inheritDoc} */
+    @Override
+    public Short convertToDatabaseColumn(ApplicationStatus status) {
+        return status != null ? status.getCode() : null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ApplicationStatus convertToEntityAttribute(Short code) {
+        return code != null ? ApplicationStatus.fromCode(code) : null;
+    }
+}
@@ -0,0 +1,85 @@
+package com.iv1201.recruitment.model;
+
+import com.iv1201.recruitment.dto.AvailabilityDTO;
+import com.iv1201.recruitment.dto.CompetenceDTO;
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Denormalized read model of a recruitment application.
+ *
+ * One row per person, holding the person's data together with their
+ * competences and availability periods as JSON documents, so recruiter reads
+ * are a single-row lookup instead of joining person, competence_profile,
+ * competence and availability. The row is written by
+ * {@link com.iv1201.recruitment.service.ApplicationViewProjector} in the same
+ * transaction as the normalized tables and is never edited directly.
+ */
+@Entity
+@Table(name = "application_view")
+public class ApplicationView {
+
+    /** Primary key, same as the person ID */
+    @Id
+    @Column(name = "person_id")
+    private Long personId;
+
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "surname")
+    private String surname;
+
+    @Column(name = "email")
+    private String email;
+
+    @Column(name = "pnr")
+    private String pnr;
+
+    @Convert(converter = ApplicationStatusConverter.class)
+    @Column(name = "status", nullable = false)
+    private ApplicationStatus status = ApplicationStatus.UNHANDLED;
+
+    /** Version of the person row, handed to clients for optimistic locking */
+    @Column(name = "person_version")
+    private Long personVersion;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "competences")
+    private List<CompetenceDTO> competences = new ArrayList<>();
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "availabilities")
+    private List<AvailabilityDTO> availabilities = new ArrayList<>();
+
+    public Long getPersonId() { return personId; }
+    public void setPersonId(Long personId) { this.personId = personId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getSurname() { return surname; }
+    public void setSurname(String surname) { this.surname = surname; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getPnr() { return pnr; }
+    public void setPnr(String pnr) { this.pnr = pnr; }
+
+    public ApplicationStatus getStatus() { return status; }
+    public void setStatus(ApplicationStatus status) { this.status = status; }
+
+    public Long getPersonVersion() { return personVersion; }
+    public void setPersonVersion(Long personVersion) { this.personVersion = personVersion; }
+
+    public List<CompetenceDTO> getCompetences() { return competences; }
+    public void setCompetences(List<CompetenceDTO> competences) { this.competences = competences; }
+
+    public List<AvailabilityDTO> getAvailabilities() { return availabilities; }
+    public void setAvailabilities(List<AvailabilityDTO> availabilities) { this.availabilities = availabilities; }
+}
@@ -1,12 +1,20 @@
 package com.iv1201.recruitment.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * JPA entity representing a competence type available in the system.
+ *
+ * Competences are static reference data and are kept in the
+ * "competence" second-level cache region, so hydrating a CompetenceProfile
+ * does not need a database round-trip per competence.
  */
 @Entity
 @Table(name = "competence")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "competence")
 public class Competence {
 
     @Id
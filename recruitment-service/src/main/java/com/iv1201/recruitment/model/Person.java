@@ -1,6 +1,7 @@
 package com.iv1201.recruitment.model;
 
 import jakarta.persistence.*;
+import java.time.Instant;
 
 /**
  * JPA entity representing a person in the recruitment system.
@@ -25,13 +26,23 @@ public class Person {
     @Column(name = "email")
     private String email;
     
-    @Column(name = "status")
-    private String status;
+    /** Review status, new persons start out as UNHANDLED */
+    @Convert(converter = ApplicationStatusConverter.class)
+    @Column(name = "status", nullable = false)
+    private ApplicationStatus status = ApplicationStatus.UNHANDLED;
 
     @Version
     @Column(name = "version")
     private Long version;
 
+    /** Recruiter currently holding the review lease, see the work queue */
+    @Column(name = "lease_holder")
+    private Long leaseHolder;
+
+    /** When the review lease expires and the application returns to the queue */
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -47,9 +58,27 @@ public class Person {
     public String getEmail() { return email; }
     public void setEmail(String email) { this.email = email; }
 
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public ApplicationStatus getStatus() { return status; }
+    public void setStatus(ApplicationStatus status) { this.status = status; }
 
     public Long getVersion() { return version; }
     public void setVersion(Long version) { this.version = version; }
+
+    public Long getLeaseHolder() { return leaseHolder; }
+    public void setLeaseHolder(Long leaseHolder) { this.leaseHolder = leaseHolder; }
+
+    public Instant getLeaseExpiresAt() { return leaseExpiresAt; }
+    public void setLeaseExpiresAt(Instant leaseExpiresAt) { this.leaseExpiresAt = leaseExpiresAt; }
+
+    /**
+     * Checks whether another recruiter holds an unexpired review lease.
+     *
+     * @param recruiterId the recruiter to check for, may be null
+     * @param now         the current time
+     * @return true if the application is leased to someone other than recruiterId
+     */
+    public boolean isLeasedToOther(Long recruiterId, Instant now) {
+        return leaseHolder != null && leaseExpiresAt != null && leaseExpiresAt.isAfter(now)
+                && !leaseHolder.equals(recruiterId);
+    }
 }
\ No newline at end of file
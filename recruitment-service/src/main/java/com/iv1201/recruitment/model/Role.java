@@ -1,16 +1,21 @@
 package com.iv1201.recruitment.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /** 
  * Entity representing a role in the system.
  * 
  * Maps directly to the existing "role" table in the database and
  * Typical roles are e.g., APPLICANT, RECRUITER.
+ * Roles are static and cached in the "role" second-level cache region.
  */
 
 @Entity
 @Table(name = "role")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "role")
 public class Role {
 
     /** Primary key, generated by the database */
@@ -0,0 +1,35 @@
+package com.iv1201.recruitment.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.iv1201.recruitment.model.ApplicationStatus;
+import com.iv1201.recruitment.model.ApplicationView;
+
+import java.util.List;
+
+/**
+ * Repository for the denormalized application read model.
+ */
+public interface ApplicationViewRepository extends JpaRepository<ApplicationView, Long> {
+
+    /**
+     * Finds all submitted applications, i.e. persons that have filled in
+     * their name and surname.
+     *
+     * @return the submitted applications, ordered by person ID
+     */
+    @Query("SELECT v FROM ApplicationView v WHERE v.name IS NOT NULL AND v.surname IS NOT NULL "
+            + "ORDER BY v.personId")
+    List<ApplicationView> findSubmittedApplications();
+
+    /**
+     * Finds all submitted applications with the given status.
+     *
+     * @param status the status to filter on
+     * @return the matching applications, ordered by person ID
+     */
+    @Query("SELECT v FROM ApplicationView v WHERE v.status = :status "
+            + "AND v.name IS NOT NULL AND v.surname IS NOT NULL ORDER BY v.personId")
+    List<ApplicationView> findSubmittedApplicationsByStatus(@Param("status") ApplicationStatus status);
+}
@@ -3,6 +3,7 @@ package com.iv1201.recruitment.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.iv1201.recruitment.model.Availability;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -24,5 +25,13 @@ public interface AvailabilityRepository extends JpaRepository<Availability, Long
      * @param id the person ID
      */
     void deleteByPerson_Id(Long id);
-}
 
+    /**
+     * Find all availability periods for a set of person IDs, used when the
+     * application read model is rebuilt in bulk.
+     *
+     * @param ids the person IDs
+     * @return list of availability periods for the persons
+     */
+    List<Availability> findByPerson_IdIn(Collection<Long> ids);
+}
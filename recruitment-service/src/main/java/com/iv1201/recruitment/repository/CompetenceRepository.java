@@ -1,11 +1,26 @@
 package com.iv1201.recruitment.repository;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import com.iv1201.recruitment.model.Competence;
+import jakarta.persistence.QueryHint;
+
+import java.util.List;
 
 /**
  * Repository for accessing Competence entities from the database.
  */
 public interface CompetenceRepository extends JpaRepository<Competence, Long> {
+
+    /**
+     * Find all competences. The result is kept in the query cache, and the
+     * entities themselves in the second-level cache.
+     *
+     * @return list of all competences
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Competence> findAll();
 }
 
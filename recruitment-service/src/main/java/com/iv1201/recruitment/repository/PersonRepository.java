@@ -1,7 +1,20 @@
 package com.iv1201.recruitment.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import com.iv1201.recruitment.model.ApplicationStatus;
 import com.iv1201.recruitment.model.Person;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Repository for accessing Person entities from the database.
@@ -15,4 +28,56 @@ public interface PersonRepository extends JpaRepository<Person, Long> {
      * @return {@code true} if a person with the email exists, {@code false} otherwise.
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Returns which of the given emails are already in use, served by the
+     * unique index on email.
+     *
+     * @param emails the email addresses to check.
+     * @return the emails that are in use.
+     */
+    @Query("SELECT p.email FROM Person p WHERE p.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Locks the next UNHANDLED applications that are free to be claimed by the
+     * given recruiter: not leased, lease expired, or already leased to them.
+     *
+     * Uses {@code SELECT ... FOR UPDATE SKIP LOCKED} (lock timeout -2), so rows
+     * locked by a concurrent claim are skipped instead of waited for and
+     * concurrent recruiters always get disjoint batches.
+     *
+     * @param status      the status of claimable applications (UNHANDLED).
+     * @param recruiterId the recruiter claiming work.
+     * @param now         the current time, leases expiring before it are free.
+     * @param pageable    the batch size.
+     * @return the locked persons, ordered by person ID.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT p FROM Person p WHERE p.status = :status "
+            + "AND p.name IS NOT NULL AND p.surname IS NOT NULL "
+            + "AND (p.leaseExpiresAt IS NULL OR p.leaseExpiresAt < :now OR p.leaseHolder = :recruiterId) "
+            + "ORDER BY p.id")
+    List<Person> lockClaimableApplications(@Param("status") ApplicationStatus status,
+                                           @Param("recruiterId") Long recruiterId,
+                                           @Param("now") Instant now,
+                                           Pageable pageable);
+
+    /**
+     * Leases the given applications to a recruiter.
+     *
+     * A bulk update does not increment the version, so claiming an application
+     * does not cause optimistic locking conflicts for anyone viewing it.
+     *
+     * @param ids         the person IDs to lease.
+     * @param recruiterId the recruiter receiving the lease.
+     * @param expiresAt   when the lease expires.
+     * @return the number of updated rows.
+     */
+    @Modifying
+    @Query("UPDATE Person p SET p.leaseHolder = :recruiterId, p.leaseExpiresAt = :expiresAt WHERE p.id IN :ids")
+    int leaseApplications(@Param("ids") Collection<Long> ids,
+                          @Param("recruiterId") Long recruiterId,
+                          @Param("expiresAt") Instant expiresAt);
 }
\ No newline at end of file
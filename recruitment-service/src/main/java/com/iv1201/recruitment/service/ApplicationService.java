@@ -10,8 +10,15 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -25,17 +32,28 @@ import java.util.stream.Collectors;
  * exception occurs during execution, database changes are typically rolled
  * back.
  *
- * When an application is created or updated and the person's status is not yet
- * set, the status is initialized to "UNHANDLED".
+ * New persons start out with the status UNHANDLED (see {@link Person}).
+ *
+ * Reads are served from the denormalized {@link ApplicationView} read model.
+ * Every write refreshes the person's view row through
+ * {@link ApplicationViewProjector} in the same transaction.
  */
 @Service
 @Transactional
 public class ApplicationService {
 
+    /** Reason for a CONFLICT when the person ID belongs to a person with other data */
+    static final String ID_TAKEN = "Person ID belongs to another person";
+
+    /** Reason for a CONFLICT when another person has the email */
+    static final String EMAIL_TAKEN = "Email is already in use";
+
     private final PersonRepository personRepository;
     private final CompetenceRepository competenceRepository;
     private final CompetenceProfileRepository competenceProfileRepository;
     private final AvailabilityRepository availabilityRepository;
+    private final ApplicationViewRepository applicationViewRepository;
+    private final ApplicationViewProjector applicationViewProjector;
 
     /**
      * Creates the service with the required repositories used for persistence.
@@ -45,15 +63,22 @@ public class ApplicationService {
      * @param competenceProfileRepository repository managing CompetenceProfile
      *                                    entities
      * @param availabilityRepository      repository managing Availability entities
+     * @param applicationViewRepository   repository managing the application
+     *                                    read model
+     * @param applicationViewProjector    keeps the read model in sync with writes
      */
     public ApplicationService(PersonRepository personRepository,
             CompetenceRepository competenceRepository,
             CompetenceProfileRepository competenceProfileRepository,
-            AvailabilityRepository availabilityRepository) {
+            AvailabilityRepository availabilityRepository,
+            ApplicationViewRepository applicationViewRepository,
+            ApplicationViewProjector applicationViewProjector) {
         this.personRepository = personRepository;
         this.competenceRepository = competenceRepository;
         this.competenceProfileRepository = competenceProfileRepository;
         this.availabilityRepository = availabilityRepository;
+        this.applicationViewRepository = applicationViewRepository;
+        this.applicationViewProjector = applicationViewProjector;
     }
 
     /**
@@ -71,16 +96,34 @@ public class ApplicationService {
     /**
      * Returns summary information for all stored recruitment applications.
      *
-     * Each Person returned from the repository is transformed into an
-     * ApplicationSummaryDTO. The method currently loads all persons into memory,
-     * which may require pagination in the future if the dataset grows large.
+     * Each submitted application in the read model is transformed into an
+     * ApplicationSummaryDTO. The method currently loads all applications into
+     * memory, which may require pagination in the future if the dataset grows
+     * large.
      *
      * @return a list of application summaries representing all applicants
      */
     public List<ApplicationSummaryDTO> getAllApplications() {
-        return personRepository.findAll()
+        return applicationViewRepository.findSubmittedApplications()
+                .stream()
+                .map(this::mapToSummaryDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns summary information for all applications with the given status.
+     *
+     * Unlike {@link #getAllApplications()}, the filtering happens in the
+     * database and is served by the status index on the read model, so the
+     * UNHANDLED applications can be fetched without reading every row.
+     *
+     * @param status the status name, one of UNHANDLED, ACCEPTED or REJECTED
+     * @return a list of application summaries with the given status
+     * @throws ResponseStatusException with 400 status if the status is invalid
+     */
+    public List<ApplicationSummaryDTO> getApplicationsByStatus(String status) {
+        return applicationViewRepository.findSubmittedApplicationsByStatus(parseStatus(status))
                 .stream()
-                .filter(p -> p.getName() != null && p.getSurname() != null)
                 .map(this::mapToSummaryDTO)
                 .collect(Collectors.toList());
     }
@@ -89,9 +132,9 @@ public class ApplicationService {
      * Creates or updates a recruitment application for the specified user.
      *
      * The method loads an existing Person by userId or creates a new one if none
-     * exists, then copies personal data from the provided DTO and ensures a
-     * default status of "UNHANDLED" when no status is set. The person is saved
-     * before related competences and availability periods are persisted.
+     * exists, then copies personal data from the provided DTO. New persons start
+     * out as UNHANDLED. The person is saved before related competences and
+     * availability periods are persisted.
      *
      * Competence entries must reference existing Competence records. If a
      * referenced competence cannot be found, a RuntimeException is thrown and
@@ -113,10 +156,6 @@ public class ApplicationService {
         person.setName(dto.getName());
         person.setSurname(dto.getSurname());
 
-        if (person.getStatus() == null) {
-            person.setStatus("UNHANDLED");
-        }
-
         personRepository.save(person);
 
         if (dto.getCompetences() != null) {
@@ -141,6 +180,8 @@ public class ApplicationService {
                 availabilityRepository.save(availability);
             });
         }
+
+        applicationViewProjector.refresh(userId);
     }
 
     /**
@@ -159,10 +200,6 @@ public class ApplicationService {
         person.setName(dto.getName());
         person.setSurname(dto.getSurname());
 
-        if (person.getStatus() == null) {
-            person.setStatus("UNHANDLED");
-        }
-
         personRepository.save(person);
 
         competenceProfileRepository.deleteByPerson_Id(userId);
@@ -190,66 +227,136 @@ public class ApplicationService {
                 availabilityRepository.save(availability);
             });
         }
+
+        applicationViewProjector.refresh(userId);
     }
 
     /**
      * Creates a person record with basic information during registration.
-     * Called by the auth service as part of the registration saga.
+     * Called by the auth service's outbox relay as part of the registration saga.
+     *
+     * The call is idempotent: the relay retries when a response is lost, so a
+     * person that already exists with the given ID, email and pnr is left
+     * unchanged and reported as not created. An existing person with the same
+     * ID but other data is a different person, and the call is rejected.
      *
      * @param dto the person data containing personId, email, and pnr
+     * @return true if the person was created, false if it already existed
+     * @throws ResponseStatusException with 409 status if the ID belongs to a
+     *                                 different person or another person has the email
      */
-    public void createPerson(PersonCreateDTO dto) {
+    public boolean createPerson(PersonCreateDTO dto) {
+        Optional<Person> existing = personRepository.findById(dto.getPersonId());
+        if (existing.isPresent()) {
+            if (isSamePerson(existing.get(), dto)) {
+                return false;
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT, ID_TAKEN);
+        }
+        if (dto.getEmail() != null && personRepository.existsByEmail(dto.getEmail())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, EMAIL_TAKEN);
+        }
+
         Person person = new Person();
         person.setId(dto.getPersonId());
         person.setEmail(dto.getEmail());
         person.setPnr(dto.getPnr());
-        person.setStatus("UNHANDLED");
         personRepository.save(person);
+        applicationViewProjector.refresh(dto.getPersonId());
+        return true;
     }
 
-    private static final Set<String> VALID_STATUSES = Set.of("UNHANDLED", "ACCEPTED", "REJECTED");
+    /**
+     * Whether a create request describes a person that already exists, i.e.
+     * is a redelivery of the request that created it.
+     */
+    private static boolean isSamePerson(Person person, PersonCreateDTO dto) {
+        return Objects.equals(person.getEmail(), dto.getEmail()) && Objects.equals(person.getPnr(), dto.getPnr());
+    }
+
+    /**
+     * Creates many person records at once, with the same idempotent
+     * semantics as {@link #createPerson(PersonCreateDTO)} per entry.
+     *
+     * Existing persons and emails are looked up with one query each, and the
+     * new persons and their read model rows are inserted in JDBC batches
+     * (hibernate.jdbc.batch_size), so the number of statements does not grow
+     * per entry. An entry whose ID belongs to a person with another email or
+     * pnr, or whose email is already in use, also by an earlier entry of the
+     * same batch, is reported as CONFLICT with the reason, without failing
+     * the others.
+     *
+     * @param dtos the persons to create
+     * @return the outcome of each entry, in request order
+     */
+    public List<PersonCreateResultDTO> createPersons(List<PersonCreateDTO> dtos) {
+        List<Long> ids = dtos.stream().map(PersonCreateDTO::getPersonId).collect(Collectors.toList());
+        List<String> emails = dtos.stream().map(PersonCreateDTO::getEmail)
+                .filter(Objects::nonNull).collect(Collectors.toList());
+
+        Map<Long, Person> known = personRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Person::getId, Function.identity()));
+        Set<String> takenEmails = emails.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(personRepository.findExistingEmails(emails));
+
+        List<Person> created = new ArrayList<>();
+        List<PersonCreateResultDTO> results = new ArrayList<>(dtos.size());
+        for (PersonCreateDTO dto : dtos) {
+            PersonCreateResultDTO.Outcome outcome;
+            String reason = null;
+            Person existing = known.get(dto.getPersonId());
+            if (existing != null) {
+                if (isSamePerson(existing, dto)) {
+                    outcome = PersonCreateResultDTO.Outcome.EXISTS;
+                } else {
+                    outcome = PersonCreateResultDTO.Outcome.CONFLICT;
+                    reason = ID_TAKEN;
+                }
+            } else if (dto.getEmail() != null && !takenEmails.add(dto.getEmail())) {
+                outcome = PersonCreateResultDTO.Outcome.CONFLICT;
+                reason = EMAIL_TAKEN;
+            } else {
+                Person person = new Person();
+                person.setId(dto.getPersonId());
+                person.setEmail(dto.getEmail());
+                person.setPnr(dto.getPnr());
+                created.add(person);
+                known.put(person.getId(), person);
+                outcome = PersonCreateResultDTO.Outcome.CREATED;
+            }
+            results.add(new PersonCreateResultDTO(dto.getPersonId(), outcome, reason));
+        }
+
+        personRepository.saveAll(created);
+        applicationViewProjector.createViews(created);
+        return results;
+    }
 
     /**
      * Returns the full details of a specific recruitment application.
      *
-     * Loads the Person entity along with their competence profiles and
-     * availability periods, then maps all data into an ApplicationDetailDTO.
+     * The application is read from the read model as a single row, with the
+     * competences and availability periods embedded in it.
      *
      * @param id the person ID of the application to retrieve
      * @return a detailed DTO containing all application information
      * @throws ResponseStatusException with 404 status if no person is found
      */
     public ApplicationDetailDTO getApplicationById(Long id) {
-        Person person = personRepository.findById(id)
+        ApplicationView view = applicationViewRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Application not found"));
 
-        List<CompetenceProfile> profiles = competenceProfileRepository.findByPerson_Id(id);
-        List<Availability> availabilities = availabilityRepository.findByPerson_Id(id);
-
         ApplicationDetailDTO dto = new ApplicationDetailDTO();
-        dto.setPersonID(person.getId());
-        dto.setName(person.getName());
-        dto.setSurname(person.getSurname());
-        dto.setEmail(person.getEmail());
-        dto.setPnr(person.getPnr());
-        dto.setStatus(person.getStatus() != null ? person.getStatus() : "UNHANDLED");
-        dto.setVersion(person.getVersion());
-
-        dto.setCompetences(profiles.stream().map(p -> {
-            CompetenceDTO c = new CompetenceDTO();
-            c.setCompetenceId(p.getCompetence().getCompetenceId());
-            c.setName(p.getCompetence().getName());
-            c.setYearsOfExperience(p.getYearsOfExperience());
-            return c;
-        }).collect(Collectors.toList()));
-
-        dto.setAvailabilities(availabilities.stream().map(a -> {
-            AvailabilityDTO av = new AvailabilityDTO();
-            av.setFromDate(a.getFromDate());
-            av.setToDate(a.getToDate());
-            return av;
-        }).collect(Collectors.toList()));
-
+        dto.setPersonID(view.getPersonId());
+        dto.setName(view.getName());
+        dto.setSurname(view.getSurname());
+        dto.setEmail(view.getEmail());
+        dto.setPnr(view.getPnr());
+        dto.setStatus(view.getStatus().name());
+        dto.setVersion(view.getPersonVersion());
+        dto.setCompetences(view.getCompetences());
+        dto.setAvailabilities(view.getAvailabilities());
         return dto;
     }
 
@@ -263,19 +370,22 @@ public class ApplicationService {
      * to detect concurrent modifications. If another user has already modified the
      * application, a 409 Conflict is returned.
      *
+     * If the application is leased to another recruiter through the work queue
+     * (see {@link WorkQueueService}), the update is rejected with 409 as well.
+     * A successful update releases the lease.
+     *
      * @param id              the person ID of the application to update
      * @param status          the new status value
      * @param expectedVersion the version the client loaded, used for optimistic
      *                        locking
+     * @param recruiterId     the recruiter performing the update, may be null
      * @throws ResponseStatusException with 404 if no person is found,
      *                                 400 if the status value is invalid, or 409 if
-     *                                 the version does not match
+     *                                 the version does not match or the
+     *                                 application is leased to another recruiter
      */
-    public void updateApplicationStatus(Long id, String status, Long expectedVersion) {
-        if (!VALID_STATUSES.contains(status)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Invalid status. Must be one of: UNHANDLED, ACCEPTED, REJECTED");
-        }
+    public void updateApplicationStatus(Long id, String status, Long expectedVersion, Long recruiterId) {
+        ApplicationStatus newStatus = parseStatus(status);
 
         Person person = personRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Application not found"));
@@ -286,9 +396,17 @@ public class ApplicationService {
                     "This application has been modified by another user. Please refresh and try again.");
         }
 
-        person.setStatus(status);
+        if (person.isLeasedToOther(recruiterId, Instant.now())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "This application is being reviewed by another recruiter.");
+        }
+
+        person.setStatus(newStatus);
+        person.setLeaseHolder(null);
+        person.setLeaseExpiresAt(null);
         try {
             personRepository.save(person);
+            applicationViewProjector.refresh(id);
         } catch (ObjectOptimisticLockingFailureException e) {
             throw new ResponseStatusException(HttpStatus.CONFLICT,
                     "This application has been modified by another user. Please refresh and try again.");
@@ -296,20 +414,50 @@ public class ApplicationService {
     }
 
     /**
-     * Converts a Person entity into an ApplicationSummaryDTO.
+     * Parses a status name into an {@link ApplicationStatus}.
+     *
+     * @param status the status name
+     * @return the parsed status
+     * @throws ResponseStatusException with 400 status if the status is invalid
+     */
+    private ApplicationStatus parseStatus(String status) {
+        ApplicationStatus parsed = ApplicationStatus.fromName(status);
+        if (parsed == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid status. Must be one of: UNHANDLED, ACCEPTED, REJECTED");
+        }
+        return parsed;
+    }
+
+    /**
+     * Converts a read model row into an ApplicationSummaryDTO.
+     *
+     * @param view the read model row to convert
+     * @return a populated summary DTO for presentation or transport
+     */
+    private ApplicationSummaryDTO mapToSummaryDTO(ApplicationView view) {
+        return mapToSummaryDTO(view.getPersonId(), view.getName(), view.getSurname(), view.getStatus());
+    }
+
+    /**
+     * Builds an ApplicationSummaryDTO. Shared with {@link WorkQueueService},
+     * which maps claimed Person entities instead of read model rows.
      *
      * The summary contains the person's identifier, full name created from the
-     * stored name and surname, and the current application status. If the status
-     * is null, it is represented as "UNHANDLED" in the DTO.
+     * stored name and surname, and the current application status.
      *
-     * @param person the entity to convert
+     * @param personId the applicant's person ID
+     * @param name     the applicant's first name
+     * @param surname  the applicant's surname
+     * @param status   the application status
      * @return a populated summary DTO for presentation or transport
      */
-    private ApplicationSummaryDTO mapToSummaryDTO(Person person) {
+    static ApplicationSummaryDTO mapToSummaryDTO(Long personId, String name, String surname,
+            ApplicationStatus status) {
         ApplicationSummaryDTO dto = new ApplicationSummaryDTO();
-        dto.setPersonID(person.getId());
-        dto.setFullName(person.getName() + " " + person.getSurname());
-        dto.setStatus(person.getStatus() != null ? person.getStatus() : "UNHANDLED");
+        dto.setPersonID(personId);
+        dto.setFullName(name + " " + surname);
+        dto.setStatus(status.name());
         return dto;
     }
 
@@ -352,5 +500,6 @@ public class ApplicationService {
         }
 
         personRepository.save(person);
+        applicationViewProjector.refresh(userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.iv1201.recruitment.service;
+
+import com.iv1201.recruitment.dto.AvailabilityDTO;
+import com.iv1201.recruitment.dto.CompetenceDTO;
+import com.iv1201.recruitment.model.*;
+import com.iv1201.recruitment.repository.*;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the denormalized {@link ApplicationView} read model.
+ *
+ * {@link ApplicationService} calls {@link #refresh(Long)} after every write to
+ * person, competence_profile or availability, inside the same transaction, so
+ * the view commits or rolls back together with the normalized tables.
+ * {@link #rebuildAll()} recreates every row from the normalized tables and is
+ * used to fill the view for existing data.
+ */
+@Service
+@Transactional
+public class ApplicationViewProjector {
+
+    /** Number of persons projected per round trip during a bulk rebuild */
+    static final int REBUILD_BATCH_SIZE = 500;
+
+    private final PersonRepository personRepository;
+    private final CompetenceProfileRepository competenceProfileRepository;
+    private final AvailabilityRepository availabilityRepository;
+    private final ApplicationViewRepository applicationViewRepository;
+    private final EntityManager entityManager;
+
+    /**
+     * @param personRepository            repository managing Person entities
+     * @param competenceProfileRepository repository managing CompetenceProfile
+     *                                    entities
+     * @param availabilityRepository      repository managing Availability entities
+     * @param applicationViewRepository   repository managing the read model
+     * @param entityManager               used to clear the persistence context
+     *                                    between rebuild batches
+     */
+    public ApplicationViewProjector(PersonRepository personRepository,
+            CompetenceProfileRepository competenceProfileRepository,
+            AvailabilityRepository availabilityRepository,
+            ApplicationViewRepository applicationViewRepository,
+            EntityManager entityManager) {
+        this.personRepository = personRepository;
+        this.competenceProfileRepository = competenceProfileRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.applicationViewRepository = applicationViewRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Rewrites the read model row of one person from the normalized tables.
+     *
+     * Pending changes are flushed first, so the stored person version is the
+     * one the current transaction will commit.
+     *
+     * @param personId the person whose application changed
+     * @throws IllegalStateException if the person does not exist
+     */
+    public void refresh(Long personId) {
+        personRepository.flush();
+        Person person = personRepository.findById(personId)
+                .orElseThrow(() -> new IllegalStateException("Person " + personId + " not found"));
+
+        ApplicationView view = applicationViewRepository.findById(personId).orElseGet(ApplicationView::new);
+        project(view, person,
+                competenceProfileRepository.findByPerson_Id(personId),
+                availabilityRepository.findByPerson_Id(personId));
+        applicationViewRepository.save(view);
+    }
+
+    /**
+     * Inserts the read model rows of newly created persons.
+     *
+     * New persons have no competences or availabilities yet, so the rows are
+     * projected from the entities without reading anything back, and are
+     * persisted directly so the inserts can be batched.
+     *
+     * @param persons persons created in the current transaction
+     */
+    public void createViews(List<Person> persons) {
+        personRepository.flush();
+        for (Person person : persons) {
+            ApplicationView view = new ApplicationView();
+            project(view, person, List.of(), List.of());
+            entityManager.persist(view);
+        }
+    }
+
+    /**
+     * Recreates the whole read model from the normalized tables.
+     *
+     * Persons are processed in pages of {@link #REBUILD_BATCH_SIZE}; the
+     * competence profiles and availabilities of a page are loaded with one
+     * query each, and the persistence context is cleared between pages so
+     * memory use does not grow with the table.
+     *
+     * @return the number of projected persons
+     */
+    public long rebuildAll() {
+        applicationViewRepository.deleteAllInBatch();
+
+        long projected = 0;
+        PageRequest pageRequest = PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id"));
+        Page<Person> page;
+        do {
+            page = personRepository.findAll(pageRequest);
+            List<Long> ids = page.stream().map(Person::getId).collect(Collectors.toList());
+
+            Map<Long, List<CompetenceProfile>> profiles = competenceProfileRepository.findByPerson_IdIn(ids)
+                    .stream().collect(Collectors.groupingBy(p -> p.getPerson().getId()));
+            Map<Long, List<Availability>> availabilities = availabilityRepository.findByPerson_IdIn(ids)
+                    .stream().collect(Collectors.groupingBy(a -> a.getPerson().getId()));
+
+            List<ApplicationView> views = new ArrayList<>();
+            for (Person person : page) {
+                ApplicationView view = new ApplicationView();
+                project(view, person,
+                        profiles.getOrDefault(person.getId(), List.of()),
+                        availabilities.getOrDefault(person.getId(), List.of()));
+                views.add(view);
+            }
+            applicationViewRepository.saveAll(views);
+            applicationViewRepository.flush();
+            entityManager.clear();
+
+            projected += views.size();
+            pageRequest = pageRequest.next();
+        } while (page.hasNext());
+
+        return projected;
+    }
+
+    /**
+     * Copies a person and their competences and availabilities into a view row.
+     */
+    private void project(ApplicationView view, Person person,
+            List<CompetenceProfile> profiles, List<Availability> availabilities) {
+        view.setPersonId(person.getId());
+        view.setName(person.getName());
+        view.setSurname(person.getSurname());
+        view.setEmail(person.getEmail());
+        view.setPnr(person.getPnr());
+        view.setStatus(person.getStatus());
+        view.setPersonVersion(person.getVersion());
+
+        view.setCompetences(profiles.stream().map(p -> {
+            CompetenceDTO c = new CompetenceDTO();
+            c.setCompetenceId(p.getCompetence().getCompetenceId());
+            c.setName(p.getCompetence().getName());
+            c.setYearsOfExperience(p.getYearsOfExperience());
+            return c;
+        }).collect(Collectors.toList()));
+
+        view.setAvailabilities(availabilities.stream().map(a -> {
+            AvailabilityDTO av = new AvailabilityDTO();
+            av.setFromDate(a.getFromDate());
+            av.setToDate(a.getToDate());
+            return av;
+        }).collect(Collectors.toList()));
+    }
+}
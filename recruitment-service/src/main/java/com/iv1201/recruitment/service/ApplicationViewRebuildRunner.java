@@ -0,0 +1,57 @@
+package com.iv1201.recruitment.service;
+
+import com.iv1201.recruitment.repository.ApplicationViewRepository;
+import com.iv1201.recruitment.repository.PersonRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the application read model on startup.
+ *
+ * The view is rebuilt when {@code recruitment.read-model.rebuild-on-startup}
+ * is true, or when it is empty while there are persons, which is the case the
+ * first time the service starts against an existing database.
+ */
+@Component
+public class ApplicationViewRebuildRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationViewRebuildRunner.class);
+
+    private final ApplicationViewProjector projector;
+    private final ApplicationViewRepository applicationViewRepository;
+    private final PersonRepository personRepository;
+    private final boolean rebuildOnStartup;
+
+    /**
+     * @param projector                 the projector doing the rebuild
+     * @param applicationViewRepository repository managing the read model
+     * @param personRepository          repository managing Person entities
+     * @param rebuildOnStartup          whether to always rebuild on startup
+     */
+    public ApplicationViewRebuildRunner(ApplicationViewProjector projector,
+            ApplicationViewRepository applicationViewRepository,
+            PersonRepository personRepository,
+            @Value("${recruitment.read-model.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.projector = projector;
+        this.applicationViewRepository = applicationViewRepository;
+        this.personRepository = personRepository;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        boolean missing = applicationViewRepository.count() == 0 && personRepository.count() > 0;
+        if (!rebuildOnStartup && !missing) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long projected = projector.rebuildAll();
+        log.info("Rebuilt application read model: {} persons in {} ms",
+                projected, System.currentTimeMillis() - start);
+    }
+}
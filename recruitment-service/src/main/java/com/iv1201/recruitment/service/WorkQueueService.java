@@ -0,0 +1,87 @@
+package com.iv1201.recruitment.service;
+
+import com.iv1201.recruitment.dto.ApplicationSummaryDTO;
+import com.iv1201.recruitment.model.ApplicationStatus;
+import com.iv1201.recruitment.model.Person;
+import com.iv1201.recruitment.repository.PersonRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service that hands out UNHANDLED applications to recruiters as a work queue.
+ *
+ * A claim locks the next free applications with
+ * {@code SELECT ... FOR UPDATE SKIP LOCKED} and leases them to the recruiter
+ * for a limited time. Concurrent claims skip each other's locked rows, so two
+ * recruiters never receive the same application and never wait on each
+ * other. A lease that is not released by a status update simply expires and
+ * the application becomes claimable again.
+ */
+@Service
+@Transactional
+public class WorkQueueService {
+
+    /** Number of applications claimed when the client does not ask for a size */
+    public static final int DEFAULT_BATCH_SIZE = 10;
+
+    /** Upper bound on a single claim, so one recruiter cannot drain the queue */
+    public static final int MAX_BATCH_SIZE = 50;
+
+    private final PersonRepository personRepository;
+    private final Duration leaseDuration;
+
+    /**
+     * @param personRepository repository managing Person entities
+     * @param leaseDuration    how long a claimed application stays reserved
+     */
+    public WorkQueueService(PersonRepository personRepository,
+            @Value("${recruitment.queue.lease-duration:PT15M}") Duration leaseDuration) {
+        this.personRepository = personRepository;
+        this.leaseDuration = leaseDuration;
+    }
+
+    /**
+     * Claims the next batch of UNHANDLED applications for a recruiter.
+     *
+     * Applications already leased to the same recruiter are handed out again
+     * and their lease is renewed, so a recruiter that reloads the queue keeps
+     * the work they were given.
+     *
+     * @param recruiterId the recruiter claiming work
+     * @param limit       the maximum number of applications to claim
+     * @return summaries of the claimed applications, ordered by person ID
+     * @throws ResponseStatusException with 400 status if the limit is not
+     *                                 between 1 and {@link #MAX_BATCH_SIZE}
+     */
+    public List<ApplicationSummaryDTO> claimApplications(Long recruiterId, int limit) {
+        if (limit < 1 || limit > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Limit must be between 1 and " + MAX_BATCH_SIZE);
+        }
+
+        Instant now = Instant.now();
+        List<Person> claimed = personRepository.lockClaimableApplications(
+                ApplicationStatus.UNHANDLED, recruiterId, now, PageRequest.of(0, limit));
+
+        if (!claimed.isEmpty()) {
+            personRepository.leaseApplications(
+                    claimed.stream().map(Person::getId).collect(Collectors.toList()),
+                    recruiterId, now.plus(leaseDuration));
+        }
+
+        return claimed.stream()
+                .map(person -> ApplicationService.mapToSummaryDTO(
+                        person.getId(), person.getName(), person.getSurname(), person.getStatus()))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,8 +1,8 @@
 package com.iv1201.recruitment.validation;
 
+import com.iv1201.recruitment.model.ApplicationStatus;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
-import java.util.Set;
 
 /**
  * Validator implementation for @ValidStatus annotation.
@@ -10,8 +10,6 @@ import java.util.Set;
  */
 public class ValidStatusValidator implements ConstraintValidator<ValidStatus, String> {
 
-    private static final Set<String> VALID_STATUSES = Set.of("UNHANDLED", "ACCEPTED", "REJECTED");
-
     /** {@inheritDoc} */
     @Override
     public void initialize(ValidStatus constraintAnnotation) {
@@ -23,6 +21,6 @@ public class ValidStatusValidator implements ConstraintValidator<ValidStatus, St
         if (value == null || value.isBlank()) {
             return true; // Let @NotBlank handle null/blank validation
         }
-        return VALID_STATUSES.contains(value.toUpperCase());
+        return ApplicationStatus.fromName(value) != null;
     }
 }
@@ -0,0 +1,39 @@
+-- Baseline schema of the recruitment database.
+--
+-- Existing databases that were seeded from recruitment-db.sql are baselined at
+-- this version (spring.flyway.baseline-on-migrate), so this script only runs
+-- against empty databases.
+
+CREATE TABLE role (
+    role_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name    VARCHAR(255)
+);
+
+CREATE TABLE person (
+    person_id BIGINT PRIMARY KEY,
+    name      VARCHAR(255),
+    surname   VARCHAR(255),
+    pnr       VARCHAR(255),
+    email     VARCHAR(255),
+    status    VARCHAR(255),
+    version   BIGINT DEFAULT 0
+);
+
+CREATE TABLE competence (
+    competence_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name          VARCHAR(255)
+);
+
+CREATE TABLE competence_profile (
+    competence_profile_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    person_id             BIGINT REFERENCES person (person_id),
+    competence_id         BIGINT REFERENCES competence (competence_id),
+    years_of_experience   NUMERIC(4, 2)
+);
+
+CREATE TABLE availability (
+    availability_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    person_id       BIGINT REFERENCES person (person_id),
+    from_date       DATE,
+    to_date         DATE
+);
@@ -0,0 +1,14 @@
+-- Indexes backing the repository access paths.
+--
+-- PostgreSQL does not index foreign key columns automatically, so the
+-- per-applicant lookups and replace-all deletes in CompetenceProfileRepository
+-- and AvailabilityRepository (findByPerson_Id / deleteByPerson_Id) would
+-- otherwise scan the whole table.
+
+CREATE INDEX IF NOT EXISTS idx_competence_profile_person_id ON competence_profile (person_id);
+
+CREATE INDEX IF NOT EXISTS idx_availability_person_id ON availability (person_id);
+
+-- PersonRepository.existsByEmail, also enforces the uniqueness that
+-- ApplicationService.updateUserProfile checks for.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_person_email ON person (email);
@@ -0,0 +1,17 @@
+-- Store person.status as a compact smallint code instead of free-form text.
+-- Codes match ApplicationStatus: 0 = UNHANDLED, 1 = ACCEPTED, 2 = REJECTED.
+-- Missing or unknown statuses become UNHANDLED.
+
+DROP INDEX IF EXISTS idx_person_status_unhandled;
+
+ALTER TABLE person ADD COLUMN status_code SMALLINT DEFAULT 0 NOT NULL;
+
+UPDATE person SET status_code = CASE status
+    WHEN 'ACCEPTED' THEN 1
+    WHEN 'REJECTED' THEN 2
+    ELSE 0
+END;
+
+ALTER TABLE person DROP COLUMN status;
+
+ALTER TABLE person RENAME COLUMN status_code TO status;
@@ -0,0 +1,6 @@
+-- Review lease for the recruiter work queue. An UNHANDLED application that is
+-- leased to a recruiter is not handed out again until the lease expires.
+
+ALTER TABLE person ADD COLUMN lease_holder BIGINT;
+
+ALTER TABLE person ADD COLUMN lease_expires_at TIMESTAMP WITH TIME ZONE;
@@ -0,0 +1,4 @@
+-- H2 has no partial indexes; the test database uses a plain index on status
+-- under the same name as the PostgreSQL partial index.
+
+CREATE INDEX IF NOT EXISTS idx_person_status_unhandled ON person (status, person_id);
@@ -0,0 +1,3 @@
+-- H2 has no partial indexes; see postgresql/V5__status_indexes.sql.
+
+CREATE INDEX IF NOT EXISTS idx_person_status ON person (status, person_id);
@@ -0,0 +1,15 @@
+-- Same as the PostgreSQL script, with JSON columns instead of JSONB.
+
+CREATE TABLE application_view (
+    person_id BIGINT PRIMARY KEY,
+    name VARCHAR(255),
+    surname VARCHAR(255),
+    email VARCHAR(255),
+    pnr VARCHAR(255),
+    status SMALLINT NOT NULL DEFAULT 0,
+    person_version BIGINT,
+    competences JSON,
+    availabilities JSON
+);
+
+CREATE INDEX idx_application_view_status ON application_view (status, person_id);
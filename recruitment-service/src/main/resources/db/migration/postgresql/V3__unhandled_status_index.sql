@@ -0,0 +1,5 @@
+-- Partial index over the recruiter work queue. Only UNHANDLED applications are
+-- indexed, so the index stays small while handled applications accumulate.
+
+CREATE INDEX IF NOT EXISTS idx_person_status_unhandled ON person (person_id)
+    WHERE status = 'UNHANDLED';
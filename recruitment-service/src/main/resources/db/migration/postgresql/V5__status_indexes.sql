@@ -0,0 +1,8 @@
+-- Status indexes for the smallint status column.
+-- The partial index keeps the UNHANDLED work queue small; the composite index
+-- serves the (rarer) ACCEPTED and REJECTED listings.
+
+CREATE INDEX IF NOT EXISTS idx_person_status_unhandled ON person (person_id)
+    WHERE status = 0;
+
+CREATE INDEX IF NOT EXISTS idx_person_status ON person (status, person_id);
@@ -0,0 +1,17 @@
+-- Denormalized read model, one row per person with competences and
+-- availabilities embedded as JSON. Maintained by ApplicationViewProjector and
+-- filled for existing data by ApplicationViewRebuildRunner on startup.
+
+CREATE TABLE application_view (
+    person_id BIGINT PRIMARY KEY,
+    name VARCHAR(255),
+    surname VARCHAR(255),
+    email VARCHAR(255),
+    pnr VARCHAR(255),
+    status SMALLINT NOT NULL DEFAULT 0,
+    person_version BIGINT,
+    competences JSONB,
+    availabilities JSONB
+);
+
+CREATE INDEX idx_application_view_status ON application_view (status, person_id);
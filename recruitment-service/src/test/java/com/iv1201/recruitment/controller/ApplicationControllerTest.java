@@ -52,6 +52,23 @@ class ApplicationControllerTest {
             .andExpect(jsonPath("$[0].status").value("UNHANDLED"));
     }
 
+    @Test
+    void getAllApplications_withStatusParam_returnsStatusScopedList() throws Exception {
+        ApplicationSummaryDTO dto = new ApplicationSummaryDTO();
+        dto.setPersonID(2L);
+        dto.setFullName("Alice Doe");
+        dto.setStatus("UNHANDLED");
+
+        when(applicationService.getApplicationsByStatus("UNHANDLED")).thenReturn(List.of(dto));
+
+        mockMvc.perform(get("/api/recruitment/applications").param("status", "UNHANDLED"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].personID").value(2))
+            .andExpect(jsonPath("$[0].status").value("UNHANDLED"));
+
+        verify(applicationService).getApplicationsByStatus("UNHANDLED");
+    }
+
     private static final String VALID_APPLICATION_JSON = "{" +
             "\"name\":\"Alice\"," +
             "\"surname\":\"Doe\"," +
@@ -145,7 +162,18 @@ class ApplicationControllerTest {
                 .content("{\"status\":\"ACCEPTED\",\"version\":1}"))
             .andExpect(status().isOk());
 
-        verify(applicationService).updateApplicationStatus(9L, "ACCEPTED", 1L);
+        verify(applicationService).updateApplicationStatus(9L, "ACCEPTED", 1L, null);
+    }
+
+    @Test
+    void updateApplicationStatus_forwardsRecruiterIdFromHeader() throws Exception {
+        mockMvc.perform(put("/api/recruitment/applications/9/status")
+                .header("X-User-ID", "42")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"ACCEPTED\",\"version\":1}"))
+            .andExpect(status().isOk());
+
+        verify(applicationService).updateApplicationStatus(9L, "ACCEPTED", 1L, 42L);
     }
 }
 
@@ -39,4 +39,23 @@ class CompetenceControllerTest {
                 .andExpect(jsonPath("$[0].competenceId").value(1))
                 .andExpect(jsonPath("$[0].yearsOfExperience").value(5.0));
     }
+
+    @Test
+    void getAllCompetences_isCacheableAndRevalidatedByEtag() throws Exception {
+        CompetenceDTO dto = new CompetenceDTO();
+        dto.setCompetenceId(1L);
+        dto.setName("ticket sales");
+
+        when(competenceService.getAllCompetences())
+                .thenReturn(List.of(dto));
+
+        String etag = mockMvc.perform(get("/api/recruitment/competences"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=300, public, stale-while-revalidate=60"))
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/recruitment/competences").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
 }
@@ -0,0 +1,40 @@
+package com.iv1201.recruitment.repository;
+
+import org.hibernate.LockOptions;
+import org.hibernate.dialect.H2Dialect;
+
+/**
+ * H2 dialect that renders {@code FOR UPDATE SKIP LOCKED}.
+ *
+ * H2 has supported SKIP LOCKED since 2.2, but Hibernate's H2Dialect still
+ * renders a plain {@code FOR UPDATE} for it. Without this the tests would
+ * run the work queue claim with blocking row locks instead of the skipping
+ * ones used on PostgreSQL.
+ */
+public class H2SkipLockedDialect extends H2Dialect {
+
+    @Override
+    public boolean supportsSkipLocked() {
+        return true;
+    }
+
+    @Override
+    public String getForUpdateSkipLockedString() {
+        return getForUpdateString() + " skip locked";
+    }
+
+    @Override
+    public String getForUpdateSkipLockedString(String aliases) {
+        return getForUpdateSkipLockedString();
+    }
+
+    @Override
+    public String getWriteLockString(int timeout) {
+        return timeout == LockOptions.SKIP_LOCKED ? getForUpdateSkipLockedString() : super.getWriteLockString(timeout);
+    }
+
+    @Override
+    public String getWriteLockString(String aliases, int timeout) {
+        return getWriteLockString(timeout);
+    }
+}
@@ -1,13 +1,18 @@
 package com.iv1201.recruitment.repository;
 
+import com.iv1201.recruitment.model.ApplicationStatus;
 import com.iv1201.recruitment.model.Person;
 import com.iv1201.recruitment.repository.PersonRepository;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.Instant;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
@@ -43,4 +48,70 @@ class PersonRepositoryTest {
         
         assertThat(result).isFalse();
     }
+
+    @Test
+    void newPerson_defaultsToUnhandled() {
+        Person person = new Person();
+        person.setId(5L);
+
+        personRepository.saveAndFlush(person);
+
+        assertThat(personRepository.findById(5L).orElseThrow().getStatus())
+                .isEqualTo(ApplicationStatus.UNHANDLED);
+    }
+
+    @Test
+    void lockClaimableApplications_skipsApplicationsLeasedToOthers() {
+        Instant now = Instant.now();
+        personRepository.save(applicant(1L, "Anna", ApplicationStatus.UNHANDLED));
+        personRepository.save(leased(applicant(2L, "Bert", ApplicationStatus.UNHANDLED), 100L, now.plusSeconds(600)));
+        personRepository.save(leased(applicant(3L, "Carl", ApplicationStatus.UNHANDLED), 100L, now.minusSeconds(1)));
+        personRepository.save(leased(applicant(4L, "Dora", ApplicationStatus.UNHANDLED), 200L, now.plusSeconds(600)));
+        personRepository.save(applicant(5L, "Erik", ApplicationStatus.ACCEPTED));
+
+        List<Person> claimable = personRepository.lockClaimableApplications(
+                ApplicationStatus.UNHANDLED, 200L, now, PageRequest.of(0, 10));
+
+        assertThat(claimable).extracting(Person::getId).containsExactly(1L, 3L, 4L);
+    }
+
+    @Test
+    void lockClaimableApplications_respectsLimit() {
+        personRepository.save(applicant(1L, "Anna", ApplicationStatus.UNHANDLED));
+        personRepository.save(applicant(2L, "Bert", ApplicationStatus.UNHANDLED));
+
+        List<Person> claimable = personRepository.lockClaimableApplications(
+                ApplicationStatus.UNHANDLED, 200L, Instant.now(), PageRequest.of(0, 1));
+
+        assertThat(claimable).extracting(Person::getId).containsExactly(1L);
+    }
+
+    @Test
+    void leaseApplications_setsLeaseWithoutBumpingVersion() {
+        Person saved = personRepository.saveAndFlush(applicant(1L, "Anna", ApplicationStatus.UNHANDLED));
+        Long version = saved.getVersion();
+        Instant expiresAt = Instant.now().plusSeconds(600);
+
+        int updated = personRepository.leaseApplications(List.of(1L), 100L, expiresAt);
+        personRepository.flush();
+
+        assertThat(updated).isEqualTo(1);
+        Person found = personRepository.findAll().get(0);
+        assertThat(found.getVersion()).isEqualTo(version);
+    }
+
+    private Person leased(Person person, Long recruiterId, Instant expiresAt) {
+        person.setLeaseHolder(recruiterId);
+        person.setLeaseExpiresAt(expiresAt);
+        return person;
+    }
+
+    private Person applicant(Long id, String name, ApplicationStatus status) {
+        Person person = new Person();
+        person.setId(id);
+        person.setName(name);
+        person.setSurname(name != null ? "Testsson" : null);
+        person.setStatus(status);
+        return person;
+    }
 }
\ No newline at end of file
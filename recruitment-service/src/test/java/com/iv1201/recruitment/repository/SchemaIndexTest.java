@@ -0,0 +1,82 @@
+package com.iv1201.recruitment.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the Flyway migrations against H2 and checks with EXPLAIN that the hot
+ * repository queries are served by the migrated indexes.
+ */
+@JdbcTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.flyway.enabled=true")
+class SchemaIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toUpperCase();
+    }
+
+    private boolean indexExists(String indexName) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = ?",
+                Integer.class, indexName.toUpperCase());
+        return count != null && count > 0;
+    }
+
+    @Test
+    void findCompetenceProfilesByPerson_usesPersonIndex() {
+        String plan = explain("SELECT * FROM competence_profile WHERE person_id = 1");
+
+        // H2 also indexes foreign keys on its own, so only assert an index lookup
+        assertThat(indexExists("idx_competence_profile_person_id")).isTrue();
+        assertThat(plan).contains(": PERSON_ID =").doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void deleteAvailabilitiesByPerson_usesPersonIndex() {
+        String plan = explain("DELETE FROM availability WHERE person_id = 1");
+
+        assertThat(indexExists("idx_availability_person_id")).isTrue();
+        assertThat(plan).contains(": PERSON_ID =").doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void existsByEmail_usesUniqueEmailIndex() {
+        String plan = explain("SELECT person_id FROM person WHERE email = 'a@test.com' FETCH FIRST 1 ROWS ONLY");
+
+        assertThat(plan).contains("UX_PERSON_EMAIL");
+    }
+
+    @Test
+    void unhandledQueue_usesStatusIndex() {
+        String plan = explain("SELECT person_id FROM person WHERE status = 0 ORDER BY person_id");
+
+        assertThat(plan).contains("IDX_PERSON_STATUS");
+    }
+
+    @Test
+    void applicationViewByStatus_usesStatusIndex() {
+        String plan = explain("SELECT * FROM application_view WHERE status = 0 ORDER BY person_id");
+
+        assertThat(plan).contains("IDX_APPLICATION_VIEW_STATUS");
+    }
+
+    @Test
+    void duplicateEmail_isRejectedByUniqueIndex() {
+        jdbcTemplate.update("INSERT INTO person (person_id, email) VALUES (1, 'dup@test.com')");
+
+        assertThatThrownBy(() ->
+                jdbcTemplate.update("INSERT INTO person (person_id, email) VALUES (2, 'dup@test.com')"))
+                .hasMessageContaining("UX_PERSON_EMAIL");
+    }
+}
@@ -5,6 +5,7 @@ import com.iv1201.recruitment.dto.ApplicationsCreateDTO;
 import com.iv1201.recruitment.dto.CompetenceDTO;
 import com.iv1201.recruitment.dto.AvailabilityDTO;
 import com.iv1201.recruitment.dto.PersonCreateDTO;
+import com.iv1201.recruitment.dto.PersonCreateResultDTO;
 import com.iv1201.recruitment.dto.UpdateProfileDTO;
 import com.iv1201.recruitment.model.*;
 import com.iv1201.recruitment.repository.*;
@@ -19,6 +20,7 @@ import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -43,16 +45,22 @@ class ApplicationServiceTest {
     @Mock
     private AvailabilityRepository availabilityRepository;
 
+    @Mock
+    private ApplicationViewRepository applicationViewRepository;
+
+    @Mock
+    private ApplicationViewProjector applicationViewProjector;
+
     @InjectMocks
     private ApplicationService applicationService;
 
     @Test
     void getAllApplications_returnsMappedDTOs() {
-        Person person = new Person();
-        person.setName("Gustav");
-        person.setSurname("Grahn");
+        ApplicationView view = new ApplicationView();
+        view.setName("Gustav");
+        view.setSurname("Grahn");
 
-        when(personRepository.findAll()).thenReturn(List.of(person));
+        when(applicationViewRepository.findSubmittedApplications()).thenReturn(List.of(view));
 
         List<ApplicationSummaryDTO> result = applicationService.getAllApplications();
 
@@ -64,6 +72,37 @@ class ApplicationServiceTest {
         assertThat(dto.getStatus()).isEqualTo("UNHANDLED");
     }
 
+    @Test
+    void getApplicationsByStatus_queriesRepositoryWithParsedStatus() {
+        ApplicationView view = new ApplicationView();
+        view.setPersonId(7L);
+        view.setName("Gustav");
+        view.setSurname("Grahn");
+        view.setStatus(ApplicationStatus.REJECTED);
+
+        when(applicationViewRepository.findSubmittedApplicationsByStatus(ApplicationStatus.REJECTED))
+                .thenReturn(List.of(view));
+
+        List<ApplicationSummaryDTO> result = applicationService.getApplicationsByStatus("rejected");
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getPersonID()).isEqualTo(7L);
+        assertThat(result.get(0).getStatus()).isEqualTo("REJECTED");
+        verify(applicationViewRepository, never()).findSubmittedApplications();
+    }
+
+    @Test
+    void getApplicationsByStatus_throwsBadRequestForInvalidStatus() {
+        assertThatThrownBy(() -> applicationService.getApplicationsByStatus("PENDING"))
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(ex -> {
+                    ResponseStatusException rse = (ResponseStatusException) ex;
+                    assertThat(rse.getStatusCode().value()).isEqualTo(400);
+                });
+
+        verifyNoInteractions(applicationViewRepository);
+    }
+
     @Test
     void createApplication_savesPersonAndDetails() {
         ApplicationsCreateDTO dto = mock(ApplicationsCreateDTO.class);
@@ -91,7 +130,7 @@ class ApplicationServiceTest {
 
         verify(personRepository).save(existingPerson);
         assertThat(existingPerson.getName()).isEqualTo("Alice");
-        assertThat(existingPerson.getStatus()).isEqualTo("UNHANDLED");
+        assertThat(existingPerson.getStatus()).isEqualTo(ApplicationStatus.UNHANDLED);
 
         verify(competenceProfileRepository).save(argThat(profile -> profile.getPerson() == existingPerson &&
                 profile.getCompetence() == mockCompetence &&
@@ -99,6 +138,7 @@ class ApplicationServiceTest {
 
         verify(availabilityRepository).save(argThat(avail -> avail.getPerson() == existingPerson &&
                 avail.getFromDate().equals(LocalDate.parse("2023-01-01"))));
+        verify(applicationViewProjector).refresh(100L);
     }
 
     @Test
@@ -106,13 +146,13 @@ class ApplicationServiceTest {
         ApplicationsCreateDTO dto = mock(ApplicationsCreateDTO.class);
 
         Person person = new Person();
-        person.setStatus("ACCEPTED");
+        person.setStatus(ApplicationStatus.ACCEPTED);
         when(personRepository.findById(100L)).thenReturn(Optional.of(person));
 
         applicationService.createApplication(dto, 100L);
 
         verify(personRepository).save(person);
-        assertThat(person.getStatus()).isEqualTo("ACCEPTED");
+        assertThat(person.getStatus()).isEqualTo(ApplicationStatus.ACCEPTED);
 
         verifyNoInteractions(competenceRepository);
         verifyNoInteractions(competenceProfileRepository);
@@ -163,7 +203,7 @@ class ApplicationServiceTest {
         verify(personRepository).save(existingPerson);
         assertThat(existingPerson.getName()).isEqualTo("Bob");
         assertThat(existingPerson.getSurname()).isEqualTo("Builder");
-        assertThat(existingPerson.getStatus()).isEqualTo("UNHANDLED");
+        assertThat(existingPerson.getStatus()).isEqualTo(ApplicationStatus.UNHANDLED);
 
         verify(competenceProfileRepository).deleteByPerson_Id(200L);
         verify(availabilityRepository).deleteByPerson_Id(200L);
@@ -184,25 +224,26 @@ class ApplicationServiceTest {
     void updateApplicationStatus_successWhenVersionMatches() {
         Person person = new Person();
         person.setId(1L);
-        person.setStatus("UNHANDLED");
+        person.setStatus(ApplicationStatus.UNHANDLED);
         person.setVersion(0L);
         when(personRepository.findById(1L)).thenReturn(Optional.of(person));
 
-        applicationService.updateApplicationStatus(1L, "ACCEPTED", 0L);
+        applicationService.updateApplicationStatus(1L, "ACCEPTED", 0L, null);
 
-        assertThat(person.getStatus()).isEqualTo("ACCEPTED");
+        assertThat(person.getStatus()).isEqualTo(ApplicationStatus.ACCEPTED);
         verify(personRepository).save(person);
+        verify(applicationViewProjector).refresh(1L);
     }
 
     @Test
     void updateApplicationStatus_throwsConflictWhenVersionMismatch() {
         Person person = new Person();
         person.setId(1L);
-        person.setStatus("UNHANDLED");
+        person.setStatus(ApplicationStatus.UNHANDLED);
         person.setVersion(2L);
         when(personRepository.findById(1L)).thenReturn(Optional.of(person));
 
-        assertThatThrownBy(() -> applicationService.updateApplicationStatus(1L, "ACCEPTED", 1L))
+        assertThatThrownBy(() -> applicationService.updateApplicationStatus(1L, "ACCEPTED", 1L, null))
                 .isInstanceOf(ResponseStatusException.class)
                 .satisfies(ex -> {
                     ResponseStatusException rse = (ResponseStatusException) ex;
@@ -216,13 +257,13 @@ class ApplicationServiceTest {
     void updateApplicationStatus_throwsConflictOnOptimisticLockException() {
         Person person = new Person();
         person.setId(1L);
-        person.setStatus("UNHANDLED");
+        person.setStatus(ApplicationStatus.UNHANDLED);
         person.setVersion(0L);
         when(personRepository.findById(1L)).thenReturn(Optional.of(person));
         when(personRepository.save(any())).thenThrow(
                 new ObjectOptimisticLockingFailureException(Person.class.getName(), 1L));
 
-        assertThatThrownBy(() -> applicationService.updateApplicationStatus(1L, "ACCEPTED", 0L))
+        assertThatThrownBy(() -> applicationService.updateApplicationStatus(1L, "ACCEPTED", 0L, null))
                 .isInstanceOf(ResponseStatusException.class)
                 .satisfies(ex -> {
                     ResponseStatusException rse = (ResponseStatusException) ex;
@@ -231,33 +272,77 @@ class ApplicationServiceTest {
     }
 
     @Test
-    void getApplicationById_returnsMappedDetailDto() {
+    void updateApplicationStatus_throwsConflictWhenLeasedToOtherRecruiter() {
+        Person person = new Person();
+        person.setId(1L);
+        person.setVersion(0L);
+        person.setLeaseHolder(100L);
+        person.setLeaseExpiresAt(Instant.now().plusSeconds(600));
+        when(personRepository.findById(1L)).thenReturn(Optional.of(person));
+
+        assertThatThrownBy(() -> applicationService.updateApplicationStatus(1L, "ACCEPTED", 0L, 200L))
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(ex -> {
+                    ResponseStatusException rse = (ResponseStatusException) ex;
+                    assertThat(rse.getStatusCode().value()).isEqualTo(409);
+                });
+
+        verify(personRepository, never()).save(any());
+    }
+
+    @Test
+    void updateApplicationStatus_releasesLeaseOfLeaseHolder() {
+        Person person = new Person();
+        person.setId(1L);
+        person.setVersion(0L);
+        person.setLeaseHolder(100L);
+        person.setLeaseExpiresAt(Instant.now().plusSeconds(600));
+        when(personRepository.findById(1L)).thenReturn(Optional.of(person));
+
+        applicationService.updateApplicationStatus(1L, "REJECTED", 0L, 100L);
+
+        assertThat(person.getStatus()).isEqualTo(ApplicationStatus.REJECTED);
+        assertThat(person.getLeaseHolder()).isNull();
+        assertThat(person.getLeaseExpiresAt()).isNull();
+        verify(personRepository).save(person);
+    }
+
+    @Test
+    void updateApplicationStatus_ignoresExpiredLease() {
         Person person = new Person();
-        person.setId(10L);
-        person.setName("Anna");
-        person.setSurname("Andersson");
-        person.setEmail("anna@example.com");
-        person.setPnr("19900101-0000");
-        person.setStatus(null);
-        person.setVersion(5L);
-
-        Competence competence = new Competence();
+        person.setId(1L);
+        person.setVersion(0L);
+        person.setLeaseHolder(100L);
+        person.setLeaseExpiresAt(Instant.now().minusSeconds(1));
+        when(personRepository.findById(1L)).thenReturn(Optional.of(person));
+
+        applicationService.updateApplicationStatus(1L, "ACCEPTED", 0L, 200L);
+
+        assertThat(person.getStatus()).isEqualTo(ApplicationStatus.ACCEPTED);
+    }
+
+    @Test
+    void getApplicationById_returnsMappedDetailDto() {
+        CompetenceDTO competence = new CompetenceDTO();
         competence.setCompetenceId(3L);
         competence.setName("Java");
+        competence.setYearsOfExperience(BigDecimal.TEN);
 
-        CompetenceProfile profile = new CompetenceProfile();
-        profile.setPerson(person);
-        profile.setCompetence(competence);
-        profile.setYearsOfExperience(BigDecimal.TEN);
-
-        Availability availability = new Availability();
-        availability.setPerson(person);
+        AvailabilityDTO availability = new AvailabilityDTO();
         availability.setFromDate(LocalDate.parse("2024-02-01"));
         availability.setToDate(LocalDate.parse("2024-02-28"));
 
-        when(personRepository.findById(10L)).thenReturn(Optional.of(person));
-        when(competenceProfileRepository.findByPerson_Id(10L)).thenReturn(List.of(profile));
-        when(availabilityRepository.findByPerson_Id(10L)).thenReturn(List.of(availability));
+        ApplicationView view = new ApplicationView();
+        view.setPersonId(10L);
+        view.setName("Anna");
+        view.setSurname("Andersson");
+        view.setEmail("anna@example.com");
+        view.setPnr("19900101-0000");
+        view.setPersonVersion(5L);
+        view.setCompetences(List.of(competence));
+        view.setAvailabilities(List.of(availability));
+
+        when(applicationViewRepository.findById(10L)).thenReturn(Optional.of(view));
 
         var result = applicationService.getApplicationById(10L);
 
@@ -268,22 +353,15 @@ class ApplicationServiceTest {
         assertThat(result.getPnr()).isEqualTo("19900101-0000");
         assertThat(result.getStatus()).isEqualTo("UNHANDLED");
         assertThat(result.getVersion()).isEqualTo(5L);
+        assertThat(result.getCompetences()).containsExactly(competence);
+        assertThat(result.getAvailabilities()).containsExactly(availability);
 
-        assertThat(result.getCompetences()).hasSize(1);
-        CompetenceDTO mappedComp = result.getCompetences().get(0);
-        assertThat(mappedComp.getCompetenceId()).isEqualTo(3L);
-        assertThat(mappedComp.getName()).isEqualTo("Java");
-        assertThat(mappedComp.getYearsOfExperience()).isEqualTo(BigDecimal.TEN);
-
-        assertThat(result.getAvailabilities()).hasSize(1);
-        AvailabilityDTO mappedAvail = result.getAvailabilities().get(0);
-        assertThat(mappedAvail.getFromDate()).isEqualTo(LocalDate.parse("2024-02-01"));
-        assertThat(mappedAvail.getToDate()).isEqualTo(LocalDate.parse("2024-02-28"));
+        verifyNoInteractions(personRepository, competenceProfileRepository, availabilityRepository);
     }
 
     @Test
     void getApplicationById_throwsNotFoundWhenPersonMissing() {
-        when(personRepository.findById(999L)).thenReturn(Optional.empty());
+        when(applicationViewRepository.findById(999L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> applicationService.getApplicationById(999L))
                 .isInstanceOf(ResponseStatusException.class)
@@ -326,7 +404,101 @@ class ApplicationServiceTest {
         verify(personRepository).save(argThat(person -> person.getId().equals(42L)
                 && "test@example.com".equals(person.getEmail())
                 && "19900101-1234".equals(person.getPnr())
-                && "UNHANDLED".equals(person.getStatus())));
+                && person.getStatus() == ApplicationStatus.UNHANDLED));
+    }
+
+    @Test
+    void createPerson_isIdempotentForExistingPerson() {
+        PersonCreateDTO dto = personCreate(42L, "test@example.com");
+        Person existing = new Person();
+        existing.setId(42L);
+        existing.setEmail("test@example.com");
+        existing.setPnr("19900101-1234");
+
+        when(personRepository.findById(42L)).thenReturn(Optional.of(existing));
+
+        assertThat(applicationService.createPerson(dto)).isFalse();
+        verify(personRepository, never()).save(any());
+    }
+
+    @Test
+    void createPerson_rejectsIdOfDifferentPerson() {
+        PersonCreateDTO dto = personCreate(42L, "new@example.com");
+        Person existing = new Person();
+        existing.setId(42L);
+        existing.setEmail("legacy@example.com");
+        existing.setPnr("19800101-1234");
+
+        when(personRepository.findById(42L)).thenReturn(Optional.of(existing));
+
+        assertThatThrownBy(() -> applicationService.createPerson(dto))
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode().value()).isEqualTo(409));
+        verify(personRepository, never()).save(any());
+    }
+
+    @Test
+    void createPersons_reportsOutcomePerEntry() {
+        PersonCreateDTO fresh = personCreate(1L, "a@example.com");
+        PersonCreateDTO existing = personCreate(2L, "b@example.com");
+        PersonCreateDTO takenEmail = personCreate(3L, "taken@example.com");
+        PersonCreateDTO sameEmailInBatch = personCreate(4L, "a@example.com");
+        PersonCreateDTO idOfOtherPerson = personCreate(5L, "c@example.com");
+        PersonCreateDTO sameIdInBatch = personCreate(1L, "d@example.com");
+
+        Person stored = new Person();
+        stored.setId(2L);
+        stored.setEmail("b@example.com");
+        stored.setPnr("19900101-1234");
+        Person legacy = new Person();
+        legacy.setId(5L);
+        legacy.setEmail("legacy@example.com");
+        legacy.setPnr("19800101-1234");
+        when(personRepository.findAllById(List.of(1L, 2L, 3L, 4L, 5L, 1L))).thenReturn(List.of(stored, legacy));
+        when(personRepository.findExistingEmails(any())).thenReturn(List.of("taken@example.com"));
+
+        List<PersonCreateResultDTO> results = applicationService.createPersons(
+                List.of(fresh, existing, takenEmail, sameEmailInBatch, idOfOtherPerson, sameIdInBatch));
+
+        assertThat(results).extracting(PersonCreateResultDTO::getOutcome).containsExactly(
+                PersonCreateResultDTO.Outcome.CREATED,
+                PersonCreateResultDTO.Outcome.EXISTS,
+                PersonCreateResultDTO.Outcome.CONFLICT,
+                PersonCreateResultDTO.Outcome.CONFLICT,
+                PersonCreateResultDTO.Outcome.CONFLICT,
+                PersonCreateResultDTO.Outcome.CONFLICT);
+        assertThat(results).extracting(PersonCreateResultDTO::getReason).containsExactly(
+                null,
+                null,
+                ApplicationService.EMAIL_TAKEN,
+                ApplicationService.EMAIL_TAKEN,
+                ApplicationService.ID_TAKEN,
+                ApplicationService.ID_TAKEN);
+        verify(personRepository).saveAll(argThat((List<Person> persons) ->
+                persons.size() == 1 && persons.get(0).getId().equals(1L)));
+        verify(applicationViewProjector).createViews(argThat(persons -> persons.size() == 1));
+    }
+
+    private PersonCreateDTO personCreate(Long id, String email) {
+        PersonCreateDTO dto = new PersonCreateDTO();
+        dto.setPersonId(id);
+        dto.setEmail(email);
+        dto.setPnr("19900101-1234");
+        return dto;
+    }
+
+    @Test
+    void createPerson_rejectsEmailOfAnotherPerson() {
+        PersonCreateDTO dto = new PersonCreateDTO();
+        dto.setPersonId(42L);
+        dto.setEmail("taken@example.com");
+
+        when(personRepository.existsByEmail("taken@example.com")).thenReturn(true);
+
+        assertThatThrownBy(() -> applicationService.createPerson(dto))
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode().value()).isEqualTo(409));
+        verify(personRepository, never()).save(any());
     }
 
     @Test
@@ -0,0 +1,138 @@
+package com.iv1201.recruitment.service;
+
+import com.iv1201.recruitment.model.Competence;
+import com.iv1201.recruitment.model.CompetenceProfile;
+import com.iv1201.recruitment.model.Person;
+import com.iv1201.recruitment.repository.ApplicationViewRepository;
+import com.iv1201.recruitment.repository.CompetenceProfileRepository;
+import com.iv1201.recruitment.repository.CompetenceRepository;
+import com.iv1201.recruitment.repository.PersonRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares projecting an application into the read model with the Competence
+ * second-level cache on and off. The projection is where CompetenceProfile
+ * rows, and with them their competences, are hydrated since reads are served
+ * from the read model.
+ *
+ * Runs without a surrounding test transaction, since Hibernate does not cache
+ * entities that were inserted in the current transaction.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ApplicationViewProjector.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ApplicationViewProjectorCacheTest {
+
+    private static final int COMPETENCES = 3;
+    private static final int ROUNDS = 50;
+
+    @Autowired
+    private ApplicationViewProjector applicationViewProjector;
+
+    @Autowired
+    private ApplicationViewRepository applicationViewRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private CompetenceRepository competenceRepository;
+
+    @Autowired
+    private CompetenceProfileRepository competenceProfileRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long personId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Person person = new Person();
+        person.setId(1L);
+        person.setName("Alice");
+        person.setSurname("Doe");
+        personRepository.save(person);
+        personId = person.getId();
+
+        for (int i = 0; i < COMPETENCES; i++) {
+            Competence competence = new Competence();
+            competence.setName("Competence " + i);
+            competenceRepository.save(competence);
+
+            CompetenceProfile profile = new CompetenceProfile();
+            profile.setPerson(personRepository.findById(personId).orElseThrow());
+            profile.setCompetence(competence);
+            profile.setYearsOfExperience(BigDecimal.ONE);
+            competenceProfileRepository.save(profile);
+        }
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        applicationViewRepository.deleteAll();
+        competenceProfileRepository.deleteAll();
+        competenceRepository.deleteAll();
+        personRepository.deleteAll();
+    }
+
+    /** Runs the projection ROUNDS times and returns the number of JDBC statements. */
+    private long run(boolean cacheEnabled) {
+        applicationViewProjector.refresh(personId);
+        statistics.clear();
+
+        for (int i = 0; i < ROUNDS; i++) {
+            if (!cacheEnabled) {
+                entityManagerFactory.getCache().evictAll();
+            }
+            applicationViewProjector.refresh(personId);
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void refresh_servesCompetencesFromSecondLevelCache() {
+        applicationViewProjector.refresh(personId);
+        statistics.clear();
+
+        applicationViewProjector.refresh(personId);
+
+        assertThat(statistics.getDomainDataRegionStatistics("competence").getHitCount())
+                .isEqualTo(COMPETENCES);
+        assertThat(statistics.getDomainDataRegionStatistics("competence").getMissCount())
+                .isZero();
+    }
+
+    @Test
+    void refresh_issuesFewerStatementsWithCacheOn() {
+        long withoutCache = run(false);
+        long withCache = run(true);
+
+        // a cold cache costs one select per competence on top of the projection
+        assertThat(withoutCache - withCache)
+                .as("statements for %d refreshes, cache off: %d, cache on: %d", ROUNDS, withoutCache, withCache)
+                .isEqualTo((long) ROUNDS * COMPETENCES);
+    }
+}
@@ -0,0 +1,131 @@
+package com.iv1201.recruitment.service;
+
+import com.iv1201.recruitment.model.*;
+import com.iv1201.recruitment.repository.*;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ApplicationViewProjector.class)
+class ApplicationViewProjectorTest {
+
+    @Autowired
+    private ApplicationViewProjector projector;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private CompetenceRepository competenceRepository;
+
+    @Autowired
+    private CompetenceProfileRepository competenceProfileRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private ApplicationViewRepository applicationViewRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void refresh_projectsPersonCompetencesAndAvailabilities() {
+        Person person = applicant(1L, "Anna");
+        Competence java = competence("Java");
+        profile(person, java, BigDecimal.TEN);
+        availability(person, "2024-02-01", "2024-02-28");
+
+        projector.refresh(1L);
+        entityManager.flush();
+        entityManager.clear();
+
+        ApplicationView view = applicationViewRepository.findById(1L).orElseThrow();
+        assertThat(view.getName()).isEqualTo("Anna");
+        assertThat(view.getStatus()).isEqualTo(ApplicationStatus.UNHANDLED);
+        assertThat(view.getPersonVersion()).isEqualTo(personRepository.findById(1L).orElseThrow().getVersion());
+        assertThat(view.getCompetences()).singleElement().satisfies(c -> {
+            assertThat(c.getCompetenceId()).isEqualTo(java.getCompetenceId());
+            assertThat(c.getName()).isEqualTo("Java");
+            assertThat(c.getYearsOfExperience()).isEqualByComparingTo(BigDecimal.TEN);
+        });
+        assertThat(view.getAvailabilities()).singleElement().satisfies(a -> {
+            assertThat(a.getFromDate()).isEqualTo(LocalDate.parse("2024-02-01"));
+            assertThat(a.getToDate()).isEqualTo(LocalDate.parse("2024-02-28"));
+        });
+    }
+
+    @Test
+    void refresh_storesVersionOfPendingUpdate() {
+        applicant(1L, "Anna");
+        projector.refresh(1L);
+
+        Person person = personRepository.findById(1L).orElseThrow();
+        Long before = person.getVersion();
+        person.setStatus(ApplicationStatus.ACCEPTED);
+        projector.refresh(1L);
+
+        ApplicationView view = applicationViewRepository.findById(1L).orElseThrow();
+        assertThat(view.getStatus()).isEqualTo(ApplicationStatus.ACCEPTED);
+        assertThat(view.getPersonVersion()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void rebuildAll_projectsEveryPerson() {
+        Competence java = competence("Java");
+        for (long id = 1; id <= ApplicationViewProjector.REBUILD_BATCH_SIZE + 5; id++) {
+            Person person = applicant(id, "Applicant" + id);
+            profile(person, java, BigDecimal.ONE);
+        }
+        entityManager.flush();
+
+        long projected = projector.rebuildAll();
+
+        assertThat(projected).isEqualTo(ApplicationViewProjector.REBUILD_BATCH_SIZE + 5);
+        assertThat(applicationViewRepository.count()).isEqualTo(projected);
+        assertThat(applicationViewRepository.findById(3L).orElseThrow().getCompetences())
+                .singleElement().satisfies(c -> assertThat(c.getName()).isEqualTo("Java"));
+    }
+
+    private Person applicant(Long id, String name) {
+        Person person = new Person();
+        person.setId(id);
+        person.setName(name);
+        person.setSurname("Testsson");
+        return personRepository.save(person);
+    }
+
+    private Competence competence(String name) {
+        Competence competence = new Competence();
+        competence.setName(name);
+        return competenceRepository.save(competence);
+    }
+
+    private void profile(Person person, Competence competence, BigDecimal years) {
+        CompetenceProfile profile = new CompetenceProfile();
+        profile.setPerson(person);
+        profile.setCompetence(competence);
+        profile.setYearsOfExperience(years);
+        competenceProfileRepository.save(profile);
+    }
+
+    private void availability(Person person, String from, String to) {
+        Availability availability = new Availability();
+        availability.setPerson(person);
+        availability.setFromDate(LocalDate.parse(from));
+        availability.setToDate(LocalDate.parse(to));
+        availabilityRepository.save(availability);
+    }
+}
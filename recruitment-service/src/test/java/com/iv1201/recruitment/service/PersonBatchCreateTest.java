@@ -0,0 +1,101 @@
+package com.iv1201.recruitment.service;
+
+import com.iv1201.recruitment.dto.PersonCreateDTO;
+import com.iv1201.recruitment.dto.PersonCreateResultDTO;
+import com.iv1201.recruitment.repository.ApplicationViewRepository;
+import com.iv1201.recruitment.repository.PersonRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the statements of a batch person creation. The existence checks
+ * are one query each and the inserts are JDBC batched, so the count does
+ * not depend on the number of persons.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ApplicationService.class, ApplicationViewProjector.class})
+class PersonBatchCreateTest {
+
+    private static final int PERSONS = 40;
+
+    @Autowired
+    private ApplicationService applicationService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private ApplicationViewRepository applicationViewRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private List<PersonCreateDTO> persons(int count) {
+        List<PersonCreateDTO> dtos = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            PersonCreateDTO dto = new PersonCreateDTO();
+            dto.setPersonId(id);
+            dto.setEmail("person" + id + "@example.com");
+            dto.setPnr("19900101-1234");
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    @Test
+    void createPersons_usesConstantNumberOfStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<PersonCreateResultDTO> results = applicationService.createPersons(persons(PERSONS));
+        personRepository.flush();
+
+        long statements = statistics.getPrepareStatementCount();
+        assertThat(results).allMatch(r -> r.getOutcome() == PersonCreateResultDTO.Outcome.CREATED);
+        assertThat(statements).isLessThanOrEqualTo(4);
+        assertThat(personRepository.count()).isEqualTo(PERSONS);
+        assertThat(applicationViewRepository.count()).isEqualTo(PERSONS);
+    }
+
+    @Test
+    void createPersons_isIdempotentOnRetry() {
+        applicationService.createPersons(persons(3));
+        personRepository.flush();
+
+        List<PersonCreateResultDTO> retry = applicationService.createPersons(persons(3));
+
+        assertThat(retry).allMatch(r -> r.getOutcome() == PersonCreateResultDTO.Outcome.EXISTS);
+        assertThat(personRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void createPersons_reportsConflictForIdOfDifferentPerson() {
+        applicationService.createPersons(persons(1));
+        personRepository.flush();
+
+        PersonCreateDTO collision = persons(1).get(0);
+        collision.setEmail("someone.else@example.com");
+        List<PersonCreateResultDTO> results = applicationService.createPersons(List.of(collision));
+
+        assertThat(results).extracting(PersonCreateResultDTO::getOutcome)
+                .containsExactly(PersonCreateResultDTO.Outcome.CONFLICT);
+        assertThat(results).extracting(PersonCreateResultDTO::getReason)
+                .containsExactly(ApplicationService.ID_TAKEN);
+        assertThat(personRepository.findById(1L)).get()
+                .extracting(person -> person.getEmail()).isEqualTo("person1@example.com");
+    }
+}
@@ -0,0 +1,103 @@
+package com.iv1201.recruitment.service;
+
+import com.iv1201.recruitment.dto.ApplicationSummaryDTO;
+import com.iv1201.recruitment.model.ApplicationStatus;
+import com.iv1201.recruitment.model.Person;
+import com.iv1201.recruitment.repository.PersonRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Claims from the work queue in two concurrent transactions. The first
+ * claim keeps its transaction, and with it its row locks, open until the
+ * second claim has returned, so the second claim only finishes if it skips
+ * the locked rows instead of waiting for them.
+ *
+ * Runs without a surrounding test transaction, so each claim commits on
+ * its own connection.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(WorkQueueService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WorkQueueConcurrencyTest {
+
+    @Autowired
+    private WorkQueueService workQueueService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 4; id++) {
+            Person person = new Person();
+            person.setId(id);
+            person.setName("Applicant" + id);
+            person.setSurname("Testsson");
+            person.setStatus(ApplicationStatus.UNHANDLED);
+            personRepository.save(person);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        personRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentClaims_getDisjointApplications() throws Exception {
+        CountDownLatch firstClaimed = new CountDownLatch(1);
+        CountDownLatch secondClaimed = new CountDownLatch(1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        CompletableFuture<List<ApplicationSummaryDTO>> first = CompletableFuture.supplyAsync(() ->
+                transaction.execute(status -> {
+                    List<ApplicationSummaryDTO> claimed = workQueueService.claimApplications(100L, 2);
+                    firstClaimed.countDown();
+                    try {
+                        // Hold the row locks until the second claim is done
+                        secondClaimed.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return claimed;
+                }));
+        assertThat(firstClaimed.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<List<ApplicationSummaryDTO>> second = CompletableFuture.supplyAsync(() -> {
+            List<ApplicationSummaryDTO> claimed = workQueueService.claimApplications(200L, 2);
+            secondClaimed.countDown();
+            return claimed;
+        });
+
+        assertThat(second.get(10, TimeUnit.SECONDS))
+                .extracting(ApplicationSummaryDTO::getPersonID).containsExactly(3L, 4L);
+        assertThat(first.get(10, TimeUnit.SECONDS))
+                .extracting(ApplicationSummaryDTO::getPersonID).containsExactly(1L, 2L);
+        assertThat(personRepository.findAllById(List.of(1L, 2L)))
+                .extracting(Person::getLeaseHolder).containsOnly(100L);
+        assertThat(personRepository.findAllById(List.of(3L, 4L)))
+                .extracting(Person::getLeaseHolder).containsOnly(200L);
+    }
+}
@@ -0,0 +1,82 @@
+package com.iv1201.recruitment.service;
+
+import com.iv1201.recruitment.dto.ApplicationSummaryDTO;
+import com.iv1201.recruitment.model.ApplicationStatus;
+import com.iv1201.recruitment.model.Person;
+import com.iv1201.recruitment.repository.PersonRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorkQueueServiceTest {
+
+    @Mock
+    private PersonRepository personRepository;
+
+    private WorkQueueService workQueueService;
+
+    @BeforeEach
+    void setUp() {
+        workQueueService = new WorkQueueService(personRepository, Duration.ofMinutes(15));
+    }
+
+    @Test
+    void claimApplications_leasesLockedApplicationsToRecruiter() {
+        Person anna = applicant(1L, "Anna");
+        Person bert = applicant(2L, "Bert");
+        when(personRepository.lockClaimableApplications(eq(ApplicationStatus.UNHANDLED), eq(42L),
+                any(Instant.class), eq(PageRequest.of(0, 5)))).thenReturn(List.of(anna, bert));
+
+        Instant before = Instant.now();
+        List<ApplicationSummaryDTO> result = workQueueService.claimApplications(42L, 5);
+
+        assertThat(result).extracting(ApplicationSummaryDTO::getPersonID).containsExactly(1L, 2L);
+        assertThat(result.get(0).getFullName()).isEqualTo("Anna Testsson");
+        verify(personRepository).leaseApplications(eq(List.of(1L, 2L)), eq(42L),
+                argThat(expiresAt -> !expiresAt.isBefore(before.plus(Duration.ofMinutes(15)))));
+    }
+
+    @Test
+    void claimApplications_doesNotLeaseWhenQueueIsEmpty() {
+        when(personRepository.lockClaimableApplications(any(), anyLong(), any(), any())).thenReturn(List.of());
+
+        assertThat(workQueueService.claimApplications(42L, 10)).isEmpty();
+
+        verify(personRepository, never()).leaseApplications(any(), any(), any());
+    }
+
+    @Test
+    void claimApplications_rejectsLimitOutOfRange() {
+        assertThatThrownBy(() -> workQueueService.claimApplications(42L, 0))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> workQueueService.claimApplications(42L, WorkQueueService.MAX_BATCH_SIZE + 1))
+                .isInstanceOf(ResponseStatusException.class);
+
+        verifyNoInteractions(personRepository);
+    }
+
+    private Person applicant(Long id, String name) {
+        Person person = new Person();
+        person.setId(id);
+        person.setName(name);
+        person.setSurname("Testsson");
+        return person;
+    }
+}